@@ -40,6 +40,73 @@ tasks.withType<KotlinCompile> {
     kotlinOptions.jvmTarget = "17"
 }
 
+// Specialised parsers generated from the MrzFormat layouts, see MrzParserGenerator
+val generator by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath
+    runtimeClasspath += sourceSets.main.get().output + sourceSets.main.get().runtimeClasspath
+}
+
+val generateMrzParsers by tasks.registering(JavaExec::class) {
+    val outputDir = layout.buildDirectory.dir("generated/sources/mrzParsers/java")
+    classpath = generator.runtimeClasspath
+    mainClass.set("com.github.rarspace01.mrz.generator.MrzParserGenerator")
+    inputs.files(sourceSets.main.get().output)
+    outputs.dir(outputDir)
+    argumentProviders.add(CommandLineArgumentProvider { listOf(outputDir.get().asFile.absolutePath) })
+    doFirst { delete(outputDir) }
+}
+
+val generatedParsers by sourceSets.creating {
+    java.srcDir(generateMrzParsers)
+    compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath
+}
+
+// Optional embedded HTTP parsing service on com.sun.net.httpserver, kept out of the core jar: ./gradlew serverJar runMrzServer
+val server by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath
+    runtimeClasspath += sourceSets.main.get().output + sourceSets.main.get().runtimeClasspath
+}
+
+val serverJar by tasks.registering(Jar::class) {
+    archiveClassifier.set("server")
+    from(server.output)
+}
+
+val runMrzServer by tasks.registering(JavaExec::class) {
+    description = "Runs the MRZ parsing service, the port is taken from -Pport (default 8080)."
+    classpath = server.runtimeClasspath + generatedParsers.output
+    mainClass.set("com.github.rarspace01.mrz.server.MrzHttpServer")
+    args(providers.gradleProperty("port").orElse("8080").get())
+}
+
+sourceSets.test {
+    compileClasspath += server.output
+    runtimeClasspath += generatedParsers.output + server.output
+}
+
+// Opt-in SIMD MrzBatchValidator on the incubating Vector API, kept out of the core jar: ./gradlew vectorJar vectorTest
+val vector by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath
+}
+
+tasks.named<JavaCompile>("compileVectorJava") {
+    options.compilerArgs.addAll(listOf("--add-modules", "jdk.incubator.vector"))
+}
+
+val vectorJar by tasks.registering(Jar::class) {
+    archiveClassifier.set("vector")
+    from(vector.output)
+}
+
+val vectorTest by tasks.registering(Test::class) {
+    description = "Runs the tests with the vectorized MrzBatchValidator."
+    group = "verification"
+    useJUnitPlatform()
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath + vector.output
+    jvmArgs("--add-modules", "jdk.incubator.vector")
+}
+
 tasks.test {
     useJUnitPlatform()
 }
@@ -48,6 +115,7 @@ tasks.jar {
     manifest {
         archiveFileName.set("mrz-java.jar") // .jar name: name.jar
     }
+    from(generatedParsers.output)
 }
 
 publishing {
@@ -0,0 +1,285 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz.generator;
+
+import com.github.rarspace01.mrz.MrzRange;
+import com.github.rarspace01.mrz.MrzRecord;
+import com.github.rarspace01.mrz.types.MrzField;
+import com.github.rarspace01.mrz.types.MrzFormat;
+import com.github.rarspace01.mrz.types.MrzLayout;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Build time generator of the specialised record parsers. For every {@link MrzFormat} it emits a class with a static {@code decode} method
+ * which fills an instance of the record class of the format with the fields of the {@link MrzLayout} in straight-line code: constant
+ * column offsets and unrolled check digit sums instead of the generic layout loop, without any {@link MrzRange} objects. It also emits the
+ * {@code MrzParsers} dispatcher which {@link MrzRecord#fromMrz(com.github.rarspace01.mrz.MrzParser)} loads. The classes are package-private
+ * in the package of {@link MrzRecord} so that they can call its protected setters.
+ */
+public final class MrzParserGenerator {
+
+	/**
+	 * Package of the generated classes.
+	 */
+	static final String PACKAGE = MrzRecord.class.getPackage().getName();
+
+	private static final int[] MRZ_WEIGHTS = new int[]{7, 3, 1};
+
+	/**
+	 * Prevent instantiation.
+	 */
+	private MrzParserGenerator() {
+		// Do nothing
+	}
+
+	/**
+	 * Generates the parsers.
+	 *
+	 * @param args the output source directory
+	 * @throws IOException could not write the sources
+	 */
+	public static void main(final String[] args) throws IOException {
+		if (args.length != 1) {
+			throw new IllegalArgumentException("Usage: MrzParserGenerator <output source directory>");
+		}
+		final Path dir = Paths.get(args[0]).resolve(PACKAGE.replace('.', '/'));
+		Files.createDirectories(dir);
+		for (final MrzFormat format : MrzFormat.values()) {
+			write(dir.resolve(getClassName(format) + ".java"), generateParser(format));
+		}
+		write(dir.resolve("MrzParsers.java"), generateFactory());
+	}
+
+	private static void write(final Path file, final String source) throws IOException {
+		Files.write(file, source.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * @param format the format
+	 * @return the simple name of the generated parser, e.g. MrtdTd1Parser for MRTD_TD1
+	 */
+	static String getClassName(final MrzFormat format) {
+		return toCamelCase(format.name()) + "Parser";
+	}
+
+	private static String toCamelCase(final String name) {
+		final StringBuilder sb = new StringBuilder();
+		for (final String part : name.split("_")) {
+			sb.append(part.charAt(0)).append(part.substring(1).toLowerCase());
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Generates the specialised parser of given format.
+	 *
+	 * @param format the format
+	 * @return the Java source
+	 */
+	static String generateParser(final MrzFormat format) {
+		final MrzLayout layout = format.getLayout();
+		final Class<? extends MrzRecord> recordClass = format.getRecordClass();
+		final String className = getClassName(format);
+		final StringBuilder body = new StringBuilder();
+		for (int i = 0; i < layout.size(); i++) {
+			decodeField(body, recordClass, layout, i);
+		}
+		if (layout.hasComposite()) {
+			compositeCheckDigit(body, layout);
+		}
+		final StringBuilder sb = new StringBuilder();
+		header(sb);
+		if (body.indexOf("((" + recordClass.getSimpleName() + ") ") >= 0) {
+			sb.append("import ").append(recordClass.getName()).append(";\n");
+		}
+		sb.append("import com.github.rarspace01.mrz.types.MrzDocumentCode;\n");
+		sb.append("import com.github.rarspace01.mrz.types.MrzField;\n\n");
+		sb.append("/**\n * Specialised parser of {@code MrzFormat.").append(format.name()).append("}.\n */\n");
+		sb.append("final class ").append(className).append(" {\n\n");
+		sb.append("\tprivate ").append(className).append("() {\n");
+		sb.append("\t}\n\n");
+		sb.append("\t/**\n\t * Decodes the fields into a {@code ").append(recordClass.getSimpleName()).append("}.\n\t */\n");
+		sb.append("\tstatic void decode(final MrzRecord record, final MrzParser parser) throws MrzParseException {\n");
+		sb.append(body);
+		sb.append("\t}\n\n}\n");
+		return sb.toString();
+	}
+
+	private static void decodeField(final StringBuilder sb, final Class<? extends MrzRecord> recordClass, final MrzLayout layout, final int index) {
+		final MrzField field = layout.getField(index);
+		final MrzRange range = layout.getRange(index);
+		final String columns = range.getColumn() + ", " + range.getColumnTo() + ", " + range.getRow();
+		switch (field) {
+			case DOCUMENT_CODE:
+				sb.append("\t\trecord.setCode(MrzDocumentCode.parse(parser));\n");
+				sb.append("\t\trecord.setCode1(parser.charAt(").append(range.getColumn()).append(", ").append(range.getRow()).append("));\n");
+				sb.append("\t\trecord.setCode2(parser.charAt(").append(range.getColumn() + 1).append(", ").append(range.getRow()).append("));\n");
+				break;
+			case NAMES:
+				sb.append("\t\trecord.setName(parser.parseName(").append(columns).append("));\n");
+				break;
+			case SEX:
+				sb.append("\t\trecord.setSex(parser.parseSex(").append(range.getColumn()).append(", ").append(range.getRow()).append("));\n");
+				break;
+			case DATE_OF_BIRTH:
+			case EXPIRATION_DATE:
+				sb.append("\t\t").append(setter(recordClass, field)).append("(parser.parseDate(").append(range.getColumn()).append(", ")
+					.append(range.getRow()).append("));\n");
+				break;
+			default:
+				sb.append("\t\t").append(setter(recordClass, field)).append("(parser.parseString(").append(columns).append("));\n");
+				break;
+		}
+		if (layout.hasCheckDigit(index) || layout.isCompositeMember(index)) {
+			partialSums(sb, layout, index);
+		}
+		if (layout.hasCheckDigit(index)) {
+			// setValidField also checks the dates and is overridden by the records with more check digits
+			sb.append("\t\trecord.setValidField(MrzField.").append(field.name()).append(", parser.checkDigit(")
+				.append(layout.getCheckDigitColumn(index)).append(", ").append(range.getRow()).append(", ");
+			weigh(sb, layout, index, 0);
+			sb.append(" % 10, MrzField.").append(field.name()).append("));\n");
+		}
+	}
+
+	/**
+	 * Declares the three partial sums of a field, one per weight phase, see {@link com.github.rarspace01.mrz.MrzCheckDigit}. They are shared
+	 * by the check digit of the field and by the composite check digit.
+	 */
+	private static void partialSums(final StringBuilder sb, final MrzLayout layout, final int index) {
+		final MrzRange range = layout.getRange(index);
+		for (int phase = 0; phase < 3; phase++) {
+			sb.append("\t\tfinal int ").append(sumName(layout, index, phase)).append(" = ");
+			int col = range.getColumn() + phase;
+			if (col >= range.getColumnTo()) {
+				sb.append('0');
+			}
+			for (; col < range.getColumnTo(); col += 3) {
+				if (col > range.getColumn() + phase) {
+					sb.append("\n\t\t\t+ ");
+				}
+				value(sb, col, range.getRow());
+			}
+			sb.append(";\n");
+		}
+	}
+
+	private static String sumName(final MrzLayout layout, final int index, final int phase) {
+		final String name = toCamelCase(layout.getField(index).name());
+		return Character.toLowerCase(name.charAt(0)) + name.substring(1) + "Sum" + phase;
+	}
+
+	private static void value(final StringBuilder sb, final int col, final int row) {
+		sb.append("MrzCheckDigit.valueOf(parser.charAt(").append(col).append(", ").append(row).append("))");
+	}
+
+	/**
+	 * Appends the weighted sum of a field at given position of the checked string.
+	 */
+	private static void weigh(final StringBuilder sb, final MrzLayout layout, final int index, final int position) {
+		sb.append('(');
+		for (int phase = 0; phase < 3; phase++) {
+			if (phase > 0) {
+				sb.append(" + ");
+			}
+			sb.append(sumName(layout, index, phase)).append(" * ").append(MRZ_WEIGHTS[(position + phase) % MRZ_WEIGHTS.length]);
+		}
+		sb.append(')');
+	}
+
+	/**
+	 * Appends the composite check digit, computed from the partial sums of the member fields and their check digits.
+	 */
+	private static void compositeCheckDigit(final StringBuilder sb, final MrzLayout layout) {
+		sb.append("\t\trecord.setValidComposite(parser.checkDigit(").append(layout.getCompositeColumn()).append(", ").append(layout.getCompositeRow())
+			.append(", (");
+		int position = 0;
+		for (int i = 0; i < layout.size(); i++) {
+			if (!layout.isCompositeMember(i)) {
+				continue;
+			}
+			if (position > 0) {
+				sb.append("\n\t\t\t\t+ ");
+			}
+			weigh(sb, layout, i, position);
+			position += layout.getRange(i).length();
+			if (layout.hasCheckDigit(i)) {
+				for (int col = layout.getColumnTo(i); col <= layout.getCheckDigitColumn(i); col++) {
+					sb.append(" + ");
+					value(sb, col, layout.getRow(i));
+					sb.append(" * ").append(MRZ_WEIGHTS[position++ % MRZ_WEIGHTS.length]);
+				}
+			}
+		}
+		sb.append(") % 10, MrzField.COMPOSITE));\n");
+	}
+
+	/**
+	 * Returns the call of the public setter of a field. Fails the build if the record class does not have it, i.e. if the layout and the
+	 * record class disagree.
+	 *
+	 * @return the record expression and the setter name, cast to the record class if the setter is not declared by {@link MrzRecord}.
+	 */
+	private static String setter(final Class<? extends MrzRecord> recordClass, final MrzField field) {
+		final String name = "set" + toCamelCase(field.name());
+		for (final Method m : recordClass.getMethods()) {
+			if (m.getName().equals(name) && m.getParameterCount() == 1) {
+				return m.getDeclaringClass() == MrzRecord.class ? "record." + name : "((" + recordClass.getSimpleName() + ") record)." + name;
+			}
+		}
+		throw new IllegalStateException(recordClass.getName() + " has no public method " + name);
+	}
+
+	/**
+	 * Generates the dispatcher to the specialised parsers.
+	 *
+	 * @return the Java source
+	 */
+	static String generateFactory() {
+		final StringBuilder sb = new StringBuilder();
+		header(sb);
+		sb.append("/**\n * Decodes the records with the specialised parser of their format, loaded by {@code GeneratedParsers}.\n */\n");
+		sb.append("final class MrzParsers implements GeneratedParsers.Decoder {\n\n");
+		sb.append("\t@Override\n");
+		sb.append("\tpublic boolean decode(final MrzRecord record, final MrzParser parser) throws MrzParseException {\n");
+		sb.append("\t\tswitch (record.getFormat()) {\n");
+		for (final MrzFormat format : MrzFormat.values()) {
+			sb.append("\t\t\tcase ").append(format.name()).append(":\n");
+			sb.append("\t\t\t\t").append(getClassName(format)).append(".decode(record, parser);\n");
+			sb.append("\t\t\t\treturn true;\n");
+		}
+		sb.append("\t\t\tdefault:\n");
+		sb.append("\t\t\t\treturn false;\n");
+		sb.append("\t\t}\n");
+		sb.append("\t}\n\n}\n");
+		return sb.toString();
+	}
+
+	private static void header(final StringBuilder sb) {
+		sb.append("/*\n * Generated by ").append(MrzParserGenerator.class.getName()).append(" from the MrzFormat layouts, do not edit.\n */\n");
+		sb.append("package ").append(PACKAGE).append(";\n\n");
+	}
+
+}
@@ -0,0 +1,47 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import com.github.rarspace01.mrz.types.MrzField;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Collects all diagnostics of one parse, or of a sequence of parses like the records of a {@link MrzStreamReader}; the
+ * {@link ParseResult#getDiagnostics()} of each record only has its own. Not thread safe.
+ */
+public class CollectingMrzDiagnostics implements MrzDiagnostics {
+
+	private final List<MrzDiagnostic> diagnostics = new ArrayList<>();
+
+	@Override
+	public void report(final MrzDiagnosticReason reason, final MrzField field, final MrzRange range, final char expected, final char actual) {
+		diagnostics.add(new MrzDiagnostic(reason, field, range, expected, actual));
+	}
+
+	/**
+	 * @return the collected diagnostics in the order they were reported, never null.
+	 */
+	public List<MrzDiagnostic> getDiagnostics() {
+		return Collections.unmodifiableList(diagnostics);
+	}
+
+}
@@ -0,0 +1,292 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import com.github.rarspace01.mrz.types.MrzDate;
+import com.github.rarspace01.mrz.types.MrzDocumentCode;
+import com.github.rarspace01.mrz.types.MrzField;
+import com.github.rarspace01.mrz.types.MrzFormat;
+import com.github.rarspace01.mrz.types.MrzSex;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Memory efficient MRZ record: keeps the raw MRZ as Latin-1 bytes, the format and the check digit validity flags, and decodes the fields
+ * on access from the ranges of the {@link MrzFormat#getLayout() format layout}, exactly like {@link MrzParser#parse(String)}. MRZs
+ * with characters beyond Latin-1 are rejected. A passport takes about 150 bytes of heap instead of about 1 KB.
+ * <p>
+ * Decoded fields may be cached, which trades memory for speed when the same fields are read repeatedly. Instances are thread safe; the
+ * cache may decode a field more than once when read concurrently.
+ * </p>
+ */
+public final class CompactMrzRecord implements MrzRecordView, Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final MrzFormat[] FORMATS = MrzFormat.values();
+	private static final MrzField[] FIELDS = MrzField.values();
+	/**
+	 * Cached value of a field decoded as null.
+	 */
+	private static final Object NULL = new Object();
+
+	/**
+	 * The rows separated by '\n'.
+	 */
+	private final byte[] mrz;
+	private final byte format;
+	/**
+	 * The {@link MrzValidator} validity flags.
+	 */
+	private final short validity;
+	/**
+	 * Decoded fields by {@link MrzField} ordinal, null if caching is disabled.
+	 */
+	private transient volatile Object[] cache;
+	private final boolean cached;
+
+	private CompactMrzRecord(final byte[] mrz, final MrzFormat format, final int validity, final boolean cached) {
+		this.mrz = mrz;
+		this.format = (byte) format.ordinal();
+		this.validity = (short) validity;
+		this.cached = cached;
+	}
+
+	/**
+	 * Validates the MRZ like {@link MrzParser#parse(String)} and stores it without decoding the fields.
+	 *
+	 * @param mrz the MRZ record
+	 * @param cached true to cache the decoded fields
+	 * @return the compact record.
+	 * @throws MrzParseException if the MRZ is malformed, of unknown format, has a forbidden document code or invalid characters, or if
+	 * any character is beyond Latin-1.
+	 */
+	public static CompactMrzRecord parse(final CharSequence mrz, final boolean cached) throws MrzParseException {
+		final MrzParser parser = MrzParser.locate(mrz, 0, mrz.length());
+		final ParseResult failure = parser.checkRecord(0);
+		if (failure != null) {
+			failure.getRecordOrThrow();
+		}
+		final int columns = parser.getColumns();
+		final int rows = parser.getRowCount();
+		final byte[] bytes = new byte[rows * (columns + 1) - 1];
+		int i = 0;
+		for (int row = 0; row < rows; row++) {
+			if (row > 0) {
+				bytes[i++] = '\n';
+			}
+			for (int col = 0; col < columns; col++) {
+				final char c = parser.charAt(col, row);
+				if (c > 0xFF) {
+					// the fields not covered by check digits may hold any character, which the bytes cannot store
+					ParseResult.failure(parser, 0, MrzParseFailure.INVALID_CHARACTER, new MrzRange(col, col + 1, row)).getRecordOrThrow();
+				}
+				bytes[i++] = (byte) c;
+			}
+		}
+		return new CompactMrzRecord(bytes, parser.getFormat(), MrzValidator.validate(mrz), cached);
+	}
+
+	/**
+	 * @param record the record
+	 * @param cached true to cache the decoded fields
+	 * @return the compact form of {@link MrzRecord#toMrz()}.
+	 * @throws MrzParseException if the record does not serialize to a valid MRZ.
+	 */
+	public static CompactMrzRecord of(final MrzRecord record, final boolean cached) throws MrzParseException {
+		return parse(record.toMrz(), cached);
+	}
+
+	/**
+	 * @return the MRZ, rows separated by '\n'.
+	 */
+	public String getMrz() {
+		return new String(mrz, StandardCharsets.ISO_8859_1);
+	}
+
+	/**
+	 * @return a full record parsed from the MRZ.
+	 */
+	public MrzRecord toRecord() {
+		try {
+			return MrzParser.parse(getMrz());
+		} catch (MrzParseException ex) {
+			throw new IllegalStateException("The MRZ was validated on creation", ex);
+		}
+	}
+
+	@Override
+	public MrzFormat getFormat() {
+		return FORMATS[format];
+	}
+
+	@Override
+	public MrzDocumentCode getCode() {
+		return MrzDocumentCode.lookup(getCode1(), getCode2());
+	}
+
+	@Override
+	public char getCode1() {
+		return (char) (mrz[0] & 0xFF);
+	}
+
+	@Override
+	public char getCode2() {
+		return (char) (mrz[1] & 0xFF);
+	}
+
+	@Override
+	public String getIssuingCountry() {
+		return (String) get(MrzField.ISSUING_COUNTRY);
+	}
+
+	@Override
+	public String getDocumentNumber() {
+		return (String) get(MrzField.DOCUMENT_NUMBER);
+	}
+
+	@Override
+	public String getSurname() {
+		return (String) get(MrzField.SURNAME);
+	}
+
+	@Override
+	public String getGivenNames() {
+		return (String) get(MrzField.GIVEN_NAMES);
+	}
+
+	@Override
+	public MrzDate getDateOfBirth() {
+		return (MrzDate) get(MrzField.DATE_OF_BIRTH);
+	}
+
+	@Override
+	public MrzSex getSex() {
+		return (MrzSex) get(MrzField.SEX);
+	}
+
+	@Override
+	public MrzDate getExpirationDate() {
+		return (MrzDate) get(MrzField.EXPIRATION_DATE);
+	}
+
+	@Override
+	public String getNationality() {
+		return (String) get(MrzField.NATIONALITY);
+	}
+
+	/**
+	 * @return the optional data, null if the format has none
+	 */
+	public String getOptional() {
+		return (String) get(MrzField.OPTIONAL);
+	}
+
+	/**
+	 * @return the second optional data, null if the format has none
+	 */
+	public String getOptional2() {
+		return (String) get(MrzField.OPTIONAL2);
+	}
+
+	/**
+	 * @return the personal number, null if the format has none
+	 */
+	public String getPersonalNumber() {
+		return (String) get(MrzField.PERSONAL_NUMBER);
+	}
+
+	@Override
+	public boolean isValidDocumentNumber() {
+		return (validity & MrzValidator.VALID_DOCUMENT_NUMBER) != 0;
+	}
+
+	@Override
+	public boolean isValidDateOfBirth() {
+		return (validity & MrzValidator.VALID_DATE_OF_BIRTH) != 0;
+	}
+
+	@Override
+	public boolean isValidExpirationDate() {
+		return (validity & MrzValidator.VALID_EXPIRATION_DATE) != 0;
+	}
+
+	@Override
+	public boolean isValidComposite() {
+		return (validity & MrzValidator.VALID_COMPOSITE) != 0;
+	}
+
+	/**
+	 * @return true if valid personal number, or if the format has none
+	 */
+	public boolean isValidPersonalNumber() {
+		return (validity & MrzValidator.VALID_PERSONAL_NUMBER) != 0;
+	}
+
+	/**
+	 * @param field the field
+	 * @return the decoded field, from the cache if enabled.
+	 */
+	private Object get(final MrzField field) {
+		if (!cached) {
+			return decode(field);
+		}
+		Object[] values = cache;
+		if (values == null) {
+			values = new Object[FIELDS.length];
+			cache = values;
+		}
+		Object value = values[field.ordinal()];
+		if (value == null) {
+			value = decode(field);
+			values[field.ordinal()] = value == null ? NULL : value;
+		}
+		return value == NULL ? null : value;
+	}
+
+	private Object decode(final MrzField field) {
+		try {
+			return MrzParser.locate(new AsciiCharSequence(ByteBuffer.wrap(mrz), 0, mrz.length), 0, mrz.length).decodeField(field);
+		} catch (MrzParseException ex) {
+			throw new IllegalStateException("The MRZ was validated on creation", ex);
+		}
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		return obj instanceof CompactMrzRecord && Arrays.equals(mrz, ((CompactMrzRecord) obj).mrz);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(mrz);
+	}
+
+	/**
+	 * @return the same text as {@link MrzRecord#toString()}.
+	 */
+	@Override
+	public String toString() {
+		return toRecord().toString();
+	}
+
+}
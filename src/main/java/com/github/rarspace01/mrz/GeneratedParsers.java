@@ -0,0 +1,85 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import com.github.rarspace01.mrz.types.MrzLayout;
+
+/**
+ * Access to the specialised record parsers generated at build time from the {@link MrzLayout} of every format, see the
+ * generateMrzParsers task. The generated {@code MrzParsers} class lives in this package so that it can fill the records through their
+ * protected setters; when it is not on the classpath the records decode themselves with the generic layout loop.
+ */
+final class GeneratedParsers {
+
+	/**
+	 * Name of the generated class implementing {@link Decoder}.
+	 */
+	static final String DECODER_CLASS = "com.github.rarspace01.mrz.MrzParsers";
+
+	private static final Decoder DECODER = load();
+
+	/**
+	 * Implemented by the generated {@code MrzParsers}.
+	 */
+	interface Decoder {
+
+		/**
+		 * Decodes the fields of the record held by the parser into the record, see {@link MrzRecord#fromMrz(MrzParser)}.
+		 *
+		 * @param record the record of the format of the parser, of exactly the record class of the format
+		 * @param parser the parser holding the MRZ record
+		 * @return false if there is no generated parser for the format.
+		 * @throws MrzParseException could not parse MRZ
+		 */
+		boolean decode(MrzRecord record, MrzParser parser) throws MrzParseException;
+	}
+
+	/**
+	 * Prevent instantiation.
+	 */
+	private GeneratedParsers() {
+		// Do nothing
+	}
+
+	private static Decoder load() {
+		try {
+			return (Decoder) Class.forName(DECODER_CLASS).getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException | LinkageError ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * @return true if the generated parsers are on the classpath.
+	 */
+	static boolean isAvailable() {
+		return DECODER != null;
+	}
+
+	/**
+	 * Decodes a record with its generated parser.
+	 *
+	 * @return false if there is none, the record is left untouched then.
+	 * @throws MrzParseException could not parse MRZ
+	 */
+	static boolean decode(final MrzRecord record, final MrzParser parser) throws MrzParseException {
+		return DECODER != null && DECODER.decode(record, parser);
+	}
+
+}
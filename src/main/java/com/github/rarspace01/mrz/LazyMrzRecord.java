@@ -0,0 +1,239 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import com.github.rarspace01.mrz.types.MrzDate;
+import com.github.rarspace01.mrz.types.MrzDocumentCode;
+import com.github.rarspace01.mrz.types.MrzField;
+import com.github.rarspace01.mrz.types.MrzFormat;
+import com.github.rarspace01.mrz.types.MrzLayout;
+import com.github.rarspace01.mrz.types.MrzSex;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * MRZ record decoding its fields on access, created by {@link MrzParser#parseLazy(CharSequence)}. Each field is decoded, and its check
+ * digit verified, the first time it is read; the result is memoised. Callers reading only a few fields skip the decoding of the others.
+ * <p>
+ * Instances are thread safe. Concurrent first reads of a field may decode it more than once, but all readers get the same value.
+ * </p>
+ */
+public final class LazyMrzRecord implements MrzRecordView {
+
+	private static final int FIELD_COUNT = MrzField.values().length;
+	/**
+	 * Memoised value of a field decoded as null.
+	 */
+	private static final Object NULL = new Object();
+
+	/**
+	 * The parser holding a private copy of the MRZ, without diagnostics.
+	 */
+	private final MrzParser parser;
+	/**
+	 * Decoded fields by {@link MrzField} ordinal.
+	 */
+	private final AtomicReferenceArray<Object> values = new AtomicReferenceArray<>(FIELD_COUNT);
+	/**
+	 * Check digit validity by {@link MrzField} ordinal, the composite at {@link MrzField#COMPOSITE}.
+	 */
+	private final AtomicReferenceArray<Boolean> validity = new AtomicReferenceArray<>(FIELD_COUNT);
+
+	LazyMrzRecord(final MrzParser parser) {
+		this.parser = parser;
+	}
+
+	/**
+	 * @return the MRZ
+	 */
+	public String getMrz() {
+		return parser.getMrz();
+	}
+
+	/**
+	 * @return a full record decoding all fields.
+	 */
+	public MrzRecord toRecord() {
+		final MrzRecord record = getFormat().newRecord();
+		try {
+			record.fromMrz(parser);
+		} catch (MrzParseException ex) {
+			throw new IllegalStateException("The MRZ was validated on creation", ex);
+		}
+		return record;
+	}
+
+	@Override
+	public MrzFormat getFormat() {
+		return parser.getFormat();
+	}
+
+	@Override
+	public MrzDocumentCode getCode() {
+		return MrzDocumentCode.lookup(getCode1(), getCode2());
+	}
+
+	@Override
+	public char getCode1() {
+		return parser.charAt(0, 0);
+	}
+
+	@Override
+	public char getCode2() {
+		return parser.charAt(1, 0);
+	}
+
+	@Override
+	public String getIssuingCountry() {
+		return (String) get(MrzField.ISSUING_COUNTRY);
+	}
+
+	@Override
+	public String getDocumentNumber() {
+		return (String) get(MrzField.DOCUMENT_NUMBER);
+	}
+
+	@Override
+	public String getSurname() {
+		return (String) get(MrzField.SURNAME);
+	}
+
+	@Override
+	public String getGivenNames() {
+		return (String) get(MrzField.GIVEN_NAMES);
+	}
+
+	@Override
+	public MrzDate getDateOfBirth() {
+		return (MrzDate) get(MrzField.DATE_OF_BIRTH);
+	}
+
+	@Override
+	public MrzSex getSex() {
+		return (MrzSex) get(MrzField.SEX);
+	}
+
+	@Override
+	public MrzDate getExpirationDate() {
+		return (MrzDate) get(MrzField.EXPIRATION_DATE);
+	}
+
+	@Override
+	public String getNationality() {
+		return (String) get(MrzField.NATIONALITY);
+	}
+
+	/**
+	 * @return the optional data, null if the format has none
+	 */
+	public String getOptional() {
+		return (String) get(MrzField.OPTIONAL);
+	}
+
+	/**
+	 * @return the second optional data, null if the format has none
+	 */
+	public String getOptional2() {
+		return (String) get(MrzField.OPTIONAL2);
+	}
+
+	/**
+	 * @return the personal number, null if the format has none
+	 */
+	public String getPersonalNumber() {
+		return (String) get(MrzField.PERSONAL_NUMBER);
+	}
+
+	@Override
+	public boolean isValidDocumentNumber() {
+		return isValid(MrzField.DOCUMENT_NUMBER);
+	}
+
+	@Override
+	public boolean isValidDateOfBirth() {
+		return isValid(MrzField.DATE_OF_BIRTH);
+	}
+
+	@Override
+	public boolean isValidExpirationDate() {
+		return isValid(MrzField.EXPIRATION_DATE);
+	}
+
+	/**
+	 * @return true if the personal number check digit is valid, or if the format has none
+	 */
+	public boolean isValidPersonalNumber() {
+		return isValid(MrzField.PERSONAL_NUMBER);
+	}
+
+	@Override
+	public boolean isValidComposite() {
+		Boolean valid = validity.get(MrzField.COMPOSITE.ordinal());
+		if (valid == null) {
+			final MrzLayout layout = getFormat().getLayout();
+			valid = !layout.hasComposite()
+				|| parser.checkDigit(layout.getCompositeColumn(), layout.getCompositeRow(), layout.getCompositeRanges(), MrzField.COMPOSITE);
+			validity.compareAndSet(MrzField.COMPOSITE.ordinal(), null, valid);
+		}
+		return valid;
+	}
+
+	private Object get(final MrzField field) {
+		final int i = field.ordinal();
+		Object value = values.get(i);
+		if (value == null) {
+			try {
+				value = parser.decodeField(field);
+			} catch (MrzParseException ex) {
+				throw new IllegalStateException("The MRZ was validated on creation", ex);
+			}
+			if (!values.compareAndSet(i, null, value == null ? NULL : value)) {
+				value = values.get(i);
+			}
+		}
+		return value == NULL ? null : value;
+	}
+
+	/**
+	 * @param field the field
+	 * @return true if the check digit of the field is valid, and a date field holds a valid date; true if the field has no check digit.
+	 */
+	private boolean isValid(final MrzField field) {
+		final int i = field.ordinal();
+		Boolean valid = validity.get(i);
+		if (valid == null) {
+			final MrzLayout layout = getFormat().getLayout();
+			final int index = layout.indexOf(field);
+			valid = index < 0 || !layout.hasCheckDigit(index)
+				|| parser.checkDigit(layout.getCheckDigitColumn(index), layout.getRow(index), layout.getRange(index), field)
+				&& (!(get(field) instanceof MrzDate) || ((MrzDate) get(field)).isDateValid());
+			validity.compareAndSet(i, null, valid);
+		}
+		return valid;
+	}
+
+	/**
+	 * @return the same text as {@link MrzRecord#toString()}.
+	 */
+	@Override
+	public String toString() {
+		return toRecord().toString();
+	}
+
+}
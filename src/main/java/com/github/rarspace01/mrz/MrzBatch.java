@@ -0,0 +1,602 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import com.github.rarspace01.mrz.records.MRP;
+import com.github.rarspace01.mrz.records.MrtdTd1;
+import com.github.rarspace01.mrz.records.PTD;
+import com.github.rarspace01.mrz.types.MrzDate;
+import com.github.rarspace01.mrz.types.MrzDocumentCode;
+import com.github.rarspace01.mrz.types.MrzFormat;
+import com.github.rarspace01.mrz.types.MrzSex;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Parsed MRZ records stored column by column in primitive arrays: about 100 bytes per record instead of a {@link MrzRecord} with its
+ * strings and dates, and scans over one column touch only that column.
+ * <p>
+ * Formats, document codes, sexes and failures are stored as ordinals, country codes and dates packed into ints (see
+ * {@link #packCountry(String)} and {@link #packDate(int, int, int)}), the check digit validity as {@link MrzValidator} flags and the
+ * other strings as ranges of one shared byte arena. {@link Row} is a flyweight implementing the {@link MrzRecord} getters over a row.
+ * Not thread safe.
+ * </p>
+ */
+public class MrzBatch {
+
+	/**
+	 * Packed value of a missing country code.
+	 */
+	public static final int NO_COUNTRY = -1;
+	/**
+	 * Packed value of a missing date.
+	 */
+	public static final int NO_DATE = 0;
+
+	private static final int DATE_PRESENT = 1 << 21;
+	private static final int DATE_PART_BITS = 7;
+	private static final int DATE_PART_MASK = (1 << DATE_PART_BITS) - 1;
+	private static final int NO_VALUE = -1;
+
+	private static final int DOCUMENT_NUMBER = 0;
+	private static final int SURNAME = 1;
+	private static final int GIVEN_NAMES = 2;
+	private static final int OPTIONAL = 3;
+	private static final int OPTIONAL2 = 4;
+	private static final int PERSONAL_NUMBER = 5;
+	private static final int STRINGS = 6;
+
+	private static final MrzFormat[] FORMATS = MrzFormat.values();
+	private static final MrzParseFailure[] FAILURES = MrzParseFailure.values();
+	private static final MrzDocumentCode[] CODES = MrzDocumentCode.values();
+	private static final MrzSex[] SEXES = MrzSex.values();
+	private static final String[] RECORD_NAMES = new String[FORMATS.length];
+
+	static {
+		for (final MrzFormat format : FORMATS) {
+			RECORD_NAMES[format.ordinal()] = format.newRecord().getRecordName();
+		}
+	}
+
+	private int size;
+	private byte[] formats;
+	private byte[] failures;
+	private byte[] codes;
+	private byte[] codes1;
+	private byte[] codes2;
+	private int[] issuingCountries;
+	private int[] nationalities;
+	private int[] datesOfBirth;
+	private int[] expirationDates;
+	private byte[] sexes;
+	private int[] validity;
+	/**
+	 * Bit per string field set if the string is null.
+	 */
+	private byte[] nullStrings;
+	/**
+	 * Start of every string of every row in the arena, the string ends where the next one starts.
+	 */
+	private int[] stringOffsets;
+	private byte[] arena;
+
+	/**
+	 * Creates an empty batch.
+	 */
+	public MrzBatch() {
+		this(16);
+	}
+
+	/**
+	 * @param capacity number of rows to allocate space for, the batch grows as needed
+	 */
+	public MrzBatch(final int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Parameter capacity: invalid value " + capacity + ": must be positive");
+		}
+		formats = new byte[capacity];
+		failures = new byte[capacity];
+		codes = new byte[capacity];
+		codes1 = new byte[capacity];
+		codes2 = new byte[capacity];
+		issuingCountries = new int[capacity];
+		nationalities = new int[capacity];
+		datesOfBirth = new int[capacity];
+		expirationDates = new int[capacity];
+		sexes = new byte[capacity];
+		validity = new int[capacity];
+		nullStrings = new byte[capacity];
+		stringOffsets = new int[capacity * STRINGS + 1];
+		arena = new byte[capacity * 32];
+	}
+
+	/**
+	 * Parses the records into a new batch.
+	 *
+	 * @param mrzs the MRZ records
+	 * @return the batch, a row per record in the same order.
+	 */
+	public static MrzBatch parse(final List<? extends CharSequence> mrzs) {
+		final MrzBatch batch = new MrzBatch(Math.max(1, mrzs.size()));
+		for (final CharSequence mrz : mrzs) {
+			batch.add(mrz);
+		}
+		return batch;
+	}
+
+	/**
+	 * Parses a record with {@link MrzParser#tryParse(CharSequence)} and appends it.
+	 *
+	 * @param mrz the MRZ record
+	 * @return the index of the new row.
+	 */
+	public int add(final CharSequence mrz) {
+		return add(MrzParser.tryParse(mrz));
+	}
+
+	/**
+	 * Appends a parse result, a failed one as a row with its format and failure only. A record with a character beyond ISO-8859-1, which
+	 * the byte arena cannot store, is appended as failed with {@link MrzParseFailure#INVALID_CHARACTER}.
+	 *
+	 * @param result the parse result
+	 * @return the index of the new row.
+	 */
+	public int add(final ParseResult result) {
+		ensureCapacity(size + 1);
+		final int row = size++;
+		formats[row] = (byte) (result.getFormat() == null ? NO_VALUE : result.getFormat().ordinal());
+		failures[row] = (byte) (result.isSuccess() ? NO_VALUE : result.getFailure().ordinal());
+		MrzRecord record = result.getRecord();
+		if (record != null && result.getParser().findBeyondLatin1() != null) {
+			failures[row] = (byte) MrzParseFailure.INVALID_CHARACTER.ordinal();
+			record = null;
+		}
+		if (record == null) {
+			codes[row] = NO_VALUE;
+			codes1[row] = 0;
+			codes2[row] = 0;
+			issuingCountries[row] = NO_COUNTRY;
+			nationalities[row] = NO_COUNTRY;
+			datesOfBirth[row] = NO_DATE;
+			expirationDates[row] = NO_DATE;
+			sexes[row] = NO_VALUE;
+			validity[row] = 0;
+			for (int i = 0; i < STRINGS; i++) {
+				putString(row, i, null);
+			}
+			return row;
+		}
+		codes[row] = (byte) (record.getCode() == null ? NO_VALUE : record.getCode().ordinal());
+		codes1[row] = (byte) record.getCode1();
+		codes2[row] = (byte) record.getCode2();
+		issuingCountries[row] = packCountry(record.getIssuingCountry());
+		nationalities[row] = packCountry(record.getNationality());
+		datesOfBirth[row] = packDate(record.getDateOfBirth());
+		expirationDates[row] = packDate(record.getExpirationDate());
+		sexes[row] = (byte) (record.getSex() == null ? NO_VALUE : record.getSex().ordinal());
+		String personalNumber = null;
+		boolean validPersonalNumber = true;
+		if (record instanceof MRP) {
+			personalNumber = ((MRP) record).getPersonalNumber();
+			validPersonalNumber = ((MRP) record).isValidPersonalNumber();
+		} else if (record instanceof PTD) {
+			personalNumber = ((PTD) record).getPersonalNumber();
+			validPersonalNumber = ((PTD) record).isValidPersonalNumber();
+		}
+		validity[row] = (record.isValidDocumentNumber() ? MrzValidator.VALID_DOCUMENT_NUMBER : 0)
+			| (record.isValidDateOfBirth() ? MrzValidator.VALID_DATE_OF_BIRTH : 0)
+			| (record.isValidExpirationDate() ? MrzValidator.VALID_EXPIRATION_DATE : 0)
+			| (record.isValidComposite() ? MrzValidator.VALID_COMPOSITE : 0)
+			| (validPersonalNumber ? MrzValidator.VALID_PERSONAL_NUMBER : 0);
+		putString(row, DOCUMENT_NUMBER, record.getDocumentNumber());
+		putString(row, SURNAME, record.getSurname());
+		putString(row, GIVEN_NAMES, record.getGivenNames());
+		putString(row, OPTIONAL, record instanceof MrzRecordOptional ? ((MrzRecordOptional) record).getOptional() : null);
+		putString(row, OPTIONAL2, record instanceof MrtdTd1 ? ((MrtdTd1) record).getOptional2() : null);
+		putString(row, PERSONAL_NUMBER, personalNumber);
+		return row;
+	}
+
+	/**
+	 * @return the number of rows.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @param row the row index
+	 * @return a flyweight over the row, use {@link Row#moveTo(int)} to scan rows without allocating.
+	 */
+	public Row getRow(final int row) {
+		return new Row().moveTo(row);
+	}
+
+	/**
+	 * @param row the row index
+	 * @return the detected format, null if unknown.
+	 */
+	public MrzFormat getFormat(final int row) {
+		final int format = formats[checkRow(row)];
+		return format == NO_VALUE ? null : FORMATS[format];
+	}
+
+	/**
+	 * @param row the row index
+	 * @return the {@link MrzValidator} validity flags, 0 for a failed row.
+	 */
+	public int getValidity(final int row) {
+		return validity[checkRow(row)];
+	}
+
+	/**
+	 * @param row the row index
+	 * @return the packed issuing country, see {@link #packCountry(String)}.
+	 */
+	public int getIssuingCountry(final int row) {
+		return issuingCountries[checkRow(row)];
+	}
+
+	/**
+	 * @param row the row index
+	 * @return the packed nationality, see {@link #packCountry(String)}.
+	 */
+	public int getNationality(final int row) {
+		return nationalities[checkRow(row)];
+	}
+
+	/**
+	 * @param row the row index
+	 * @return the packed date of birth, see {@link #packDate(int, int, int)}.
+	 */
+	public int getDateOfBirth(final int row) {
+		return datesOfBirth[checkRow(row)];
+	}
+
+	/**
+	 * @param row the row index
+	 * @return the packed expiration date, see {@link #packDate(int, int, int)}.
+	 */
+	public int getExpirationDate(final int row) {
+		return expirationDates[checkRow(row)];
+	}
+
+	/**
+	 * Packs a country code of up to 3 characters into an int, one character per byte from the highest used byte.
+	 *
+	 * @param country the decoded country code
+	 * @return the packed code, {@link #NO_COUNTRY} for null.
+	 */
+	public static int packCountry(final String country) {
+		if (country == null) {
+			return NO_COUNTRY;
+		}
+		if (country.length() > 3) {
+			throw new IllegalArgumentException("Parameter country: invalid value " + country + ": must be at most 3 characters long");
+		}
+		int packed = 0;
+		for (int i = 0; i < 3; i++) {
+			final char c = i < country.length() ? country.charAt(i) : 0;
+			if (c > 0xFF) {
+				throw new IllegalArgumentException("Parameter country: invalid value " + country + ": must be ISO-8859-1");
+			}
+			packed = packed << 8 | c;
+		}
+		return packed;
+	}
+
+	/**
+	 * @param packed the packed country code
+	 * @return the country code, null for {@link #NO_COUNTRY}.
+	 */
+	public static String unpackCountry(final int packed) {
+		if (packed == NO_COUNTRY) {
+			return null;
+		}
+		final StringBuilder sb = new StringBuilder(3);
+		for (int shift = 16; shift >= 0; shift -= 8) {
+			final char c = (char) (packed >>> shift & 0xFF);
+			if (c == 0) {
+				break;
+			}
+			sb.append(c);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Packs a date into an int which orders like the dates: 7 bits for each of year, month and day, unparseable parts (-1) are stored as
+	 * 127.
+	 *
+	 * @param year the year 00-99, -1 if unparseable
+	 * @param month the month, -1 if unparseable
+	 * @param day the day, -1 if unparseable
+	 * @return the packed date, never {@link #NO_DATE}.
+	 */
+	public static int packDate(final int year, final int month, final int day) {
+		return DATE_PRESENT | (year & DATE_PART_MASK) << (2 * DATE_PART_BITS) | (month & DATE_PART_MASK) << DATE_PART_BITS | (day & DATE_PART_MASK);
+	}
+
+	private static int packDate(final MrzDate date) {
+		return date == null ? NO_DATE : packDate(date.getYear(), date.getMonth(), date.getDay());
+	}
+
+	/**
+	 * Unpacks a date, unparseable parts are restored as "&lt;&lt;" in {@link MrzDate#getMrz()}.
+	 *
+	 * @param packed the packed date
+	 * @return the date, null for {@link #NO_DATE}.
+	 */
+	public static MrzDate unpackDate(final int packed) {
+		if (packed == NO_DATE) {
+			return null;
+		}
+		final int year = datePart(packed >>> (2 * DATE_PART_BITS));
+		final int month = datePart(packed >>> DATE_PART_BITS);
+		final int day = datePart(packed);
+		final StringBuilder raw = new StringBuilder(6);
+		for (final int part : new int[]{year, month, day}) {
+			if (part < 0) {
+				raw.append(MrzParser.FILLER).append(MrzParser.FILLER);
+			} else {
+				raw.append((char) ('0' + part / 10)).append((char) ('0' + part % 10));
+			}
+		}
+		return new MrzDate(year, month, day, raw.toString());
+	}
+
+	private static int datePart(final int shifted) {
+		final int part = shifted & DATE_PART_MASK;
+		return part == DATE_PART_MASK ? -1 : part;
+	}
+
+	private int checkRow(final int row) {
+		if (row < 0 || row >= size) {
+			throw new IndexOutOfBoundsException("Row " + row + " out of bounds for size " + size);
+		}
+		return row;
+	}
+
+	private void putString(final int row, final int field, final String value) {
+		final int index = row * STRINGS + field;
+		int offset = stringOffsets[index];
+		if (value == null) {
+			nullStrings[row] |= (byte) (1 << field);
+		} else {
+			if (offset + value.length() > arena.length) {
+				arena = Arrays.copyOf(arena, Math.max(arena.length * 2, offset + value.length()));
+			}
+			for (int i = 0; i < value.length(); i++) {
+				arena[offset++] = (byte) value.charAt(i);
+			}
+		}
+		stringOffsets[index + 1] = offset;
+	}
+
+	private String getString(final int row, final int field) {
+		if ((nullStrings[row] & 1 << field) != 0) {
+			return null;
+		}
+		final int index = row * STRINGS + field;
+		return new String(arena, stringOffsets[index], stringOffsets[index + 1] - stringOffsets[index], StandardCharsets.ISO_8859_1);
+	}
+
+	private void ensureCapacity(final int capacity) {
+		if (capacity <= formats.length) {
+			return;
+		}
+		final int newCapacity = Math.max(capacity, formats.length + (formats.length >> 1));
+		formats = Arrays.copyOf(formats, newCapacity);
+		failures = Arrays.copyOf(failures, newCapacity);
+		codes = Arrays.copyOf(codes, newCapacity);
+		codes1 = Arrays.copyOf(codes1, newCapacity);
+		codes2 = Arrays.copyOf(codes2, newCapacity);
+		issuingCountries = Arrays.copyOf(issuingCountries, newCapacity);
+		nationalities = Arrays.copyOf(nationalities, newCapacity);
+		datesOfBirth = Arrays.copyOf(datesOfBirth, newCapacity);
+		expirationDates = Arrays.copyOf(expirationDates, newCapacity);
+		sexes = Arrays.copyOf(sexes, newCapacity);
+		validity = Arrays.copyOf(validity, newCapacity);
+		nullStrings = Arrays.copyOf(nullStrings, newCapacity);
+		stringOffsets = Arrays.copyOf(stringOffsets, newCapacity * STRINGS + 1);
+	}
+
+	/**
+	 * Flyweight view of a row. The getters decode the row on every call, a row can be reused for another one with {@link #moveTo(int)}.
+	 */
+	public final class Row implements MrzRecordView {
+
+		private int row;
+
+		/**
+		 * Moves the view to another row.
+		 *
+		 * @param row the row index
+		 * @return this
+		 */
+		public Row moveTo(final int row) {
+			this.row = checkRow(row);
+			return this;
+		}
+
+		/**
+		 * @return the row index
+		 */
+		public int getIndex() {
+			return row;
+		}
+
+		/**
+		 * @return true if the record was parsed
+		 */
+		public boolean isSuccess() {
+			return failures[row] == NO_VALUE;
+		}
+
+		/**
+		 * @return the parse failure, null if the record was parsed
+		 */
+		public MrzParseFailure getFailure() {
+			return isSuccess() ? null : FAILURES[failures[row]];
+		}
+
+		@Override
+		public MrzFormat getFormat() {
+			return formats[row] == NO_VALUE ? null : FORMATS[formats[row]];
+		}
+
+		@Override
+		public MrzDocumentCode getCode() {
+			return codes[row] == NO_VALUE ? null : CODES[codes[row]];
+		}
+
+		@Override
+		public char getCode1() {
+			return (char) (codes1[row] & 0xFF);
+		}
+
+		@Override
+		public char getCode2() {
+			return (char) (codes2[row] & 0xFF);
+		}
+
+		@Override
+		public String getIssuingCountry() {
+			return unpackCountry(issuingCountries[row]);
+		}
+
+		@Override
+		public String getDocumentNumber() {
+			return getString(row, DOCUMENT_NUMBER);
+		}
+
+		@Override
+		public String getSurname() {
+			return getString(row, SURNAME);
+		}
+
+		@Override
+		public String getGivenNames() {
+			return getString(row, GIVEN_NAMES);
+		}
+
+		@Override
+		public MrzDate getDateOfBirth() {
+			return unpackDate(datesOfBirth[row]);
+		}
+
+		@Override
+		public MrzSex getSex() {
+			return sexes[row] == NO_VALUE ? null : SEXES[sexes[row]];
+		}
+
+		@Override
+		public MrzDate getExpirationDate() {
+			return unpackDate(expirationDates[row]);
+		}
+
+		@Override
+		public String getNationality() {
+			return unpackCountry(nationalities[row]);
+		}
+
+		/**
+		 * @return the optional data of the formats with one, null otherwise
+		 */
+		public String getOptional() {
+			return getString(row, OPTIONAL);
+		}
+
+		/**
+		 * @return the second optional data of MRTD TD1, null otherwise
+		 */
+		public String getOptional2() {
+			return getString(row, OPTIONAL2);
+		}
+
+		/**
+		 * @return the personal number of passports and PTDs, null otherwise
+		 */
+		public String getPersonalNumber() {
+			return getString(row, PERSONAL_NUMBER);
+		}
+
+		@Override
+		public boolean isValidDocumentNumber() {
+			return (validity[row] & MrzValidator.VALID_DOCUMENT_NUMBER) != 0;
+		}
+
+		@Override
+		public boolean isValidDateOfBirth() {
+			return (validity[row] & MrzValidator.VALID_DATE_OF_BIRTH) != 0;
+		}
+
+		@Override
+		public boolean isValidExpirationDate() {
+			return (validity[row] & MrzValidator.VALID_EXPIRATION_DATE) != 0;
+		}
+
+		@Override
+		public boolean isValidComposite() {
+			return (validity[row] & MrzValidator.VALID_COMPOSITE) != 0;
+		}
+
+		/**
+		 * @return true if valid personal number, or if the format has none
+		 */
+		public boolean isValidPersonalNumber() {
+			return (validity[row] & MrzValidator.VALID_PERSONAL_NUMBER) != 0;
+		}
+
+		/**
+		 * @return the same text as {@link MrzRecord#toString()} of the record, the failure for a failed row.
+		 */
+		@Override
+		public String toString() {
+			if (!isSuccess()) {
+				return "Row{" + getFailure() + "}";
+			}
+			final StringBuilder sb = new StringBuilder(RECORD_NAMES[formats[row]]);
+			sb.append("{code=").append(getCode());
+			sb.append('[').append(getCode1()).append(getCode2()).append(']');
+			sb.append(", issuingCountry=").append(getIssuingCountry());
+			sb.append(", documentNumber=").append(getDocumentNumber());
+			sb.append(", surname=").append(getSurname());
+			sb.append(", givenNames=").append(getGivenNames());
+			sb.append(", dateOfBirth=").append(getDateOfBirth());
+			sb.append(", sex=").append(getSex());
+			sb.append(", expirationDate=").append(getExpirationDate());
+			sb.append(", nationality=").append(getNationality());
+			final int nulls = nullStrings[row];
+			if ((nulls & 1 << OPTIONAL) == 0) {
+				sb.append(", optional=").append(getOptional());
+			}
+			if ((nulls & 1 << OPTIONAL2) == 0) {
+				sb.append(", optional2=").append(getOptional2());
+			}
+			if ((nulls & 1 << PERSONAL_NUMBER) == 0) {
+				sb.append(", personalNumber=").append(getPersonalNumber());
+			}
+			return sb.append('}').toString();
+		}
+	}
+
+}
@@ -0,0 +1,264 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import com.github.rarspace01.mrz.types.MrzField;
+import com.github.rarspace01.mrz.types.MrzFormat;
+import com.github.rarspace01.mrz.types.MrzLayout;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Validates the check digits of many MRZ records of the same format. The records are laid out as a byte matrix, one ASCII record of
+ * rows * columns characters per matrix row without line separators, see {@link #toMatrix(List)}. The result is a bitmask per record of the
+ * check digits which failed, {@link #bit(MrzField)} for the field check digits and {@link #COMPOSITE} for the composite check digit.
+ * <p>
+ * {@link #create(MrzFormat)} returns the lane-parallel implementation of the optional vector module when it is on the classpath and the
+ * {@code jdk.incubator.vector} module is available, this scalar implementation otherwise.
+ */
+public class MrzBatchValidator {
+
+	/**
+	 * Bit of the composite check digit in the failure mask, the same as {@code bit(MrzField.COMPOSITE)}.
+	 */
+	public static final int COMPOSITE = bit(MrzField.COMPOSITE);
+
+	private static final String VECTOR_CLASS = "com.github.rarspace01.mrz.VectorMrzBatchValidator";
+	private static final int[] MRZ_WEIGHTS = new int[]{7, 3, 1};
+
+	/**
+	 * The format of the records.
+	 */
+	final MrzFormat format;
+	/**
+	 * Number of characters of one record.
+	 */
+	final int recordLength;
+	/**
+	 * Failure bit of every check digit, the field check digits in layout order followed by the composite.
+	 */
+	final int[] checkBits;
+	/**
+	 * Index of every check digit in the record.
+	 */
+	final int[] checkPositions;
+	/**
+	 * Contributions of the record characters to the check digits, sorted by character index: character p contributes to check digit
+	 * {@code contributionChecks[i]} with weight {@code contributionWeights[i]} for i in {@code contributionStart[p]..contributionStart[p + 1]-1}.
+	 */
+	final int[] contributionStart;
+	final int[] contributionChecks;
+	final int[] contributionWeights;
+	/**
+	 * Failure bits of all check digits covering the character at given index.
+	 */
+	final int[] positionBits;
+
+	/**
+	 * Creates the scalar validator.
+	 *
+	 * @param format the format of the records, not null.
+	 */
+	public MrzBatchValidator(final MrzFormat format) {
+		this.format = format;
+		this.recordLength = format.getRows() * format.getColumns();
+		final MrzLayout layout = format.getLayout();
+		int checks = layout.hasComposite() ? 1 : 0;
+		for (int i = 0; i < layout.size(); i++) {
+			if (layout.hasCheckDigit(i)) {
+				checks++;
+			}
+		}
+		checkBits = new int[checks];
+		checkPositions = new int[checks];
+		// character index and weight of every contribution, grouped by check digit
+		final int[][] weights = new int[checks][recordLength];
+		int check = 0;
+		for (int i = 0; i < layout.size(); i++) {
+			if (layout.hasCheckDigit(i)) {
+				checkBits[check] = bit(layout.getField(i));
+				checkPositions[check] = index(layout.getCheckDigitColumn(i), layout.getRow(i));
+				addWeights(weights[check], layout.getRange(i), 0);
+				check++;
+			}
+		}
+		if (layout.hasComposite()) {
+			checkBits[check] = COMPOSITE;
+			checkPositions[check] = index(layout.getCompositeColumn(), layout.getCompositeRow());
+			int position = 0;
+			for (final MrzRange range : layout.getCompositeRanges()) {
+				addWeights(weights[check], range, position);
+				position += range.length();
+			}
+		}
+		contributionStart = new int[recordLength + 1];
+		positionBits = new int[recordLength];
+		int count = 0;
+		for (int p = 0; p < recordLength; p++) {
+			for (int k = 0; k < checks; k++) {
+				if (weights[k][p] != 0) {
+					count++;
+				}
+			}
+		}
+		contributionChecks = new int[count];
+		contributionWeights = new int[count];
+		count = 0;
+		for (int p = 0; p < recordLength; p++) {
+			contributionStart[p] = count;
+			for (int k = 0; k < checks; k++) {
+				if (weights[k][p] != 0) {
+					positionBits[p] |= checkBits[k];
+					contributionChecks[count] = k;
+					contributionWeights[count++] = weights[k][p];
+				}
+			}
+		}
+		contributionStart[recordLength] = count;
+	}
+
+	private void addWeights(final int[] weights, final MrzRange range, final int position) {
+		for (int col = range.getColumn(); col < range.getColumnTo(); col++) {
+			weights[index(col, range.getRow())] = MRZ_WEIGHTS[(position + col - range.getColumn()) % MRZ_WEIGHTS.length];
+		}
+	}
+
+	private int index(final int col, final int row) {
+		return row * format.getColumns() + col;
+	}
+
+	/**
+	 * Creates the fastest validator available at runtime.
+	 *
+	 * @param format the format of the records, not null.
+	 * @return the vectorized validator if available, the scalar one otherwise.
+	 */
+	public static MrzBatchValidator create(final MrzFormat format) {
+		try {
+			return (MrzBatchValidator) Class.forName(VECTOR_CLASS).getDeclaredConstructor(MrzFormat.class).newInstance(format);
+		} catch (ReflectiveOperationException | LinkageError ex) {
+			// the vector module is not on the classpath or jdk.incubator.vector is not resolved
+			return new MrzBatchValidator(format);
+		}
+	}
+
+	/**
+	 * @param field the field
+	 * @return the failure bit of the check digit of given field.
+	 */
+	public static int bit(final MrzField field) {
+		return 1 << field.ordinal();
+	}
+
+	/**
+	 * @return the format of the records.
+	 */
+	public final MrzFormat getFormat() {
+		return format;
+	}
+
+	/**
+	 * @return the number of characters of one record in the matrix.
+	 */
+	public final int getRecordLength() {
+		return recordLength;
+	}
+
+	/**
+	 * Lays out the records as a byte matrix.
+	 *
+	 * @param mrzs the records, all of the format of this validator.
+	 * @return the matrix, {@link #getRecordLength()} bytes per record.
+	 * @throws MrzParseException if a record is malformed.
+	 * @throws IllegalArgumentException if a record has a different format.
+	 */
+	public byte[] toMatrix(final List<? extends CharSequence> mrzs) throws MrzParseException {
+		final byte[] matrix = new byte[mrzs.size() * recordLength];
+		int i = 0;
+		for (final CharSequence mrz : mrzs) {
+			final MrzParser parser = new MrzParser(mrz, 0, mrz.length());
+			if (parser.getFormat() != format) {
+				throw new IllegalArgumentException("Expected " + format + " but got " + parser.getFormat() + ": " + mrz);
+			}
+			for (int row = 0; row < format.getRows(); row++) {
+				for (int col = 0; col < format.getColumns(); col++) {
+					final char c = parser.charAt(col, row);
+					matrix[i++] = c < 128 ? (byte) c : 0;
+				}
+			}
+		}
+		return matrix;
+	}
+
+	/**
+	 * Validates the check digits of the records.
+	 *
+	 * @param matrix the records, {@link #getRecordLength()} bytes per record.
+	 * @param count the number of records.
+	 * @return the failure bitmask of every record, 0 if all check digits are valid.
+	 */
+	public int[] validate(final byte[] matrix, final int count) {
+		if (matrix.length < count * recordLength) {
+			throw new IllegalArgumentException("Parameter matrix: invalid value " + matrix.length + ": must hold " + count + " records");
+		}
+		final int[] masks = new int[count];
+		validate(matrix, 0, count, masks);
+		return masks;
+	}
+
+	/**
+	 * Validates the check digits of the records from..to-1. A check digit fails also if a character it covers is not valid in MRZ.
+	 *
+	 * @param matrix the records.
+	 * @param from the first record, inclusive.
+	 * @param to the last record, exclusive.
+	 * @param masks receives the failure bitmasks, indexed by record.
+	 */
+	protected void validate(final byte[] matrix, final int from, final int to, final int[] masks) {
+		final int[] sums = new int[checkBits.length];
+		for (int r = from; r < to; r++) {
+			final int base = r * recordLength;
+			int mask = 0;
+			Arrays.fill(sums, 0);
+			for (int p = 0; p < recordLength; p++) {
+				final char c = (char) matrix[base + p];
+				final boolean valid = MrzCheckDigit.isValid(c);
+				final int value = valid ? MrzCheckDigit.valueOf(c) : 0;
+				for (int i = contributionStart[p]; i < contributionStart[p + 1]; i++) {
+					sums[contributionChecks[i]] += value * contributionWeights[i];
+				}
+				if (!valid) {
+					mask |= positionBits[p];
+				}
+			}
+			for (int k = 0; k < checkBits.length; k++) {
+				char digit = (char) matrix[base + checkPositions[k]];
+				if (digit == MrzParser.FILLER) {
+					digit = '0';
+				}
+				if (sums[k] % 10 + '0' != digit) {
+					mask |= checkBits[k];
+				}
+			}
+			masks[r] = mask;
+		}
+	}
+
+}
@@ -0,0 +1,279 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import com.github.rarspace01.mrz.types.MrzLayout;
+
+import java.util.Arrays;
+
+/**
+ * Computes the MRZ check digits. Character values come from a 128-entry table and the 7-3-1 weight cycle is unrolled: a range is summed as
+ * three partial sums, one per weight phase, which are then weighted once. The same partial sums give the contribution of a field to the
+ * composite check digit at any offset, so {@link #computeAll(CharSequence, int[], MrzLayout, int[])} verifies a whole record in a single pass.
+ */
+public final class MrzCheckDigit {
+
+	/**
+	 * Value of the characters not allowed in MRZ in {@link #VALUES}.
+	 */
+	private static final byte INVALID = -1;
+	/**
+	 * Check digit value by ASCII character.
+	 */
+	private static final byte[] VALUES = new byte[128];
+	/**
+	 * The weights 7, 3, 1 rotated by 0, 1 and 2 positions, indexed by phase * 3 + position.
+	 */
+	private static final int[] WEIGHTS = new int[]{7, 3, 1, 3, 1, 7, 1, 7, 3};
+	/**
+	 * Bits of one packed partial sum, enough for a row of letters.
+	 */
+	private static final int SUM_BITS = 21;
+	private static final long SUM_MASK = (1L << SUM_BITS) - 1;
+	/**
+	 * Partial sums of a range containing a character not valid in MRZ.
+	 */
+	static final long INVALID_SUMS = -1;
+
+	static {
+		Arrays.fill(VALUES, INVALID);
+		VALUES[MrzParser.FILLER] = 0;
+		for (char c = '0'; c <= '9'; c++) {
+			VALUES[c] = (byte) (c - '0');
+		}
+		for (char c = 'A'; c <= 'Z'; c++) {
+			VALUES[c] = (byte) (c - 'A' + 10);
+		}
+	}
+
+	/**
+	 * Prevent instantiation.
+	 */
+	private MrzCheckDigit() {
+		// Do nothing
+	}
+
+	/**
+	 * @param c the character
+	 * @return true if the character is allowed in MRZ: the filler, a digit or an upper case letter.
+	 */
+	public static boolean isValid(final char c) {
+		return c < VALUES.length && VALUES[c] != INVALID;
+	}
+
+	/**
+	 * Returns the value of given character in the check digit computation.
+	 *
+	 * @param c the MRZ character.
+	 * @return 0 for the filler, 0..9 for digits and 10..35 for letters.
+	 * @throws IllegalArgumentException if the character is not valid in MRZ.
+	 */
+	public static int valueOf(final char c) {
+		final int value = value(c);
+		if (value == INVALID) {
+			throw new IllegalArgumentException("Invalid character in MRZ record: " + c);
+		}
+		return value;
+	}
+
+	/**
+	 * Computes the check digit of given characters.
+	 *
+	 * @param str the characters
+	 * @param from index of the first character, inclusive
+	 * @param to index of the last character, exclusive
+	 * @return check digit in range of 0..9, inclusive.
+	 * @throws IllegalArgumentException if a character is not valid in MRZ.
+	 */
+	public static int compute(final CharSequence str, final int from, final int to) {
+		return weightedSum(str, from, to, 0) % 10;
+	}
+
+	/**
+	 * Computes the check digit of given characters.
+	 *
+	 * @param str the characters
+	 * @return check digit in range of 0..9, inclusive.
+	 * @throws IllegalArgumentException if a character is not valid in MRZ.
+	 */
+	public static int compute(final CharSequence str) {
+		return compute(str, 0, str.length());
+	}
+
+	/**
+	 * Sums the character values weighted as if the first character was at given position of the checked string.
+	 *
+	 * @param str the characters
+	 * @param from index of the first character, inclusive
+	 * @param to index of the last character, exclusive
+	 * @param position the position of the first character in the checked string, only its remainder after division by 3 matters
+	 * @return the weighted sum, not reduced modulo 10
+	 * @throws IllegalArgumentException if a character is not valid in MRZ.
+	 */
+	public static int weightedSum(final CharSequence str, final int from, final int to, final int position) {
+		final long sums = partialSums(str, from, to);
+		if (sums == INVALID_SUMS) {
+			throw invalidCharacter(str, from, to);
+		}
+		return weigh(sums, position);
+	}
+
+	private static IllegalArgumentException invalidCharacter(final CharSequence str, final int from, final int to) {
+		int i = from;
+		while (i < to - 1 && value(str.charAt(i)) != INVALID) {
+			i++;
+		}
+		return new IllegalArgumentException("Invalid character in MRZ record: " + str.charAt(i));
+	}
+
+	/**
+	 * Sums the character values of a range in three partial sums, one per weight phase: the characters at positions 0, 3, 6, ..., at positions
+	 * 1, 4, 7, ... and at positions 2, 5, 8, ... of the range. Does not throw.
+	 *
+	 * @param str the characters
+	 * @param from index of the first character, inclusive
+	 * @param to index of the last character, exclusive
+	 * @return the three sums packed by 21 bits, {@link #INVALID_SUMS} if a character is not valid in MRZ.
+	 */
+	static long partialSums(final CharSequence str, final int from, final int to) {
+		int sum0 = 0;
+		int sum1 = 0;
+		int sum2 = 0;
+		int invalid = 0;
+		int i = from;
+		for (; i + 2 < to; i += 3) {
+			final int v0 = value(str.charAt(i));
+			final int v1 = value(str.charAt(i + 1));
+			final int v2 = value(str.charAt(i + 2));
+			sum0 += v0;
+			sum1 += v1;
+			sum2 += v2;
+			invalid |= v0 | v1 | v2;
+		}
+		if (i < to) {
+			final int v0 = value(str.charAt(i));
+			sum0 += v0;
+			invalid |= v0;
+			if (i + 1 < to) {
+				final int v1 = value(str.charAt(i + 1));
+				sum1 += v1;
+				invalid |= v1;
+			}
+		}
+		return invalid < 0 ? INVALID_SUMS : sum0 | (long) sum1 << SUM_BITS | (long) sum2 << (2 * SUM_BITS);
+	}
+
+	/**
+	 * Weighs the partial sums of a range.
+	 *
+	 * @param sums the partial sums, see {@link #partialSums(CharSequence, int, int)}
+	 * @param position the position of the range in the checked string
+	 * @return the weighted sum
+	 */
+	static int weigh(final long sums, final int position) {
+		final int phase = (position % 3) * 3;
+		return (int) (sums & SUM_MASK) * WEIGHTS[phase] + (int) (sums >>> SUM_BITS & SUM_MASK) * WEIGHTS[phase + 1]
+			+ (int) (sums >>> (2 * SUM_BITS)) * WEIGHTS[phase + 2];
+	}
+
+	/**
+	 * @return the value of the character, {@link #INVALID} if not valid in MRZ.
+	 */
+	static int value(final char c) {
+		return c < VALUES.length ? VALUES[c] : INVALID;
+	}
+
+	/**
+	 * Finds the first range covered by a check digit which contains a character not valid in MRZ, i.e. which would make
+	 * {@link #computeAll(CharSequence, int[], MrzLayout, int[])} throw.
+	 *
+	 * @param source the MRZ characters
+	 * @param rowOffsets index of the first character of each row in the source
+	 * @param layout the layout of the MRZ format
+	 * @return the field range, or the check digit position, containing an invalid character; null if all are valid.
+	 */
+	static MrzRange findInvalidCharacters(final CharSequence source, final int[] rowOffsets, final MrzLayout layout) {
+		for (int f = 0; f < layout.size(); f++) {
+			final boolean member = layout.isCompositeMember(f);
+			final boolean checked = layout.hasCheckDigit(f);
+			if (!member && !checked) {
+				continue;
+			}
+			final int base = rowOffsets[layout.getRow(f)];
+			if (partialSums(source, base + layout.getColumn(f), base + layout.getColumnTo(f)) == INVALID_SUMS) {
+				return layout.getRange(f);
+			}
+			if (member && checked) {
+				for (int c = layout.getColumnTo(f); c <= layout.getCheckDigitColumn(f); c++) {
+					if (value(source.charAt(base + c)) == INVALID) {
+						return new MrzRange(c, c + 1, layout.getRow(f));
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Computes the check digits of all fields of given layout and the composite check digit, reading every character once. The composite
+	 * contribution of a field is derived from the partial sums of its own check digit, shifted by the position of the field in the composite.
+	 *
+	 * @param source the MRZ characters
+	 * @param rowOffsets index of the first character of each row in the source
+	 * @param layout the layout of the MRZ format
+	 * @param digits receives the computed check digit of every field, {@link MrzLayout#NO_CHECK_DIGIT} for fields without check digit. Must
+	 * hold at least {@link MrzLayout#size()} items.
+	 * @return the computed composite check digit, {@link MrzLayout#NO_CHECK_DIGIT} if the layout has none.
+	 * @throws IllegalArgumentException if a checked character is not valid in MRZ.
+	 */
+	static int computeAll(final CharSequence source, final int[] rowOffsets, final MrzLayout layout, final int[] digits) {
+		int composite = 0;
+		int position = 0;
+		for (int f = 0; f < layout.size(); f++) {
+			final boolean member = layout.isCompositeMember(f);
+			final boolean checked = layout.hasCheckDigit(f);
+			digits[f] = MrzLayout.NO_CHECK_DIGIT;
+			if (!member && !checked) {
+				continue;
+			}
+			final int base = rowOffsets[layout.getRow(f)];
+			final int from = base + layout.getColumn(f);
+			final int to = base + layout.getColumnTo(f);
+			final long sums = partialSums(source, from, to);
+			if (sums == INVALID_SUMS) {
+				throw invalidCharacter(source, from, to);
+			}
+			if (checked) {
+				digits[f] = weigh(sums, 0) % 10;
+			}
+			if (member) {
+				composite += weigh(sums, position);
+				position += to - from;
+				if (checked) {
+					// the composite also covers everything up to and including the check digit
+					for (int c = to; c <= base + layout.getCheckDigitColumn(f); c++) {
+						composite += valueOf(source.charAt(c)) * WEIGHTS[position++ % 3];
+					}
+				}
+			}
+		}
+		return layout.hasComposite() ? composite % 10 : MrzLayout.NO_CHECK_DIGIT;
+	}
+
+}
@@ -0,0 +1,112 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import com.github.rarspace01.mrz.types.MrzFormat;
+import com.github.rarspace01.mrz.types.MrzLayout;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Maps every position of a MRZ format, in reading order, to the check digits it contributes to and to the check digit it holds. The check
+ * digits of the fields are numbered in layout order, the composite check digit last.
+ */
+final class MrzCheckDigitMap {
+
+	/**
+	 * A position may be summed by its field and by the composite check digit.
+	 */
+	static final int MAX_SUMS_PER_POSITION = 2;
+
+	private static final int[] WEIGHTS = new int[]{7, 3, 1};
+
+	/**
+	 * Number of positions, rows * columns.
+	 */
+	final int positions;
+	/**
+	 * Number of check digits.
+	 */
+	final int count;
+	/**
+	 * Check digits summing each position, {@link #MAX_SUMS_PER_POSITION} per position, -1 if unused.
+	 */
+	final int[] sums;
+	/**
+	 * Weight of the position in each of {@link #sums}.
+	 */
+	final int[] weights;
+	/**
+	 * The check digit held by each position, -1 if none.
+	 */
+	final int[] checks;
+	/**
+	 * The position of each check digit.
+	 */
+	final int[] checkPositions;
+
+	/**
+	 * @param format the format
+	 * @throws IllegalStateException if a check digit precedes a character it covers in reading order.
+	 */
+	MrzCheckDigitMap(final MrzFormat format) {
+		final MrzLayout layout = format.getLayout();
+		positions = format.getRows() * format.getColumns();
+		sums = new int[positions * MAX_SUMS_PER_POSITION];
+		weights = new int[positions * MAX_SUMS_PER_POSITION];
+		checks = new int[positions];
+		Arrays.fill(sums, -1);
+		Arrays.fill(checks, -1);
+		checkPositions = new int[layout.size() + 1];
+		int sum = 0;
+		for (int i = 0; i < layout.size(); i++) {
+			if (layout.hasCheckDigit(i)) {
+				add(format, sum++, Collections.singletonList(layout.getRange(i)), layout.getRow(i), layout.getCheckDigitColumn(i));
+			}
+		}
+		if (layout.hasComposite()) {
+			add(format, sum++, layout.getCompositeRanges(), layout.getCompositeRow(), layout.getCompositeColumn());
+		}
+		count = sum;
+	}
+
+	private void add(final MrzFormat format, final int sum, final List<MrzRange> ranges, final int checkRow, final int checkColumn) {
+		final int check = checkRow * format.getColumns() + checkColumn;
+		int position = 0;
+		for (final MrzRange range : ranges) {
+			for (int col = range.getColumn(); col < range.getColumnTo(); col++, position++) {
+				final int p = range.getRow() * format.getColumns() + col;
+				if (p >= check) {
+					throw new IllegalStateException("The check digit of " + ranges + " precedes its characters in " + format);
+				}
+				int slot = p * MAX_SUMS_PER_POSITION;
+				while (sums[slot] >= 0) {
+					slot++;
+				}
+				sums[slot] = sum;
+				weights[slot] = WEIGHTS[position % 3];
+			}
+		}
+		checks[check] = sum;
+		checkPositions[sum] = check;
+	}
+
+}
@@ -0,0 +1,550 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Compact binary form of MRZ records. The MRZ alphabet fits in 6 bits: a record is encoded as a header byte with its rows (2 bits) and
+ * columns (6 bits) followed by the characters as 6-bit symbols, runs of fillers as a single symbol. A TD3 passport takes at most 67 bytes,
+ * usually much less.
+ * <p>
+ * Symbols: 0-9 the digits, 10-35 the letters, 36 a filler, 37-63 a run of 2 to 28 fillers. The characters are packed row after row
+ * without separators, most significant bit first, the last byte is padded with zero bits. Records decode to the {@link MrzRecord#toMrz()}
+ * text: every row terminated by '\n'.
+ * </p>
+ * <p>
+ * {@link Writer} and {@link Reader} store many records in a container: a header, blocks of records and an index of the blocks at the end,
+ * so that any record can be read without decoding the records of other blocks.
+ * </p>
+ */
+public final class MrzCodec {
+
+	/**
+	 * Largest encoded record: header and 3 rows of 63 characters without filler runs.
+	 */
+	public static final int MAX_ENCODED_LENGTH = 1 + (3 * 63 * 6 + 7) / 8;
+
+	/**
+	 * Default number of records per container block.
+	 */
+	public static final int DEFAULT_BLOCK_SIZE = 64;
+
+	private static final String ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ<";
+	private static final int FILLER_SYMBOL = 36;
+	private static final int RUN_SYMBOL = 37;
+	private static final int MIN_RUN = 2;
+	private static final int MAX_RUN = 63 - RUN_SYMBOL + MIN_RUN;
+	private static final int MAX_ROWS = 3;
+	private static final int MAX_COLUMNS = 63;
+	private static final byte[] SYMBOLS = new byte[128];
+
+	/**
+	 * Magic number starting a container.
+	 */
+	private static final byte[] MAGIC = "MRZC".getBytes(StandardCharsets.US_ASCII);
+	/**
+	 * Magic number ending a container.
+	 */
+	private static final byte[] INDEX_MAGIC = "MRZI".getBytes(StandardCharsets.US_ASCII);
+	private static final int VERSION = 1;
+	/**
+	 * Magic, version and block size.
+	 */
+	private static final int HEADER_LENGTH = 4 + 1 + 4;
+	/**
+	 * Index offset, block count, record count and magic.
+	 */
+	private static final int TRAILER_LENGTH = 8 + 4 + 8 + 4;
+
+	static {
+		Arrays.fill(SYMBOLS, (byte) -1);
+		for (int i = 0; i < ALPHABET.length(); i++) {
+			SYMBOLS[ALPHABET.charAt(i)] = (byte) i;
+		}
+	}
+
+	/**
+	 * Prevent instantiation.
+	 */
+	private MrzCodec() {
+	}
+
+	/**
+	 * @param mrz the MRZ, rows separated by '\n' or "\r\n", optionally terminated by one
+	 * @return the encoded record.
+	 * @throws IllegalArgumentException if the rows differ in length, or contain characters outside of the MRZ alphabet.
+	 */
+	public static byte[] encode(final CharSequence mrz) {
+		final byte[] out = new byte[MAX_ENCODED_LENGTH];
+		return Arrays.copyOf(out, encode(mrz, out, 0));
+	}
+
+	/**
+	 * Encodes a record into given array.
+	 *
+	 * @param mrz the MRZ, rows separated by '\n' or "\r\n", optionally terminated by one
+	 * @param out receives the encoded record, at least {@link #MAX_ENCODED_LENGTH} bytes from the offset
+	 * @param offset index of the first byte to write
+	 * @return the number of bytes written.
+	 * @throws IllegalArgumentException if the rows differ in length, or contain characters outside of the MRZ alphabet.
+	 */
+	public static int encode(final CharSequence mrz, final byte[] out, final int offset) {
+		final int[] rowStarts = new int[MAX_ROWS];
+		int rows = 0;
+		int columns = -1;
+		int start = 0;
+		final int length = mrz.length();
+		while (start < length) {
+			int end = start;
+			while (end < length && mrz.charAt(end) != '\n') {
+				end++;
+			}
+			final int rowEnd = end > start && mrz.charAt(end - 1) == '\r' ? end - 1 : end;
+			if (rows == MAX_ROWS) {
+				throw new IllegalArgumentException("Parameter mrz: invalid value " + mrz + ": more than " + MAX_ROWS + " rows");
+			}
+			if (columns < 0) {
+				columns = rowEnd - start;
+			} else if (rowEnd - start != columns) {
+				throw new IllegalArgumentException("Parameter mrz: invalid value " + mrz + ": rows of different lengths");
+			}
+			rowStarts[rows++] = start;
+			start = end + 1;
+		}
+		if (rows == 0 || columns <= 0 || columns > MAX_COLUMNS) {
+			throw new IllegalArgumentException("Parameter mrz: invalid value " + mrz + ": must have 1 to " + MAX_COLUMNS + " columns");
+		}
+		out[offset] = (byte) ((rows - 1) << 6 | columns);
+		final BitWriter writer = new BitWriter(out, offset + 1);
+		int run = 0;
+		for (int row = 0; row < rows; row++) {
+			for (int i = rowStarts[row]; i < rowStarts[row] + columns; i++) {
+				final char c = mrz.charAt(i);
+				final int symbol = c < SYMBOLS.length ? SYMBOLS[c] : -1;
+				if (symbol < 0) {
+					throw new IllegalArgumentException("Parameter mrz: invalid value " + mrz + ": invalid character " + c);
+				}
+				if (symbol == FILLER_SYMBOL) {
+					run++;
+					if (run == MAX_RUN) {
+						writeRun(writer, run);
+						run = 0;
+					}
+				} else {
+					writeRun(writer, run);
+					run = 0;
+					writer.write(symbol);
+				}
+			}
+		}
+		writeRun(writer, run);
+		return writer.finish() - offset;
+	}
+
+	private static void writeRun(final BitWriter writer, final int run) {
+		if (run == 1) {
+			writer.write(FILLER_SYMBOL);
+		} else if (run >= MIN_RUN) {
+			writer.write(RUN_SYMBOL + run - MIN_RUN);
+		}
+	}
+
+	/**
+	 * @param encoded the encoded record
+	 * @return the MRZ, every row terminated by '\n'.
+	 */
+	public static String decode(final byte[] encoded) {
+		return decode(encoded, 0);
+	}
+
+	/**
+	 * @param encoded contains the encoded record
+	 * @param offset index of the first byte of the record
+	 * @return the MRZ, every row terminated by '\n'.
+	 */
+	public static String decode(final byte[] encoded, final int offset) {
+		final StringBuilder sb = new StringBuilder(MAX_ROWS * (MAX_COLUMNS + 1));
+		decode(encoded, offset, sb);
+		return sb.toString();
+	}
+
+	/**
+	 * Decodes a record and parses it.
+	 *
+	 * @param encoded contains the encoded record
+	 * @param offset index of the first byte of the record
+	 * @return the record.
+	 * @throws MrzParseException if the MRZ is not a valid record.
+	 */
+	public static MrzRecord decodeRecord(final byte[] encoded, final int offset) throws MrzParseException {
+		return MrzParser.parse(decode(encoded, offset));
+	}
+
+	/**
+	 * Decodes a record.
+	 *
+	 * @param out receives the MRZ, null to only skip the record
+	 * @return the index of the byte after the record.
+	 */
+	private static int decode(final byte[] encoded, final int offset, final StringBuilder out) {
+		final int header = encoded[offset] & 0xFF;
+		final int rows = (header >>> 6) + 1;
+		final int columns = header & MAX_COLUMNS;
+		final BitReader reader = new BitReader(encoded, offset + 1);
+		int column = 0;
+		int remaining = rows * columns;
+		int run = 0;
+		while (remaining > 0) {
+			final char c;
+			if (run > 0) {
+				run--;
+				c = MrzParser.FILLER;
+			} else {
+				final int symbol = reader.read();
+				if (symbol >= RUN_SYMBOL) {
+					run = symbol - RUN_SYMBOL + MIN_RUN - 1;
+					c = MrzParser.FILLER;
+				} else {
+					c = ALPHABET.charAt(symbol);
+				}
+			}
+			if (out != null) {
+				out.append(c);
+			}
+			remaining--;
+			if (++column == columns) {
+				column = 0;
+				if (out != null) {
+					out.append('\n');
+				}
+			}
+		}
+		return reader.end();
+	}
+
+	/**
+	 * Writes 6-bit symbols, most significant bit first.
+	 */
+	private static final class BitWriter {
+
+		private final byte[] out;
+		private int position;
+		private int bits;
+		private int bitCount;
+
+		BitWriter(final byte[] out, final int position) {
+			this.out = out;
+			this.position = position;
+		}
+
+		void write(final int symbol) {
+			bits = bits << 6 | symbol;
+			bitCount += 6;
+			if (bitCount >= 8) {
+				bitCount -= 8;
+				out[position++] = (byte) (bits >>> bitCount);
+			}
+		}
+
+		/**
+		 * @return the index of the byte after the last written one.
+		 */
+		int finish() {
+			if (bitCount > 0) {
+				out[position++] = (byte) (bits << (8 - bitCount));
+				bitCount = 0;
+			}
+			return position;
+		}
+	}
+
+	/**
+	 * Reads 6-bit symbols, most significant bit first.
+	 */
+	private static final class BitReader {
+
+		private final byte[] in;
+		private int position;
+		private int bits;
+		private int bitCount;
+
+		BitReader(final byte[] in, final int position) {
+			this.in = in;
+			this.position = position;
+		}
+
+		int read() {
+			if (bitCount < 6) {
+				bits = bits << 8 | (in[position++] & 0xFF);
+				bitCount += 8;
+			}
+			bitCount -= 6;
+			return bits >>> bitCount & 0x3F;
+		}
+
+		/**
+		 * @return the index of the byte after the last read one, the padding bits are skipped.
+		 */
+		int end() {
+			return position;
+		}
+	}
+
+	/**
+	 * Writes a container:
+	 * <ul>
+	 * <li>header: "MRZC", version byte, records per block (int)</li>
+	 * <li>blocks: number of records (int), length in bytes (int), the encoded records</li>
+	 * <li>index: the offset of every block (long)</li>
+	 * <li>trailer: index offset (long), number of blocks (int), number of records (long), "MRZI"</li>
+	 * </ul>
+	 * All numbers are big endian. The container is complete once the writer is closed.
+	 */
+	public static final class Writer implements Closeable {
+
+		private final DataOutputStream out;
+		private final int blockSize;
+		private byte[] block = new byte[MAX_ENCODED_LENGTH * 4];
+		private int blockLength;
+		private int blockRecords;
+		private long[] blockOffsets = new long[16];
+		private int blocks;
+		private long records;
+		private long position;
+
+		/**
+		 * @param out the stream to write to, closed with the writer
+		 * @throws IOException if the header cannot be written.
+		 */
+		public Writer(final OutputStream out) throws IOException {
+			this(out, DEFAULT_BLOCK_SIZE);
+		}
+
+		/**
+		 * @param out the stream to write to, closed with the writer
+		 * @param blockSize number of records per block, a record is found by decoding up to as many records
+		 * @throws IOException if the header cannot be written.
+		 */
+		public Writer(final OutputStream out, final int blockSize) throws IOException {
+			if (blockSize <= 0) {
+				throw new IllegalArgumentException("Parameter blockSize: invalid value " + blockSize + ": must be positive");
+			}
+			this.out = new DataOutputStream(out);
+			this.blockSize = blockSize;
+			this.out.write(MAGIC);
+			this.out.writeByte(VERSION);
+			this.out.writeInt(blockSize);
+			position = HEADER_LENGTH;
+		}
+
+		/**
+		 * @param mrz the MRZ, see {@link MrzCodec#encode(CharSequence)}
+		 * @throws IOException if a full block cannot be written.
+		 */
+		public void write(final CharSequence mrz) throws IOException {
+			if (block.length - blockLength < MAX_ENCODED_LENGTH) {
+				block = Arrays.copyOf(block, block.length * 2);
+			}
+			blockLength += encode(mrz, block, blockLength);
+			blockRecords++;
+			records++;
+			if (blockRecords == blockSize) {
+				flushBlock();
+			}
+		}
+
+		/**
+		 * @param record the record, written as {@link MrzRecord#toMrz()}
+		 * @throws IOException if a full block cannot be written.
+		 */
+		public void write(final MrzRecord record) throws IOException {
+			write(record.toMrz());
+		}
+
+		private void flushBlock() throws IOException {
+			if (blocks == blockOffsets.length) {
+				blockOffsets = Arrays.copyOf(blockOffsets, blocks * 2);
+			}
+			blockOffsets[blocks++] = position;
+			out.writeInt(blockRecords);
+			out.writeInt(blockLength);
+			out.write(block, 0, blockLength);
+			position += 8 + blockLength;
+			blockRecords = 0;
+			blockLength = 0;
+		}
+
+		/**
+		 * Writes the last block and the index, and closes the stream.
+		 */
+		@Override
+		public void close() throws IOException {
+			try {
+				if (blockRecords > 0) {
+					flushBlock();
+				}
+				final long indexOffset = position;
+				for (int i = 0; i < blocks; i++) {
+					out.writeLong(blockOffsets[i]);
+				}
+				out.writeLong(indexOffset);
+				out.writeInt(blocks);
+				out.writeLong(records);
+				out.write(INDEX_MAGIC);
+			} finally {
+				out.close();
+			}
+		}
+	}
+
+	/**
+	 * Reads records of a container by their index, see {@link Writer}. Not thread safe.
+	 */
+	public static final class Reader implements Closeable {
+
+		private final SeekableByteChannel channel;
+		private final int blockSize;
+		private final long[] blockOffsets;
+		private final long records;
+		private int cachedBlock = -1;
+		private byte[] block = new byte[0];
+		/**
+		 * Record reached by the last read in the cached block, and its offset.
+		 */
+		private int cachedRecord;
+		private int cachedOffset;
+
+		/**
+		 * Reads the header and the block index.
+		 *
+		 * @param channel the container, closed with the reader
+		 * @throws IOException if the channel is not a complete container.
+		 */
+		public Reader(final SeekableByteChannel channel) throws IOException {
+			this.channel = channel;
+			if (channel.size() < HEADER_LENGTH + TRAILER_LENGTH) {
+				throw new IOException("Not a MRZ container");
+			}
+			final ByteBuffer header = read(0, HEADER_LENGTH);
+			for (final byte b : MAGIC) {
+				if (header.get() != b) {
+					throw new IOException("Not a MRZ container");
+				}
+			}
+			if (header.get() != VERSION) {
+				throw new IOException("Unsupported MRZ container version");
+			}
+			blockSize = header.getInt();
+			final ByteBuffer trailer = read(channel.size() - TRAILER_LENGTH, TRAILER_LENGTH);
+			final long indexOffset = trailer.getLong();
+			final int blocks = trailer.getInt();
+			records = trailer.getLong();
+			for (final byte b : INDEX_MAGIC) {
+				if (trailer.get() != b) {
+					throw new IOException("Incomplete MRZ container, the writer was not closed");
+				}
+			}
+			final ByteBuffer index = read(indexOffset, blocks * 8);
+			blockOffsets = new long[blocks];
+			for (int i = 0; i < blocks; i++) {
+				blockOffsets[i] = index.getLong();
+			}
+		}
+
+		/**
+		 * @return the number of records.
+		 */
+		public long size() {
+			return records;
+		}
+
+		/**
+		 * @param index the index of the record
+		 * @return the MRZ, every row terminated by '\n'.
+		 * @throws IOException if the record cannot be read.
+		 */
+		public String get(final long index) throws IOException {
+			if (index < 0 || index >= records) {
+				throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + records);
+			}
+			final int blockIndex = (int) (index / blockSize);
+			final int record = (int) (index % blockSize);
+			if (blockIndex != cachedBlock) {
+				final ByteBuffer blockHeader = read(blockOffsets[blockIndex], 8);
+				blockHeader.getInt();
+				final int length = blockHeader.getInt();
+				final ByteBuffer bytes = read(blockOffsets[blockIndex] + 8, length);
+				block = new byte[length];
+				bytes.get(block);
+				cachedBlock = blockIndex;
+				cachedRecord = 0;
+				cachedOffset = 0;
+			}
+			if (record < cachedRecord) {
+				cachedRecord = 0;
+				cachedOffset = 0;
+			}
+			// sequential reads continue where the last one stopped
+			while (cachedRecord < record) {
+				cachedOffset = decode(block, cachedOffset, null);
+				cachedRecord++;
+			}
+			final StringBuilder sb = new StringBuilder(MAX_ROWS * (MAX_COLUMNS + 1));
+			cachedOffset = decode(block, cachedOffset, sb);
+			cachedRecord++;
+			return sb.toString();
+		}
+
+		/**
+		 * @param index the index of the record
+		 * @return the parsed record.
+		 * @throws IOException if the record cannot be read.
+		 * @throws MrzParseException if the MRZ is not a valid record.
+		 */
+		public MrzRecord getRecord(final long index) throws IOException, MrzParseException {
+			return MrzParser.parse(get(index));
+		}
+
+		private ByteBuffer read(final long position, final int length) throws IOException {
+			final ByteBuffer buffer = ByteBuffer.allocate(length);
+			channel.position(position);
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer) < 0) {
+					throw new IOException("Unexpected end of MRZ container");
+				}
+			}
+			buffer.flip();
+			return buffer;
+		}
+
+		@Override
+		public void close() throws IOException {
+			channel.close();
+		}
+	}
+
+}
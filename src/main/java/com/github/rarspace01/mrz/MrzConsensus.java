@@ -0,0 +1,239 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import com.github.rarspace01.mrz.types.MrzFormat;
+
+import java.util.Arrays;
+
+/**
+ * Accumulates successive OCR readings of one document, e.g. the frames of a video capture, into a per-position majority vote. The check
+ * digits, including the composite one, are re-checked incrementally whenever the winning character of a position changes, so adding a
+ * reading costs one pass over its characters. The consensus is stable once every check digit of the winning characters validates and
+ * every winner leads the runner-up by the configured number of votes; capture may stop then.
+ * <p>
+ * Instances are not thread safe.
+ * </p>
+ */
+public final class MrzConsensus {
+
+	/**
+	 * The voted characters: digits, letters and the filler.
+	 */
+	private static final String ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ<";
+	private static final int SIZE = ALPHABET.length();
+	/**
+	 * Index of each character in {@link #ALPHABET}, -1 if not voted.
+	 */
+	private static final byte[] INDEX = new byte[128];
+	private static final byte NONE = -1;
+
+	static {
+		Arrays.fill(INDEX, NONE);
+		for (int i = 0; i < SIZE; i++) {
+			INDEX[ALPHABET.charAt(i)] = (byte) i;
+		}
+	}
+
+	private final MrzFormat format;
+	private final int minLead;
+	private final MrzCheckDigitMap map;
+	/**
+	 * Votes by position * {@link #SIZE} + character index.
+	 */
+	private final int[] votes;
+	/**
+	 * The character index winning each position, {@link #NONE} before the first vote.
+	 */
+	private final byte[] winners;
+	/**
+	 * The weighted sum of the winners of each check digit.
+	 */
+	private final int[] sums;
+	private int readings;
+	/**
+	 * Number of positions whose winner does not lead by {@link #minLead} votes.
+	 */
+	private int unsettled;
+	/**
+	 * Number of check digits not matching the winners.
+	 */
+	private int invalid;
+	private final boolean[] settled;
+	private final boolean[] valid;
+
+	/**
+	 * @param format the format of the document
+	 * @param minLead the number of votes each winning character must lead the runner-up by, at least 1
+	 */
+	public MrzConsensus(final MrzFormat format, final int minLead) {
+		if (minLead < 1) {
+			throw new IllegalArgumentException("Parameter minLead: invalid value " + minLead + ": must be at least 1");
+		}
+		this.format = format;
+		this.minLead = minLead;
+		map = new MrzCheckDigitMap(format);
+		votes = new int[map.positions * SIZE];
+		winners = new byte[map.positions];
+		settled = new boolean[map.positions];
+		sums = new int[map.count];
+		valid = new boolean[map.count];
+		reset();
+	}
+
+	/**
+	 * Forgets all readings, e.g. for the next document.
+	 */
+	public void reset() {
+		Arrays.fill(votes, 0);
+		Arrays.fill(winners, NONE);
+		Arrays.fill(settled, false);
+		Arrays.fill(sums, 0);
+		Arrays.fill(valid, false);
+		readings = 0;
+		unsettled = map.positions;
+		invalid = map.count;
+	}
+
+	/**
+	 * Adds a reading. Readings whose rows do not have the size of the format are ignored; characters not valid in MRZ are not counted.
+	 *
+	 * @param mrz the reading, rows separated by \n or \r\n
+	 * @return true if the consensus is stable and valid, see {@link #isStable()}.
+	 */
+	public boolean add(final CharSequence mrz) {
+		final MrzParser parser = MrzParser.locate(mrz, 0, mrz.length());
+		if (parser.hasMismatchedRows() || parser.getRowCount() != format.getRows() || parser.getColumns() != format.getColumns()) {
+			return isStable();
+		}
+		readings++;
+		for (int row = 0; row < format.getRows(); row++) {
+			final int offset = parser.getRowOffset(row);
+			for (int col = 0; col < format.getColumns(); col++) {
+				final char c = mrz.charAt(offset + col);
+				if (c < INDEX.length && INDEX[c] != NONE) {
+					vote(row * format.getColumns() + col, INDEX[c]);
+				}
+			}
+		}
+		return isStable();
+	}
+
+	private void vote(final int p, final byte c) {
+		final int base = p * SIZE;
+		votes[base + c]++;
+		final byte winner = winners[p];
+		if (winner != c && (winner == NONE || votes[base + c] > votes[base + winner])) {
+			winners[p] = c;
+			changeWinner(p, winner, c);
+		}
+		int first = 0;
+		int second = 0;
+		for (int i = base; i < base + SIZE; i++) {
+			if (votes[i] > first) {
+				second = first;
+				first = votes[i];
+			} else if (votes[i] > second) {
+				second = votes[i];
+			}
+		}
+		final boolean nowSettled = first - second >= minLead;
+		if (nowSettled != settled[p]) {
+			settled[p] = nowSettled;
+			unsettled += nowSettled ? -1 : 1;
+		}
+	}
+
+	/**
+	 * Updates the check digit sums containing the position and re-checks them.
+	 */
+	private void changeWinner(final int p, final byte from, final byte to) {
+		final int delta = value(to) - (from == NONE ? 0 : value(from));
+		for (int slot = p * MrzCheckDigitMap.MAX_SUMS_PER_POSITION; slot < (p + 1) * MrzCheckDigitMap.MAX_SUMS_PER_POSITION && map.sums[slot] >= 0; slot++) {
+			sums[map.sums[slot]] += map.weights[slot] * delta;
+			check(map.sums[slot]);
+		}
+		if (map.checks[p] >= 0) {
+			check(map.checks[p]);
+		}
+	}
+
+	private void check(final int sum) {
+		final boolean nowValid = isValid(sum);
+		if (nowValid != valid[sum]) {
+			valid[sum] = nowValid;
+			invalid += nowValid ? -1 : 1;
+		}
+	}
+
+	private boolean isValid(final int sum) {
+		final byte digit = winners[map.checkPositions[sum]];
+		return digit != NONE && (digit < 10 || ALPHABET.charAt(digit) == MrzParser.FILLER) && sums[sum] % 10 == value(digit);
+	}
+
+	private static int value(final byte c) {
+		return MrzCheckDigit.valueOf(ALPHABET.charAt(c));
+	}
+
+	/**
+	 * @return true if every check digit of the winning characters validates and every winner leads by the minimum number of votes
+	 */
+	public boolean isStable() {
+		return readings > 0 && unsettled == 0 && invalid == 0;
+	}
+
+	/**
+	 * @return true if every check digit of the winning characters validates
+	 */
+	public boolean isValid() {
+		return readings > 0 && invalid == 0;
+	}
+
+	/**
+	 * @return the number of readings added
+	 */
+	public int getReadings() {
+		return readings;
+	}
+
+	/**
+	 * @return the format of the document
+	 */
+	public MrzFormat getFormat() {
+		return format;
+	}
+
+	/**
+	 * @return the winning characters, rows separated by '\n'; '&lt;' at positions without votes; null if no reading was added.
+	 */
+	public String getMrz() {
+		if (readings == 0) {
+			return null;
+		}
+		final StringBuilder sb = new StringBuilder(map.positions + format.getRows());
+		for (int p = 0; p < map.positions; p++) {
+			if (p > 0 && p % format.getColumns() == 0) {
+				sb.append('\n');
+			}
+			sb.append(winners[p] == NONE ? MrzParser.FILLER : ALPHABET.charAt(winners[p]));
+		}
+		return sb.toString();
+	}
+
+}
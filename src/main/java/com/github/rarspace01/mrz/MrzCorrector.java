@@ -0,0 +1,328 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import com.github.rarspace01.mrz.types.MrzField;
+import com.github.rarspace01.mrz.types.MrzFormat;
+import com.github.rarspace01.mrz.types.MrzLayout;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Repairs the usual OCR confusions 0/O, 1/I, 5/S, 8/B and 2/Z in a MRZ record. The {@link MrzFormat#getLayout() layout} gives the
+ * character class of each position: dates and check digits are digits, country codes, names and the document code letters, so these are
+ * corrected directly. The alphanumeric fields, e.g. the document number, are corrected by their check digit: substituting a character
+ * changes the 7-3-1 weighted sum by a known amount modulo 10, so the candidate positions are grouped by that amount and only the groups
+ * adding up to the missing difference are considered. At most {@link #MAX_CHANGES} substitutions are made per check digit, the fewest that
+ * fit, and the confidence accounts for all the corrections which fit; fields without a check digit are corrected by the composite check
+ * digit.
+ */
+public final class MrzCorrector {
+
+	/**
+	 * Maximum number of substitutions made to satisfy one check digit.
+	 */
+	public static final int MAX_CHANGES = 2;
+
+	/**
+	 * The character OCR confuses with a given character, 0 if none.
+	 */
+	private static final char[] PARTNERS = new char[128];
+	private static final int[] WEIGHTS = new int[]{7, 3, 1};
+
+	/**
+	 * Positions which are never changed.
+	 */
+	private static final byte FIXED = 0;
+	/**
+	 * Positions holding digits.
+	 */
+	private static final byte DIGIT = 1;
+	/**
+	 * Positions holding letters.
+	 */
+	private static final byte LETTER = 2;
+	/**
+	 * Positions holding letters or digits, corrected by the check digits.
+	 */
+	private static final byte ALPHANUMERIC = 3;
+
+	static {
+		final String pairs = "0O1I5S8B2Z";
+		for (int i = 0; i < pairs.length(); i += 2) {
+			PARTNERS[pairs.charAt(i)] = pairs.charAt(i + 1);
+			PARTNERS[pairs.charAt(i + 1)] = pairs.charAt(i);
+		}
+	}
+
+	/**
+	 * Prevent instantiation.
+	 */
+	private MrzCorrector() {
+		// Do nothing
+	}
+
+	/**
+	 * Corrects the OCR confusions in given MRZ record.
+	 *
+	 * @param mrz the MRZ record
+	 * @return the correction, never null.
+	 * @throws MrzParseException if the rows have different lengths, the format is unknown or the document code is not allowed.
+	 */
+	public static Correction correct(final CharSequence mrz) throws MrzParseException {
+		final MrzParser parser = MrzParser.locate(mrz, 0, mrz.length());
+		final ParseResult failure = parser.checkRecord(0);
+		if (failure != null && failure.getFailure() != MrzParseFailure.INVALID_CHARACTER) {
+			failure.getRecordOrThrow();
+		}
+		return new Corrector(parser).correct();
+	}
+
+	/**
+	 * The state of one correction.
+	 */
+	private static final class Corrector {
+
+		private final MrzLayout layout;
+		private final int columns;
+		private final char[] cells;
+		private final byte[] types;
+		/**
+		 * True for the positions of fields having their own check digit.
+		 */
+		private final boolean[] checked;
+		private final List<MrzRange> changes = new ArrayList<>();
+		private double confidence = 1;
+		/**
+		 * Candidate positions by the change of the weighted sum modulo 10, with the count of each group.
+		 */
+		private final int[][] groups;
+		private final int[] groupSizes = new int[10];
+
+		Corrector(final MrzParser parser) {
+			layout = parser.getFormat().getLayout();
+			columns = parser.getColumns();
+			cells = new char[parser.getRowCount() * columns];
+			for (int row = 0; row < parser.getRowCount(); row++) {
+				for (int col = 0; col < columns; col++) {
+					cells[row * columns + col] = parser.charAt(col, row);
+				}
+			}
+			types = new byte[cells.length];
+			checked = new boolean[cells.length];
+			groups = new int[10][cells.length];
+		}
+
+		Correction correct() {
+			for (int i = 0; i < layout.size(); i++) {
+				setType(layout.getRange(i), typeOf(layout.getField(i)));
+				if (layout.hasCheckDigit(i)) {
+					types[layout.getRow(i) * columns + layout.getCheckDigitColumn(i)] = DIGIT;
+					final MrzRange range = layout.getRange(i);
+					for (int col = range.getColumn(); col < range.getColumnTo(); col++) {
+						checked[range.getRow() * columns + col] = true;
+					}
+				}
+			}
+			if (layout.hasComposite()) {
+				types[layout.getCompositeRow() * columns + layout.getCompositeColumn()] = DIGIT;
+			}
+			for (int i = 0; i < cells.length; i++) {
+				final char c = cells[i];
+				if (c < PARTNERS.length && PARTNERS[c] != 0 && (types[i] == DIGIT && !isDigit(c) || types[i] == LETTER && isDigit(c))) {
+					change(i);
+				}
+			}
+			for (int i = 0; i < layout.size(); i++) {
+				if (layout.hasCheckDigit(i)) {
+					repair(Collections.singletonList(layout.getRange(i)), layout.getRow(i) * columns + layout.getCheckDigitColumn(i), false);
+				}
+			}
+			if (layout.hasComposite()) {
+				repair(layout.getCompositeRanges(), layout.getCompositeRow() * columns + layout.getCompositeColumn(), true);
+			}
+			final StringBuilder sb = new StringBuilder(cells.length + cells.length / columns);
+			for (int i = 0; i < cells.length; i += columns) {
+				if (i > 0) {
+					sb.append('\n');
+				}
+				sb.append(cells, i, columns);
+			}
+			final String mrz = sb.toString();
+			final boolean valid = (MrzValidator.validate(mrz) & MrzValidator.VALID_ALL) == MrzValidator.VALID_ALL;
+			changes.sort(Comparator.comparingInt(MrzRange::getRow).thenComparingInt(MrzRange::getColumn));
+			return new Correction(mrz, changes, valid ? confidence : 0, valid);
+		}
+
+		private void setType(final MrzRange range, final byte type) {
+			for (int col = range.getColumn(); col < range.getColumnTo(); col++) {
+				types[range.getRow() * columns + col] = type;
+			}
+		}
+
+		/**
+		 * Makes the weighted sum of the ranges match the check digit with the fewest substitutions of alphanumeric characters. The confidence is
+		 * divided by the number of corrections of up to {@link #MAX_CHANGES} substitutions which fit.
+		 *
+		 * @param composite true to leave the fields having their own check digit unchanged
+		 */
+		private void repair(final List<MrzRange> ranges, final int checkDigit, final boolean composite) {
+			final char digit = cells[checkDigit];
+			if (digit != MrzParser.FILLER && !isDigit(digit)) {
+				return;
+			}
+			int sum = 0;
+			int position = 0;
+			Arrays.fill(groupSizes, 0);
+			for (final MrzRange range : ranges) {
+				for (int col = range.getColumn(); col < range.getColumnTo(); col++, position++) {
+					final int i = range.getRow() * columns + col;
+					final char c = cells[i];
+					if (!MrzCheckDigit.isValid(c)) {
+						return;
+					}
+					final int weight = WEIGHTS[position % 3];
+					sum += weight * MrzCheckDigit.valueOf(c);
+					if (types[i] == ALPHANUMERIC && !(composite && checked[i]) && PARTNERS[c] != 0) {
+						final int delta = Math.floorMod(weight * (MrzCheckDigit.valueOf(PARTNERS[c]) - MrzCheckDigit.valueOf(c)), 10);
+						groups[delta][groupSizes[delta]++] = i;
+					}
+				}
+			}
+			final int target = Math.floorMod((digit == MrzParser.FILLER ? 0 : digit - '0') - sum, 10);
+			if (target == 0) {
+				return;
+			}
+			// a substitution changing the sum by 0 modulo 10 is invisible to the check digit, group 0 is never used
+			final int singles = groupSizes[target];
+			int pairs = 0;
+			int first = -1;
+			int second = -1;
+			for (int r = 1; r < 10; r++) {
+				final int s = Math.floorMod(target - r, 10);
+				if (s < r || s == 0) {
+					continue;
+				}
+				final int n = r == s ? groupSizes[r] * (groupSizes[r] - 1) / 2 : groupSizes[r] * groupSizes[s];
+				if (n > 0 && first < 0) {
+					first = groups[r][0];
+					second = groups[s][r == s ? 1 : 0];
+				}
+				pairs += n;
+			}
+			// the fewest substitutions win, but every correction up to MAX_CHANGES is an alternative
+			if (singles + pairs > 0) {
+				confidence /= singles + pairs;
+			}
+			if (singles > 0) {
+				change(groups[target][0]);
+			} else if (pairs > 0) {
+				change(first);
+				change(second);
+			}
+		}
+
+		private void change(final int i) {
+			cells[i] = PARTNERS[cells[i]];
+			changes.add(new MrzRange(i % columns, i % columns + 1, i / columns));
+		}
+
+		private static byte typeOf(final MrzField field) {
+			switch (field) {
+				case DATE_OF_BIRTH:
+				case EXPIRATION_DATE:
+					return DIGIT;
+				case DOCUMENT_CODE:
+				case ISSUING_COUNTRY:
+				case NATIONALITY:
+				case NAMES:
+				case SURNAME:
+				case GIVEN_NAMES:
+					return LETTER;
+				case SEX:
+					return FIXED;
+				default:
+					return ALPHANUMERIC;
+			}
+		}
+
+		private static boolean isDigit(final char c) {
+			return c >= '0' && c <= '9';
+		}
+
+	}
+
+	/**
+	 * The result of {@link #correct(CharSequence)}.
+	 */
+	public static final class Correction {
+
+		private final String mrz;
+		private final List<MrzRange> changes;
+		private final double confidence;
+		private final boolean valid;
+
+		Correction(final String mrz, final List<MrzRange> changes, final double confidence, final boolean valid) {
+			this.mrz = mrz;
+			this.changes = Collections.unmodifiableList(changes);
+			this.confidence = confidence;
+			this.valid = valid;
+		}
+
+		/**
+		 * @return the corrected MRZ, rows separated by '\n'
+		 */
+		public String getMrz() {
+			return mrz;
+		}
+
+		/**
+		 * @return the changed positions, one column each, in row and column order; empty if nothing was changed
+		 */
+		public List<MrzRange> getChanges() {
+			return changes;
+		}
+
+		/**
+		 * @return 1 if the check digits determine the changes, 1/n if n corrections of up to {@link #MAX_CHANGES} substitutions per check
+		 * digit fit, 0 if a check digit still fails
+		 */
+		public double getConfidence() {
+			return confidence;
+		}
+
+		/**
+		 * @return true if all check digits and dates of the corrected MRZ are valid
+		 */
+		public boolean isValid() {
+			return valid;
+		}
+
+		@Override
+		public String toString() {
+			return "Correction{" + changes.size() + " changes, confidence " + confidence + ", valid=" + valid + "}";
+		}
+
+	}
+
+}
@@ -0,0 +1,100 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import com.github.rarspace01.mrz.types.MrzField;
+
+/**
+ * A problem reported to {@link MrzDiagnostics}, as stored by {@link CollectingMrzDiagnostics}.
+ */
+public final class MrzDiagnostic {
+
+	private final MrzDiagnosticReason reason;
+	private final MrzField field;
+	private final MrzRange range;
+	private final char expected;
+	private final char actual;
+
+	/**
+	 * @param reason the kind of problem
+	 * @param field the field, {@link MrzField#COMPOSITE} for the composite check digit, null if none
+	 * @param range the range of the problematic characters
+	 * @param expected the expected character, {@link MrzDiagnostics#NO_CHARACTER} if none
+	 * @param actual the actual character, {@link MrzDiagnostics#NO_CHARACTER} if none
+	 */
+	public MrzDiagnostic(final MrzDiagnosticReason reason, final MrzField field, final MrzRange range, final char expected, final char actual) {
+		this.reason = reason;
+		this.field = field;
+		this.range = range;
+		this.expected = expected;
+		this.actual = actual;
+	}
+
+	/**
+	 * @return the kind of problem
+	 */
+	public MrzDiagnosticReason getReason() {
+		return reason;
+	}
+
+	/**
+	 * @return the field, {@link MrzField#COMPOSITE} for the composite check digit, null if none
+	 */
+	public MrzField getField() {
+		return field;
+	}
+
+	/**
+	 * @return the range of the problematic characters
+	 */
+	public MrzRange getRange() {
+		return range;
+	}
+
+	/**
+	 * @return the expected character, {@link MrzDiagnostics#NO_CHARACTER} if none
+	 */
+	public char getExpected() {
+		return expected;
+	}
+
+	/**
+	 * @return the actual character, {@link MrzDiagnostics#NO_CHARACTER} if none
+	 */
+	public char getActual() {
+		return actual;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder().append(reason);
+		if (field != null) {
+			sb.append(' ').append(field);
+		}
+		sb.append(" at ").append(range);
+		if (expected != MrzDiagnostics.NO_CHARACTER) {
+			sb.append(": expected ").append(expected);
+		}
+		if (actual != MrzDiagnostics.NO_CHARACTER) {
+			sb.append(expected != MrzDiagnostics.NO_CHARACTER ? " but got " : ": got ").append(actual);
+		}
+		return sb.toString();
+	}
+
+}
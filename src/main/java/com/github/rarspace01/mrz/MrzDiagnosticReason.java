@@ -0,0 +1,50 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+/**
+ * Reason of a {@link MrzDiagnostic}.
+ */
+public enum MrzDiagnosticReason {
+
+	/**
+	 * A character not valid in MRZ.
+	 */
+	INVALID_CHARACTER,
+	/**
+	 * The check digit does not match the computed one.
+	 */
+	CHECK_DIGIT_MISMATCH,
+	/**
+	 * A date part is not a two digit number.
+	 */
+	UNPARSEABLE_DATE,
+	/**
+	 * A date part is out of its range, e.g. month 13.
+	 */
+	DATE_OUT_OF_RANGE,
+	/**
+	 * The document code is not supported, the record is parsed without it.
+	 */
+	UNSUPPORTED_DOCUMENT_CODE,
+	/**
+	 * The record was given a MRZ of another format and was not parsed.
+	 */
+	FORMAT_MISMATCH
+}
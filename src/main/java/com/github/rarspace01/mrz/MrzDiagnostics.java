@@ -0,0 +1,56 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import com.github.rarspace01.mrz.types.MrzField;
+
+/**
+ * Receives the problems found while parsing dirty MRZ records, which do not fail the parse: invalid check digits, dates, characters or
+ * document codes. Set on the parser with {@link MrzParser#setDiagnostics(MrzDiagnostics)} or passed to
+ * {@link MrzParser#tryParse(CharSequence, int, int, MrzDiagnostics)}.
+ * <p>
+ * The default {@link #NONE} ignores everything; the parser does not even build the arguments for it.
+ */
+public interface MrzDiagnostics {
+
+	/**
+	 * Ignores all diagnostics.
+	 */
+	MrzDiagnostics NONE = (reason, field, range, expected, actual) -> {
+		// Do nothing
+	};
+
+	/**
+	 * Placeholder of the expected or actual character of diagnostics which have none.
+	 */
+	char NO_CHARACTER = '\0';
+
+	/**
+	 * Reports a problem.
+	 *
+	 * @param reason the kind of problem, not null.
+	 * @param field the field, e.g. {@link MrzField#DOCUMENT_NUMBER} or {@link MrzField#COMPOSITE} for the composite check digit. Null if the
+	 * problem is not in a field, e.g. an invalid character or a format mismatch.
+	 * @param range the range of the problematic characters.
+	 * @param expected the expected character, e.g. the computed check digit. {@link #NO_CHARACTER} if none.
+	 * @param actual the actual character. {@link #NO_CHARACTER} if none.
+	 */
+	void report(MrzDiagnosticReason reason, MrzField field, MrzRange range, char expected, char actual);
+
+}
@@ -0,0 +1,355 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+/**
+ * Parses a file of MRZ records in parallel. The file is memory mapped chunk by chunk and the records are parsed directly from the mapped
+ * ASCII bytes on a {@link ForkJoinPool}.
+ * <p>
+ * Records are grouped exactly like {@link MrzStreamReader} does: a line which looks like a first row starts a record of the rows of the
+ * formats with that many columns, the following lines of the same length complete it, any other line is a failure of its own. Chunks are
+ * split at line starts and a first pass over all chunks computes where the first record of every chunk begins, so records never straddle
+ * two chunks.
+ * {@link ParseResult#getOffset()} is the byte offset of the record in the file. The results read the MRZ from the mapped chunk, which
+ * stays mapped as long as they are referenced.
+ * </p>
+ */
+public class MrzFileParser {
+
+	/**
+	 * Default size of a chunk in bytes.
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 16 * 1024 * 1024;
+
+	/**
+	 * Bytes mapped after the end of a chunk to complete its last record: the remaining rows of the widest multi-row format, with CR LF.
+	 */
+	private static final int OVERLAP = 256;
+
+	private static final int LINE_END_SCAN = 4096;
+
+	/**
+	 * Most lines a record continues into the next chunk: the rows after the first of the formats with the most rows.
+	 */
+	private static final int MAX_SKIP = 2;
+
+	private final Path file;
+	private final ForkJoinPool pool;
+	private final int chunkSize;
+
+	/**
+	 * Parses on the common pool with the default chunk size.
+	 *
+	 * @param file the file to parse
+	 */
+	public MrzFileParser(final Path file) {
+		this(file, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * @param file the file to parse
+	 * @param pool the pool the chunks are parsed on
+	 * @param chunkSize approximate size of a chunk in bytes, chunks are extended to the next line start.
+	 */
+	public MrzFileParser(final Path file, final ForkJoinPool pool, final int chunkSize) {
+		if (chunkSize <= 0 || chunkSize > Integer.MAX_VALUE - LINE_END_SCAN - OVERLAP) {
+			throw new IllegalArgumentException("Parameter chunkSize: invalid value " + chunkSize + ": not a valid chunk size");
+		}
+		this.file = file;
+		this.pool = pool;
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * @return all records in file order.
+	 * @throws IOException if the file cannot be read.
+	 */
+	public List<ParseResult> parse() throws IOException {
+		final List<ParseResult> results = new ArrayList<>();
+		parse(results::add, true);
+		return results;
+	}
+
+	/**
+	 * Parses all records and passes them to the consumer.
+	 *
+	 * @param consumer receives the records
+	 * @param ordered true to receive the records in file order on the calling thread, false to receive them as soon as they are parsed,
+	 * concurrently from the pool threads, in which case the consumer must be thread-safe. At most twice as many chunks as the pool has
+	 * threads are parsed ahead of the consumer, so a slow consumer bounds the records held in memory.
+	 * @throws IOException if the file cannot be read.
+	 */
+	public void parse(final Consumer<? super ParseResult> consumer, final boolean ordered) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			final long size = channel.size();
+			final List<Chunk> chunks = split(channel, size);
+			// first pass: the line runs of every chunk, to find where its first record begins
+			final List<ForkJoinTask<Chunk>> scans = new ArrayList<>(chunks.size());
+			for (final Chunk chunk : chunks) {
+				scans.add(pool.submit(() -> chunk.scan()));
+			}
+			int state = 0;
+			for (final ForkJoinTask<Chunk> scan : scans) {
+				final Chunk chunk = scan.join();
+				int skip = 0;
+				while (state != 0 && skip < chunk.lines
+					&& MrzStreamReader.continuesRecord(state >> 2, state & 3, chunk.leadLengths[skip], chunk.leadFirstRows[skip])) {
+					state = open(state >> 2, (state & 3) + 1);
+					skip++;
+				}
+				chunk.skip = skip;
+				if (skip < chunk.lines) {
+					state = chunk.states[skip];
+				}
+			}
+			scans.clear();
+			// second pass: the records starting in every chunk, at most a window of chunks ahead of the consumer
+			final int window = 2 * pool.getParallelism();
+			final Deque<ForkJoinTask<List<ParseResult>>> parses = new ArrayDeque<>(window);
+			int next = 0;
+			while (next < chunks.size() || !parses.isEmpty()) {
+				while (next < chunks.size() && parses.size() < window) {
+					final Chunk chunk = chunks.set(next++, null);
+					parses.add(pool.submit(() -> chunk.parse(ordered ? null : consumer)));
+				}
+				final List<ParseResult> results = parses.poll().join();
+				if (ordered) {
+					results.forEach(consumer);
+				}
+			}
+		} catch (UncheckedIOException ex) {
+			throw ex.getCause();
+		}
+	}
+
+	/**
+	 * @param columns the length of the rows of a record
+	 * @param row the index of the next row of the record
+	 * @return the grouping state of a record: 0 if it is complete, else the columns and the index of its next row.
+	 */
+	private static int open(final int columns, final int row) {
+		return row < MrzStreamReader.getRecordRows(columns) ? columns << 2 | row : 0;
+	}
+
+	/**
+	 * @param state the grouping state before the line, see {@link #open(int, int)}
+	 * @param lineLength the length of the line
+	 * @param firstRow true if the line may start a record
+	 * @return the grouping state after the line.
+	 */
+	private static int advance(final int state, final int lineLength, final boolean firstRow) {
+		if (state != 0 && MrzStreamReader.continuesRecord(state >> 2, state & 3, lineLength, firstRow)) {
+			return open(state >> 2, (state & 3) + 1);
+		}
+		return firstRow ? open(lineLength, 1) : 0;
+	}
+
+	/**
+	 * Splits the file into chunks of about {@link #chunkSize} bytes, each one starting at a line start.
+	 */
+	private List<Chunk> split(final FileChannel channel, final long size) throws IOException {
+		final List<Chunk> chunks = new ArrayList<>();
+		final ByteBuffer scan = ByteBuffer.allocate(LINE_END_SCAN);
+		long start = 0;
+		while (start < size) {
+			long end = Math.min(size, start + chunkSize);
+			if (end < size) {
+				end = nextLineStart(channel, end, size, scan);
+			}
+			chunks.add(new Chunk(channel, start, end, size));
+			start = end;
+		}
+		return chunks;
+	}
+
+	private static long nextLineStart(final FileChannel channel, long position, final long size, final ByteBuffer scan) throws IOException {
+		if (position > 0) {
+			// the chunk end is already a line start if the previous byte ends a line
+			position--;
+		}
+		while (position < size) {
+			scan.clear();
+			final int read = channel.read(scan, position);
+			if (read <= 0) {
+				return size;
+			}
+			for (int i = 0; i < read; i++) {
+				if (scan.get(i) == '\n') {
+					return position + i + 1;
+				}
+			}
+			position += read;
+		}
+		return size;
+	}
+
+	/**
+	 * A range of whole lines of the file.
+	 */
+	private static final class Chunk {
+
+		private final FileChannel channel;
+		private final long start;
+		private final int length;
+		private final int mappedLength;
+
+		private MappedByteBuffer buffer;
+
+		/**
+		 * Number of lines.
+		 */
+		private long lines;
+		/**
+		 * Lengths of the first lines.
+		 */
+		private final int[] leadLengths = new int[MAX_SKIP];
+		/**
+		 * Whether the first lines may start a record.
+		 */
+		private final boolean[] leadFirstRows = new boolean[MAX_SKIP];
+		/**
+		 * Grouping states at the end of the chunk when grouping starts at its first, second or third line.
+		 */
+		private final int[] states = new int[MAX_SKIP + 1];
+		/**
+		 * Number of lines at the start of the chunk which belong to a record of the previous chunk.
+		 */
+		private int skip;
+
+		Chunk(final FileChannel channel, final long start, final long end, final long size) {
+			this.channel = channel;
+			this.start = start;
+			this.length = (int) (end - start);
+			this.mappedLength = (int) Math.min(size - start, (long) length + OVERLAP);
+		}
+
+		private ByteBuffer map() {
+			if (buffer == null) {
+				try {
+					buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, mappedLength);
+				} catch (IOException ex) {
+					throw new UncheckedIOException(ex);
+				}
+			}
+			return buffer;
+		}
+
+		/**
+		 * Counts the lines and groups them from each of the first lines which may continue a record of the previous chunk.
+		 */
+		Chunk scan() {
+			final ByteBuffer bytes = map();
+			final CharSequence text = new AsciiCharSequence(bytes, 0, length);
+			int position = 0;
+			while (position < length) {
+				final int end = lineEnd(bytes, position, length);
+				final int lineLength = trimmedLength(bytes, position, end);
+				final boolean firstRow = MrzStreamReader.startsRecord(text, position, position + lineLength);
+				if (lines < MAX_SKIP) {
+					leadLengths[(int) lines] = lineLength;
+					leadFirstRows[(int) lines] = firstRow;
+				}
+				for (int i = 0; i < states.length && i <= lines; i++) {
+					states[i] = advance(states[i], lineLength, firstRow);
+				}
+				lines++;
+				position = end + 1;
+			}
+			return this;
+		}
+
+		/**
+		 * Parses the records starting in the chunk, the last one may end in the overlap.
+		 *
+		 * @param consumer receives the records as they are parsed, null to collect them
+		 * @return the records, empty if passed to the consumer.
+		 */
+		List<ParseResult> parse(final Consumer<? super ParseResult> consumer) {
+			final ByteBuffer bytes = map();
+			final CharSequence text = new AsciiCharSequence(bytes, 0, mappedLength);
+			final List<ParseResult> results = new ArrayList<>();
+			int position = 0;
+			for (int i = 0; i < skip; i++) {
+				position = lineEnd(bytes, position, length) + 1;
+			}
+			while (position < length) {
+				int end = lineEnd(bytes, position, mappedLength);
+				final int lineLength = trimmedLength(bytes, position, end);
+				final int recordStart = position;
+				position = end + 1;
+				if (lineLength == 0) {
+					continue;
+				}
+				int recordLength = lineLength;
+				if (MrzStreamReader.startsRecord(text, recordStart, recordStart + lineLength)) {
+					final int rows = MrzStreamReader.getRecordRows(lineLength);
+					for (int row = 1; row < rows && position < mappedLength; row++) {
+						end = lineEnd(bytes, position, mappedLength);
+						final int rowLength = trimmedLength(bytes, position, end);
+						if (!MrzStreamReader.continuesRecord(lineLength, row, rowLength,
+							MrzStreamReader.startsRecord(text, position, position + rowLength))) {
+							break;
+						}
+						recordLength = position + rowLength - recordStart;
+						position = end + 1;
+					}
+				}
+				final ParseResult result = MrzParser.tryParse(new AsciiCharSequence(bytes, recordStart, recordLength), 0, recordLength,
+					MrzDiagnostics.NONE, start + recordStart);
+				if (consumer == null) {
+					results.add(result);
+				} else {
+					consumer.accept(result);
+				}
+			}
+			return results;
+		}
+
+		/**
+		 * @return the index of the line feed ending the line, the limit if there is none.
+		 */
+		private static int lineEnd(final ByteBuffer bytes, int position, final int limit) {
+			while (position < limit && bytes.get(position) != '\n') {
+				position++;
+			}
+			return position;
+		}
+
+		private static int trimmedLength(final ByteBuffer bytes, final int start, final int end) {
+			return end > start && bytes.get(end - 1) == '\r' ? end - start - 1 : end - start;
+		}
+
+	}
+
+}
@@ -2,17 +2,21 @@ package com.github.rarspace01.mrz;
 
 import com.github.rarspace01.mrz.types.MrzFormat;
 
-import java.util.regex.Pattern;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Utility to help find a MRZ.
  */
 public final class MrzFinderUtil {
 
-	// MRZ First Line - Type + delimiter or code + country code (then allow for line up to 30-44 length)
-	private static final Pattern MRZFIRSTLINE = Pattern.compile("[P|VACI][A-Z0-9<]([A-Z]{3}|D<<)[A-Z0-9<]{25,39}");
-	// MRZ Standard Characters Line (30 to 44 length)
-	private static final Pattern MRZCHARS = Pattern.compile("[A-Z0-9<]{30,44}");
+	// MRZ line length (30 to 44)
+	private static final int MIN_ROW_LENGTH = 30;
+	private static final int MAX_ROW_LENGTH = 44;
+	/**
+	 * Maximum number of rows of a MRZ record.
+	 */
+	private static final int MAX_ROWS = 3;
 
 	/**
 	 * Prevent instantiation.
@@ -44,31 +48,233 @@ public final class MrzFinderUtil {
 		return mrz;
 	}
 
+	/**
+	 * Finds all MRZ records in a text, e.g. the OCR output of a multi-page document, in a single pass without regular expressions. Rows are
+	 * lines of 30 to 44 MRZ characters, surrounding white space ignored; blank lines may separate the rows of a record. A record starts at a
+	 * row beginning with a document code and a country code, and its rows must form a known {@link MrzFormat}; other rows are skipped.
+	 *
+	 * @param text the text, not null
+	 * @return the records found, in text order, may be empty
+	 */
+	public static List<Match> findAll(final CharSequence text) {
+		final List<Match> result = new ArrayList<>();
+		// the pending rows of the current run of MRZ rows
+		final int[] starts = new int[MAX_ROWS];
+		final int[] ends = new int[MAX_ROWS];
+		int pending = 0;
+		int lineStart = 0;
+		while (lineStart <= text.length()) {
+			int lineEnd = lineStart;
+			while (lineEnd < text.length() && text.charAt(lineEnd) != '\n') {
+				lineEnd++;
+			}
+			int start = lineStart;
+			int end = lineEnd;
+			while (start < end && text.charAt(start) <= ' ') {
+				start++;
+			}
+			while (end > start && text.charAt(end - 1) <= ' ') {
+				end--;
+			}
+			if (start < end) {
+				final boolean row = isMrzRow(text, start, end);
+				if (!row || pending == MAX_ROWS) {
+					pending = flush(text, starts, ends, pending, row ? MAX_ROWS - 1 : 0, result);
+				}
+				if (row) {
+					starts[pending] = start;
+					ends[pending] = end;
+					pending++;
+				}
+			}
+			lineStart = lineEnd + 1;
+		}
+		flush(text, starts, ends, pending, 0, result);
+		return result;
+	}
+
+	/**
+	 * Emits the records found in the pending rows until at most given number of rows remain pending. The longest record starting at the first
+	 * pending row wins; a first row which starts no record is dropped.
+	 *
+	 * @return the number of rows left pending, moved to the start of the arrays.
+	 */
+	private static int flush(final CharSequence text, final int[] starts, final int[] ends, final int pending, final int keep, final List<Match> result) {
+		int first = 0;
+		while (pending - first > keep) {
+			int rows = 0;
+			MrzFormat format = null;
+			if (isFirstRow(text, starts[first], ends[first])) {
+				final int columns = ends[first] - starts[first];
+				int sameLength = 1;
+				while (first + sameLength < pending && ends[first + sameLength] - starts[first + sameLength] == columns) {
+					sameLength++;
+				}
+				for (rows = sameLength; rows > 0; rows--) {
+					format = MrzFormat.find(text, starts[first], rows > 1 ? starts[first + 1] : starts[first], rows, columns);
+					if (format != null) {
+						break;
+					}
+				}
+			}
+			if (format == null) {
+				first++;
+			} else {
+				final int[] rowStarts = new int[rows];
+				System.arraycopy(starts, first, rowStarts, 0, rows);
+				result.add(new Match(rowStarts, ends[first + rows - 1] - starts[first + rows - 1], format));
+				first += rows;
+			}
+		}
+		System.arraycopy(starts, first, starts, 0, pending - first);
+		System.arraycopy(ends, first, ends, 0, pending - first);
+		return pending - first;
+	}
+
+	/**
+	 * MRZ Standard Characters Line: 30 to 44 of 0-9, A-Z and &lt;.
+	 */
+	static boolean isMrzRow(final CharSequence text, final int start, final int end) {
+		if (end - start < MIN_ROW_LENGTH || end - start > MAX_ROW_LENGTH) {
+			return false;
+		}
+		for (int i = start; i < end; i++) {
+			if (!MrzCheckDigit.isValid(text.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * MRZ First Line: Type + delimiter or code + country code, or D&lt;&lt; for Germany, then MRZ characters up to a length of 30 to 44.
+	 */
+	static boolean isFirstRow(final CharSequence text, final int start, final int end) {
+		if (!isMrzRow(text, start, end) || "P|VACI".indexOf(text.charAt(start)) < 0) {
+			return false;
+		}
+		final char c2 = text.charAt(start + 2);
+		final char c3 = text.charAt(start + 3);
+		final char c4 = text.charAt(start + 4);
+		return isLetter(c2) && isLetter(c3) && isLetter(c4) || c2 == 'D' && c3 == MrzParser.FILLER && c4 == MrzParser.FILLER;
+	}
+
+	private static boolean isLetter(final char c) {
+		return c >= 'A' && c <= 'Z';
+	}
+
 	private static String extractMrz(final String input) {
-		// Split lines
-		String[] lines = input.split("\n");
 		StringBuilder mrz = new StringBuilder();
 		boolean found = false;
 		// Process lines until hit MRZ
-		for (String line : lines) {
-			String test = line.trim();
+		int lineStart = 0;
+		while (lineStart < input.length()) {
+			int lineEnd = input.indexOf('\n', lineStart);
+			if (lineEnd < 0) {
+				lineEnd = input.length();
+			}
+			int start = lineStart;
+			int end = lineEnd;
+			while (start < end && input.charAt(start) <= ' ') {
+				start++;
+			}
+			while (end > start && input.charAt(end - 1) <= ' ') {
+				end--;
+			}
+			lineStart = lineEnd + 1;
 			// Only interested in lines that are not blank (this also allows for blank lines between MRZ lines)
-			if (!test.isEmpty()) {
+			if (start < end) {
 				if (found) {
 					// Only extract continuous MRZ lines
-					if (!MRZCHARS.matcher(test).matches()) {
+					if (!isMrzRow(input, start, end)) {
 						break;
 					}
 					// Append line
 					mrz.append("\n");
-					mrz.append(test);
-				} else if (MRZFIRSTLINE.matcher(test).matches()) {
+					mrz.append(input, start, end);
+				} else if (isFirstRow(input, start, end)) {
 					found = true;
-					mrz.append(test);
+					mrz.append(input, start, end);
 				}
 			}
 		}
 		return mrz.toString();
 	}
 
+	/**
+	 * A MRZ record found by {@link #findAll(CharSequence)}.
+	 */
+	public static final class Match {
+
+		/**
+		 * Index of the first character of each row in the text.
+		 */
+		private final int[] rowStarts;
+		private final int columns;
+		private final MrzFormat format;
+
+		Match(final int[] rowStarts, final int columns, final MrzFormat format) {
+			this.rowStarts = rowStarts;
+			this.columns = columns;
+			this.format = format;
+		}
+
+		/**
+		 * @return index of the first MRZ character in the text
+		 */
+		public int getStart() {
+			return rowStarts[0];
+		}
+
+		/**
+		 * @return index after the last MRZ character in the text
+		 */
+		public int getEnd() {
+			return rowStarts[rowStarts.length - 1] + columns;
+		}
+
+		/**
+		 * @return the detected format
+		 */
+		public MrzFormat getFormat() {
+			return format;
+		}
+
+		/**
+		 * @return the number of rows
+		 */
+		public int getRowCount() {
+			return rowStarts.length;
+		}
+
+		/**
+		 * @param row the 0-based row
+		 * @return index of the first character of the row in the text
+		 */
+		public int getRowStart(final int row) {
+			return rowStarts[row];
+		}
+
+		/**
+		 * @param text the text the record was found in
+		 * @return the MRZ, rows separated by '\n' without the white space around them, ready for {@link MrzParser#parse(String)}
+		 */
+		public String getMrz(final CharSequence text) {
+			final StringBuilder sb = new StringBuilder(rowStarts.length * (columns + 1));
+			for (int row = 0; row < rowStarts.length; row++) {
+				if (row > 0) {
+					sb.append('\n');
+				}
+				sb.append(text, rowStarts[row], rowStarts[row] + columns);
+			}
+			return sb.toString();
+		}
+
+		@Override
+		public String toString() {
+			return "Match{" + format + " at " + getStart() + ".." + getEnd() + "}";
+		}
+
+	}
+
 }
@@ -0,0 +1,275 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import com.github.rarspace01.mrz.types.MrzFormat;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.function.Consumer;
+
+/**
+ * Finds MRZ records in text arriving in chunks, e.g. the streamed output of an OCR engine, with the rules of
+ * {@link MrzFinderUtil#findAll(CharSequence)}. Rows may be split anywhere across chunks; a small state machine keeps the current line and the
+ * rows of the record being assembled. A record is emitted as soon as its last row ends, when no longer record of the same width exists,
+ * otherwise when the next line shows the record cannot continue.
+ * <p>
+ * Bytes are read as ISO-8859-1, which is enough for the ASCII MRZ characters. Instances are not thread safe.
+ * </p>
+ */
+public final class MrzIncrementalFinder {
+
+	private static final int MIN_ROW_LENGTH = 30;
+	private static final int MAX_ROW_LENGTH = 44;
+	/**
+	 * Maximum number of rows of a MRZ record.
+	 */
+	private static final int MAX_ROWS = 3;
+	/**
+	 * The largest number of rows of the formats with given number of columns, 0 if none.
+	 */
+	private static final int[] MAX_ROWS_BY_COLUMNS = new int[MAX_ROW_LENGTH + 1];
+
+	static {
+		for (final MrzFormat format : MrzFormat.values()) {
+			MAX_ROWS_BY_COLUMNS[format.getColumns()] = Math.max(MAX_ROWS_BY_COLUMNS[format.getColumns()], format.getRows());
+		}
+	}
+
+	private final Consumer<? super Match> consumer;
+	/**
+	 * The pending rows followed by the current line, {@link #MAX_ROW_LENGTH} characters per slot.
+	 */
+	private final char[] rows = new char[(MAX_ROWS + 1) * MAX_ROW_LENGTH];
+	private final CharBuffer rowView = CharBuffer.wrap(rows);
+	/**
+	 * Position of the first character of each pending row.
+	 */
+	private final long[] rowStarts = new long[MAX_ROWS + 1];
+	/**
+	 * Number of pending rows, all of {@link #columns} characters.
+	 */
+	private int pending;
+	private int columns;
+	/**
+	 * Position of the next character in the text.
+	 */
+	private long position;
+	private long lineStart;
+	private int lineLength;
+	/**
+	 * True once the current line has a character other than white space.
+	 */
+	private boolean started;
+	private boolean trailingSpace;
+	/**
+	 * True if the current line is not a MRZ row.
+	 */
+	private boolean invalid;
+
+	/**
+	 * @param consumer receives the MRZ records, in text order
+	 */
+	public MrzIncrementalFinder(final Consumer<? super Match> consumer) {
+		this.consumer = consumer;
+	}
+
+	/**
+	 * Scans the next chunk of the text.
+	 *
+	 * @param chunk the characters
+	 * @param offset index of the first character
+	 * @param length number of characters
+	 */
+	public void accept(final char[] chunk, final int offset, final int length) {
+		for (int i = offset; i < offset + length; i++) {
+			append(chunk[i]);
+		}
+	}
+
+	/**
+	 * Scans the next chunk of the text.
+	 *
+	 * @param chunk the characters
+	 */
+	public void accept(final char[] chunk) {
+		accept(chunk, 0, chunk.length);
+	}
+
+	/**
+	 * Scans the remaining bytes of the next chunk of the text, read as ISO-8859-1.
+	 *
+	 * @param chunk the bytes, the position is moved to the limit
+	 */
+	public void accept(final ByteBuffer chunk) {
+		while (chunk.hasRemaining()) {
+			append((char) (chunk.get() & 0xFF));
+		}
+	}
+
+	/**
+	 * Ends the text, emitting the record whose last row was not followed by a line break. The finder may then be used for a new text.
+	 */
+	public void finish() {
+		endLine();
+		flush(true);
+		position = 0;
+	}
+
+	private void append(final char c) {
+		if (c == '\n') {
+			endLine();
+		} else if (c <= ' ') {
+			trailingSpace = started;
+		} else {
+			if (!started) {
+				started = true;
+				lineStart = position;
+			}
+			if (!invalid) {
+				if (trailingSpace || lineLength == MAX_ROW_LENGTH || !MrzCheckDigit.isValid(c)) {
+					invalid = true;
+				} else {
+					rows[pending * MAX_ROW_LENGTH + lineLength++] = c;
+				}
+			}
+		}
+		position++;
+	}
+
+	private void endLine() {
+		if (started) {
+			if (invalid || lineLength < MIN_ROW_LENGTH) {
+				flush(true);
+			} else {
+				if (pending > 0 && lineLength != columns) {
+					final int slot = pending;
+					flush(true);
+					System.arraycopy(rows, slot * MAX_ROW_LENGTH, rows, 0, lineLength);
+				}
+				rowStarts[pending] = lineStart;
+				columns = lineLength;
+				pending++;
+				flush(false);
+			}
+		}
+		started = false;
+		trailingSpace = false;
+		invalid = false;
+		lineLength = 0;
+	}
+
+	/**
+	 * Emits the records found in the pending rows. The longest record starting at the first pending row wins; a first row which starts no
+	 * record is dropped.
+	 *
+	 * @param end true if no more rows may join the pending ones, false to stop while a longer record may still start at the first row.
+	 */
+	private void flush(final boolean end) {
+		int first = 0;
+		while (first < pending && (end || pending - first >= MAX_ROWS_BY_COLUMNS[columns])) {
+			final int base = first * MAX_ROW_LENGTH;
+			int count = 0;
+			MrzFormat format = null;
+			if (MrzFinderUtil.isFirstRow(rowView, base, base + columns)) {
+				for (count = pending - first; count > 0; count--) {
+					format = MrzFormat.find(rowView, base, count > 1 ? base + MAX_ROW_LENGTH : base, count, columns);
+					if (format != null) {
+						break;
+					}
+				}
+			}
+			if (format == null) {
+				first++;
+			} else {
+				emit(first, count, format);
+				first += count;
+			}
+		}
+		if (first > 0) {
+			System.arraycopy(rows, first * MAX_ROW_LENGTH, rows, 0, (pending - first) * MAX_ROW_LENGTH);
+			System.arraycopy(rowStarts, first, rowStarts, 0, pending - first);
+			pending -= first;
+		}
+	}
+
+	private void emit(final int first, final int count, final MrzFormat format) {
+		final StringBuilder sb = new StringBuilder(count * (columns + 1));
+		for (int row = first; row < first + count; row++) {
+			if (row > first) {
+				sb.append('\n');
+			}
+			sb.append(rows, row * MAX_ROW_LENGTH, columns);
+		}
+		consumer.accept(new Match(rowStarts[first], rowStarts[first + count - 1] + columns, format, sb.toString()));
+	}
+
+	/**
+	 * A MRZ record found by {@link MrzIncrementalFinder}.
+	 */
+	public static final class Match {
+
+		private final long start;
+		private final long end;
+		private final MrzFormat format;
+		private final String mrz;
+
+		Match(final long start, final long end, final MrzFormat format, final String mrz) {
+			this.start = start;
+			this.end = end;
+			this.format = format;
+			this.mrz = mrz;
+		}
+
+		/**
+		 * @return position of the first MRZ character in the text
+		 */
+		public long getStart() {
+			return start;
+		}
+
+		/**
+		 * @return position after the last MRZ character in the text
+		 */
+		public long getEnd() {
+			return end;
+		}
+
+		/**
+		 * @return the detected format
+		 */
+		public MrzFormat getFormat() {
+			return format;
+		}
+
+		/**
+		 * @return the MRZ, rows separated by '\n', ready for {@link MrzParser#parse(String)}
+		 */
+		public String getMrz() {
+			return mrz;
+		}
+
+		@Override
+		public String toString() {
+			return "Match{" + format + " at " + start + ".." + end + "}";
+		}
+
+	}
+
+}
@@ -0,0 +1,295 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import com.github.rarspace01.mrz.types.MrzFormat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodes a MRZ record from the per-character alternatives of an OCR engine: for each row and column, up to k candidate characters with
+ * their probabilities. A bounded beam search walks the characters in reading order, scoring the log probability of each path; paths
+ * sharing the same pending check digit sums are merged, and a path is dropped as soon as a check digit, including the composite one, does
+ * not match. The result is the most probable MRZ whose check digits all validate and which {@link MrzFormat#find(CharSequence, int, int,
+ * int, int)} recognises as the format of the decoder: the first row starts with the {@link MrzFormat#getPrefix() prefix} of the format
+ * and paths starting with the prefix of an earlier format of the same size are dropped.
+ * <p>
+ * The beams are kept in arrays allocated once per decoder, so decoding does not allocate until the result is built. Instances are not
+ * thread safe, use one decoder per thread.
+ * </p>
+ */
+public final class MrzLatticeDecoder {
+
+	/**
+	 * Bits of one pending check digit sum modulo 10 in the packed state of a beam.
+	 */
+	private static final int SUM_BITS = 4;
+
+	private final MrzFormat format;
+	private final int beamWidth;
+	private final int positions;
+	private final MrzCheckDigitMap map;
+	private final String prefix;
+	/**
+	 * The prefixes of the formats of the same size which {@link MrzFormat#find(CharSequence, int, int, int, int)} tries first, each one
+	 * with a bit in the state of a beam telling that the path still starts like it.
+	 */
+	private final String[] excludedPrefixes;
+	/**
+	 * Position of the bit of the first excluded prefix in the state of a beam, after the pending check digit sums.
+	 */
+	private final int prefixShift;
+
+	private double[] scores;
+	private int[] states;
+	private int beams;
+	private double[] nextScores;
+	private int[] nextStates;
+	private int nextBeams;
+	/**
+	 * The beam each beam of a position extends, by position * beamWidth + beam.
+	 */
+	private final int[] parents;
+	/**
+	 * The candidate chosen by each beam of a position.
+	 */
+	private final byte[] choices;
+	/**
+	 * The parent and candidate of each beam of the position being decoded, until the position is complete.
+	 */
+	private final int[] nextParents;
+	private final byte[] nextChoices;
+
+	/**
+	 * @param format the format of the decoded MRZ
+	 * @param beamWidth the number of paths kept per position, at least 1; 16 to 64 is plenty for top-3 alternatives
+	 */
+	public MrzLatticeDecoder(final MrzFormat format, final int beamWidth) {
+		if (beamWidth < 1) {
+			throw new IllegalArgumentException("Parameter beamWidth: invalid value " + beamWidth + ": must be at least 1");
+		}
+		this.format = format;
+		this.beamWidth = beamWidth;
+		map = new MrzCheckDigitMap(format);
+		prefix = format.getPrefix();
+		final List<String> excluded = new ArrayList<>();
+		for (final MrzFormat f : MrzFormat.values()) {
+			if (f == format) {
+				break;
+			}
+			if (f.getRows() == format.getRows() && f.getColumns() == format.getColumns() && !f.getPrefix().isEmpty()) {
+				excluded.add(f.getPrefix());
+			}
+		}
+		excludedPrefixes = excluded.toArray(new String[0]);
+		prefixShift = map.count * SUM_BITS;
+		if (prefixShift + excludedPrefixes.length > Integer.SIZE) {
+			throw new IllegalStateException("Too many check digits in " + format);
+		}
+		positions = map.positions;
+		scores = new double[beamWidth];
+		states = new int[beamWidth];
+		nextScores = new double[beamWidth];
+		nextStates = new int[beamWidth];
+		nextParents = new int[beamWidth];
+		nextChoices = new byte[beamWidth];
+		parents = new int[positions * beamWidth];
+		choices = new byte[positions * beamWidth];
+	}
+
+	/**
+	 * @return the format of the decoded MRZ
+	 */
+	public MrzFormat getFormat() {
+		return format;
+	}
+
+	/**
+	 * Decodes the most probable MRZ whose check digits validate.
+	 *
+	 * @param candidates the candidate characters, k per position, positions in reading order: index (row * columns + column) * k + i
+	 * @param probabilities the probability of each candidate, same layout; candidates of probability 0 are ignored
+	 * @param k the number of candidates per position
+	 * @return the most probable valid MRZ of the format, null if no combination of the candidates validates
+	 */
+	public Result decode(final char[] candidates, final double[] probabilities, final int k) {
+		if (k < 1 || k > Byte.MAX_VALUE) {
+			throw new IllegalArgumentException("Parameter k: invalid value " + k + ": must be 1.." + Byte.MAX_VALUE);
+		}
+		if (candidates.length != positions * k) {
+			throw new IllegalArgumentException("Parameter candidates: invalid value " + candidates.length + ": must hold " + positions * k + " characters");
+		}
+		if (probabilities.length != candidates.length) {
+			throw new IllegalArgumentException("Parameter probabilities: invalid value " + probabilities.length + ": must hold " + candidates.length + " probabilities");
+		}
+		beams = 1;
+		scores[0] = 0;
+		states[0] = ((1 << excludedPrefixes.length) - 1) << prefixShift;
+		for (int p = 0; p < positions; p++) {
+			nextBeams = 0;
+			for (int b = 0; b < beams; b++) {
+				for (int i = 0; i < k; i++) {
+					final char c = candidates[p * k + i];
+					final double probability = probabilities[p * k + i];
+					if (probability > 0 && MrzCheckDigit.isValid(c) && (p >= prefix.length() || c == prefix.charAt(p))) {
+						extend(p, b, (byte) i, c, scores[b] + Math.log(probability));
+					}
+				}
+			}
+			if (nextBeams == 0) {
+				return null;
+			}
+			System.arraycopy(nextParents, 0, parents, p * beamWidth, nextBeams);
+			System.arraycopy(nextChoices, 0, choices, p * beamWidth, nextBeams);
+			final double[] s = scores;
+			scores = nextScores;
+			nextScores = s;
+			final int[] t = states;
+			states = nextStates;
+			nextStates = t;
+			beams = nextBeams;
+		}
+		// the beams are sorted by descending score, all check digit sums are closed
+		for (int beam = 0; beam < beams; beam++) {
+			final String mrz = build(candidates, k, beam);
+			// the prefixes decide the format, but an overridden check like the one of TRAVEL_PASS may still tell otherwise
+			if (MrzFormat.find(mrz, 0, format.getColumns() + 1, format.getRows(), format.getColumns()) == format) {
+				return new Result(mrz, Math.exp(scores[beam]));
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Follows the parents of a beam of the last position back to the first one.
+	 */
+	private String build(final char[] candidates, final int k, final int last) {
+		final char[] mrz = new char[positions + format.getRows() - 1];
+		int beam = last;
+		for (int p = positions - 1; p >= 0; p--) {
+			final int row = p / format.getColumns();
+			mrz[p + row] = candidates[p * k + choices[p * beamWidth + beam]];
+			if (row > 0 && p % format.getColumns() == 0) {
+				mrz[p + row - 1] = '\n';
+			}
+			beam = parents[p * beamWidth + beam];
+		}
+		return new String(mrz);
+	}
+
+	/**
+	 * Extends beam b of the previous position by a candidate, keeping the next beams sorted by descending score and unique by state.
+	 */
+	private void extend(final int p, final int b, final byte choice, final char c, final double score) {
+		int state = states[b];
+		final int value = MrzCheckDigit.valueOf(c);
+		final int check = map.checks[p];
+		if (check >= 0) {
+			final int shift = check * SUM_BITS;
+			if (c != MrzParser.FILLER && (c < '0' || c > '9') || ((state >>> shift) & 0xF) != value) {
+				return;
+			}
+			state &= ~(0xF << shift);
+		}
+		for (int i = 0; i < excludedPrefixes.length; i++) {
+			final String other = excludedPrefixes[i];
+			if (p < other.length()) {
+				final int bit = 1 << (prefixShift + i);
+				if (c != other.charAt(p)) {
+					state &= ~bit;
+				} else if (p == other.length() - 1 && (state & bit) != 0) {
+					// the first row starts like the other format, which would be detected instead
+					return;
+				}
+			}
+		}
+		for (int slot = p * MrzCheckDigitMap.MAX_SUMS_PER_POSITION; slot < (p + 1) * MrzCheckDigitMap.MAX_SUMS_PER_POSITION && map.sums[slot] >= 0; slot++) {
+			final int shift = map.sums[slot] * SUM_BITS;
+			final int sum = (((state >>> shift) & 0xF) + map.weights[slot] * value) % 10;
+			state = (state & ~(0xF << shift)) | (sum << shift);
+		}
+		// a path in the same state with a better score makes this one useless
+		for (int i = 0; i < nextBeams; i++) {
+			if (nextStates[i] == state) {
+				if (nextScores[i] >= score) {
+					return;
+				}
+				System.arraycopy(nextScores, i + 1, nextScores, i, nextBeams - i - 1);
+				System.arraycopy(nextStates, i + 1, nextStates, i, nextBeams - i - 1);
+				System.arraycopy(nextParents, i + 1, nextParents, i, nextBeams - i - 1);
+				System.arraycopy(nextChoices, i + 1, nextChoices, i, nextBeams - i - 1);
+				nextBeams--;
+				break;
+			}
+		}
+		int at = nextBeams;
+		while (at > 0 && nextScores[at - 1] < score) {
+			at--;
+		}
+		if (at >= beamWidth) {
+			return;
+		}
+		final int moved = Math.min(nextBeams, beamWidth - 1) - at;
+		System.arraycopy(nextScores, at, nextScores, at + 1, moved);
+		System.arraycopy(nextStates, at, nextStates, at + 1, moved);
+		System.arraycopy(nextParents, at, nextParents, at + 1, moved);
+		System.arraycopy(nextChoices, at, nextChoices, at + 1, moved);
+		nextScores[at] = score;
+		nextStates[at] = state;
+		nextParents[at] = b;
+		nextChoices[at] = choice;
+		nextBeams = Math.min(nextBeams + 1, beamWidth);
+	}
+
+	/**
+	 * The result of {@link #decode(char[], double[], int)}.
+	 */
+	public static final class Result {
+
+		private final String mrz;
+		private final double probability;
+
+		Result(final String mrz, final double probability) {
+			this.mrz = mrz;
+			this.probability = probability;
+		}
+
+		/**
+		 * @return the MRZ, rows separated by '\n'
+		 */
+		public String getMrz() {
+			return mrz;
+		}
+
+		/**
+		 * @return the product of the probabilities of the chosen candidates
+		 */
+		public double getProbability() {
+			return probability;
+		}
+
+		@Override
+		public String toString() {
+			return "Result{" + mrz.replace('\n', '/') + ", probability " + probability + "}";
+		}
+
+	}
+
+}
@@ -0,0 +1,42 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+/**
+ * Reason of a failed {@link MrzParser#tryParse(CharSequence, int, int)}.
+ */
+public enum MrzParseFailure {
+
+	/**
+	 * The rows of the record do not have the same length.
+	 */
+	DIFFERENT_ROW_LENGTHS,
+	/**
+	 * The number of rows, columns or the first characters match no {@link com.github.rarspace01.mrz.types.MrzFormat}.
+	 */
+	UNKNOWN_FORMAT,
+	/**
+	 * The document code is not allowed, e.g. IV.
+	 */
+	DOCUMENT_CODE_NOT_ALLOWED,
+	/**
+	 * A character covered by a check digit is not valid in MRZ.
+	 */
+	INVALID_CHARACTER
+}
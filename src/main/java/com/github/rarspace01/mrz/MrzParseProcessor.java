@@ -0,0 +1,405 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Reactive MRZ parser: parses the MRZ records published upstream with {@link MrzParser#tryParse(CharSequence)} and publishes the
+ * {@link ParseResult}s to a single subscriber.
+ * <p>
+ * At most {@code maxInFlight} records are requested from upstream which are not yet delivered downstream, so a slow subscriber slows
+ * down the publisher. Records are parsed on the executor in batches of up to {@code batchSize} records: a batch takes all records
+ * waiting when a task starts, so a fast publisher gets few large tasks and a slow one gets its records parsed one by one without delay.
+ * Results are delivered in the order of the records, or as soon as their batch is parsed if ordering is not required.
+ * </p>
+ */
+public class MrzParseProcessor implements Flow.Processor<CharSequence, ParseResult> {
+
+	/**
+	 * Default maximum number of records requested from upstream and not yet delivered downstream.
+	 */
+	public static final int DEFAULT_MAX_IN_FLIGHT = 256;
+	/**
+	 * Default maximum number of records parsed by one task.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 32;
+
+	private final Executor executor;
+	private final int maxInFlight;
+	private final int batchSize;
+	private final boolean ordered;
+	private final int maxBatches;
+
+	private final Object lock = new Object();
+	// all the fields below are guarded by lock
+	private Flow.Subscription upstream;
+	private Flow.Subscriber<? super ParseResult> downstream;
+	private boolean subscribed;
+	/**
+	 * Records received and not yet passed to a batch.
+	 */
+	private final ArrayDeque<CharSequence> pending = new ArrayDeque<>();
+	/**
+	 * Results which may be delivered.
+	 */
+	private final ArrayDeque<ParseResult> ready = new ArrayDeque<>();
+	/**
+	 * Results of batches completed ahead of an earlier batch, by the sequence number of their first record.
+	 */
+	private final TreeMap<Long, List<ParseResult>> completed = new TreeMap<>();
+	private long received;
+	private long next;
+	private int inFlight;
+	private long upstreamRequested;
+	private long demand;
+	private int runningBatches;
+	private boolean upstreamDone;
+	private Throwable error;
+	private boolean cancelled;
+	private boolean terminated;
+	private boolean draining;
+
+	/**
+	 * Parses on the common pool with the default limits, preserving the order.
+	 */
+	public MrzParseProcessor() {
+		this(ForkJoinPool.commonPool(), DEFAULT_MAX_IN_FLIGHT, DEFAULT_BATCH_SIZE, true);
+	}
+
+	/**
+	 * @param executor runs the parse tasks
+	 * @param maxInFlight maximum number of records requested from upstream and not yet delivered downstream
+	 * @param batchSize maximum number of records parsed by one task, at most {@code maxInFlight / batchSize} tasks run at once
+	 * @param ordered true to deliver the results in the order of the records, false to deliver them as soon as they are parsed
+	 */
+	public MrzParseProcessor(final Executor executor, final int maxInFlight, final int batchSize, final boolean ordered) {
+		if (maxInFlight <= 0) {
+			throw new IllegalArgumentException("Parameter maxInFlight: invalid value " + maxInFlight + ": must be positive");
+		}
+		if (batchSize <= 0) {
+			throw new IllegalArgumentException("Parameter batchSize: invalid value " + batchSize + ": must be positive");
+		}
+		this.executor = Objects.requireNonNull(executor, "executor");
+		this.maxInFlight = maxInFlight;
+		this.batchSize = batchSize;
+		this.ordered = ordered;
+		this.maxBatches = Math.max(1, maxInFlight / batchSize);
+	}
+
+	@Override
+	public void subscribe(final Flow.Subscriber<? super ParseResult> subscriber) {
+		Objects.requireNonNull(subscriber, "subscriber");
+		final boolean accepted;
+		synchronized (lock) {
+			accepted = downstream == null;
+			if (accepted) {
+				downstream = subscriber;
+			}
+		}
+		if (!accepted) {
+			subscriber.onSubscribe(new Flow.Subscription() {
+				@Override
+				public void request(final long n) {
+				}
+
+				@Override
+				public void cancel() {
+				}
+			});
+			subscriber.onError(new IllegalStateException("MrzParseProcessor supports a single subscriber"));
+			return;
+		}
+		subscriber.onSubscribe(new Flow.Subscription() {
+			@Override
+			public void request(final long n) {
+				requestDownstream(n);
+			}
+
+			@Override
+			public void cancel() {
+				cancelDownstream();
+			}
+		});
+		synchronized (lock) {
+			subscribed = true;
+		}
+		requestUpstream();
+		drain();
+	}
+
+	@Override
+	public void onSubscribe(final Flow.Subscription subscription) {
+		Objects.requireNonNull(subscription, "subscription");
+		synchronized (lock) {
+			if (upstream != null || cancelled) {
+				subscription.cancel();
+				return;
+			}
+			upstream = subscription;
+		}
+		requestUpstream();
+	}
+
+	@Override
+	public void onNext(final CharSequence item) {
+		Objects.requireNonNull(item, "item");
+		final List<Batch> batches;
+		synchronized (lock) {
+			if (cancelled || upstreamDone) {
+				return;
+			}
+			upstreamRequested--;
+			inFlight++;
+			pending.add(item);
+			batches = takeBatches();
+		}
+		execute(batches);
+	}
+
+	@Override
+	public void onError(final Throwable throwable) {
+		Objects.requireNonNull(throwable, "throwable");
+		synchronized (lock) {
+			upstreamDone = true;
+			if (error == null) {
+				error = throwable;
+			}
+		}
+		drain();
+	}
+
+	@Override
+	public void onComplete() {
+		synchronized (lock) {
+			upstreamDone = true;
+		}
+		drain();
+	}
+
+	private void requestDownstream(final long n) {
+		Flow.Subscription cancel = null;
+		synchronized (lock) {
+			if (n <= 0) {
+				if (error == null) {
+					error = new IllegalArgumentException("Parameter n: invalid value " + n + ": must be positive");
+				}
+				upstreamDone = true;
+				cancel = upstream;
+			} else {
+				demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+			}
+		}
+		if (cancel != null) {
+			cancel.cancel();
+		}
+		drain();
+	}
+
+	private void cancelDownstream() {
+		final Flow.Subscription cancel;
+		synchronized (lock) {
+			if (cancelled) {
+				return;
+			}
+			cancelled = true;
+			clear();
+			cancel = upstream;
+		}
+		if (cancel != null) {
+			cancel.cancel();
+		}
+	}
+
+	/**
+	 * Requests records from upstream up to {@link #maxInFlight}, once there is a subscriber.
+	 */
+	private void requestUpstream() {
+		final Flow.Subscription subscription;
+		final long n;
+		synchronized (lock) {
+			if (upstream == null || !subscribed || cancelled || upstreamDone) {
+				return;
+			}
+			n = maxInFlight - inFlight - upstreamRequested;
+			if (n <= 0) {
+				return;
+			}
+			upstreamRequested += n;
+			subscription = upstream;
+		}
+		subscription.request(n);
+	}
+
+	/**
+	 * Starts the batches of the pending records while there are free task slots. Must hold the lock.
+	 */
+	private List<Batch> takeBatches() {
+		List<Batch> batches = null;
+		while (!pending.isEmpty() && runningBatches < maxBatches) {
+			final CharSequence[] mrzs = new CharSequence[Math.min(batchSize, pending.size())];
+			for (int i = 0; i < mrzs.length; i++) {
+				mrzs[i] = pending.poll();
+			}
+			if (batches == null) {
+				batches = new ArrayList<>();
+			}
+			batches.add(new Batch(received, mrzs));
+			received += mrzs.length;
+			runningBatches++;
+		}
+		return batches;
+	}
+
+	private void execute(final List<Batch> batches) {
+		if (batches == null) {
+			return;
+		}
+		for (final Batch batch : batches) {
+			try {
+				executor.execute(batch);
+			} catch (RejectedExecutionException ex) {
+				final Flow.Subscription cancel;
+				synchronized (lock) {
+					if (error == null) {
+						error = ex;
+					}
+					upstreamDone = true;
+					cancel = upstream;
+				}
+				if (cancel != null) {
+					cancel.cancel();
+				}
+				drain();
+				return;
+			}
+		}
+	}
+
+	private void complete(final Batch batch, final List<ParseResult> results) {
+		final List<Batch> batches;
+		synchronized (lock) {
+			runningBatches--;
+			if (cancelled || terminated) {
+				return;
+			}
+			if (ordered) {
+				completed.put(batch.first, results);
+				List<ParseResult> nextResults;
+				while ((nextResults = completed.remove(next)) != null) {
+					ready.addAll(nextResults);
+					next += nextResults.size();
+				}
+			} else {
+				ready.addAll(results);
+			}
+			batches = takeBatches();
+		}
+		execute(batches);
+		drain();
+	}
+
+	/**
+	 * Delivers the ready results and the terminal signal. Only one thread drains at a time, so the subscriber is signalled serially.
+	 */
+	private void drain() {
+		synchronized (lock) {
+			if (draining) {
+				return;
+			}
+			draining = true;
+		}
+		while (true) {
+			final Flow.Subscriber<? super ParseResult> subscriber;
+			ParseResult result = null;
+			Throwable failure = null;
+			synchronized (lock) {
+				subscriber = downstream;
+				if (!subscribed || cancelled || terminated) {
+					draining = false;
+					return;
+				}
+				if (error != null) {
+					failure = error;
+					terminated = true;
+					clear();
+				} else if (demand > 0 && !ready.isEmpty()) {
+					result = ready.poll();
+					demand--;
+					inFlight--;
+				} else if (upstreamDone && inFlight == 0) {
+					terminated = true;
+				} else {
+					draining = false;
+					return;
+				}
+			}
+			if (failure != null) {
+				subscriber.onError(failure);
+			} else if (result == null) {
+				subscriber.onComplete();
+			} else {
+				subscriber.onNext(result);
+				requestUpstream();
+			}
+		}
+	}
+
+	/**
+	 * Drops the buffered records and results. Must hold the lock.
+	 */
+	private void clear() {
+		pending.clear();
+		ready.clear();
+		completed.clear();
+	}
+
+	/**
+	 * Consecutive records parsed by one task.
+	 */
+	private final class Batch implements Runnable {
+
+		private final long first;
+		private final CharSequence[] mrzs;
+
+		Batch(final long first, final CharSequence[] mrzs) {
+			this.first = first;
+			this.mrzs = mrzs;
+		}
+
+		@Override
+		public void run() {
+			final List<ParseResult> results = new ArrayList<>(mrzs.length);
+			for (final CharSequence mrz : mrzs) {
+				results.add(MrzParser.tryParse(mrz));
+			}
+			complete(this, results);
+		}
+
+	}
+
+}
@@ -19,12 +19,23 @@
 package com.github.rarspace01.mrz;
 
 import com.github.rarspace01.mrz.types.MrzDate;
+import com.github.rarspace01.mrz.types.MrzField;
 import com.github.rarspace01.mrz.types.MrzFormat;
+import com.github.rarspace01.mrz.types.MrzLayout;
 import com.github.rarspace01.mrz.types.MrzSex;
 
+import java.nio.CharBuffer;
 import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 /**
  * Parses the MRZ records.
  *
@@ -32,8 +43,11 @@ import java.util.Map;
  */
 public class MrzParser {
 
-	private static final int[] MRZ_WEIGHTS = new int[]{7, 3, 1};
 	private static final Map<String, String> EXPAND_CHARACTERS = new HashMap<String, String>();
+	/**
+	 * Records parsed by one task of {@link #parseAll(Spliterator, Executor)}, smaller batches are not split.
+	 */
+	private static final int PARSE_ALL_BATCH_SIZE = 32;
 	/**
 	 * The filler character, '&lt;'.
 	 */
@@ -62,17 +76,58 @@ public class MrzParser {
 	}
 
 	/**
-	 * The MRZ record, not null.
+	 * Maximum number of rows of any supported MRZ format.
+	 */
+	private static final int MAX_ROWS = 3;
+
+	/**
+	 * The buffer holding the MRZ record, not null.
 	 */
-	private final String mrz;
+	private final CharSequence source;
 	/**
-	 * The MRZ record separated into rows.
+	 * Index of the first MRZ character in {@link #source}.
 	 */
-	private final String[] rows;
+	private final int offset;
 	/**
-	 * MRZ record format.
+	 * Number of characters of the MRZ record in {@link #source}.
+	 */
+	private final int length;
+	/**
+	 * Index of the first character of each row in {@link #source}.
+	 */
+	private final int[] rowOffsets = new int[MAX_ROWS];
+	/**
+	 * Number of rows.
+	 */
+	private final int rowCount;
+	/**
+	 * Number of characters per row.
+	 */
+	private final int columns;
+	/**
+	 * First row whose length differs from the first one, -1 if all rows have the same length.
+	 */
+	private final int mismatchedRow;
+	/**
+	 * Length of {@link #mismatchedRow}.
+	 */
+	private final int mismatchedRowLength;
+	/**
+	 * MRZ record format, null only while a failure is reported by {@link #tryParse(CharSequence, int, int)}.
 	 */
 	private final MrzFormat format;
+	/**
+	 * Receives the problems found while parsing.
+	 */
+	private MrzDiagnostics diagnostics;
+	/**
+	 * The MRZ record, created on demand.
+	 */
+	private String mrz;
+	/**
+	 * The MRZ record separated into rows, created on demand.
+	 */
+	private String[] rows;
 
 	/**
 	 * Creates new parser which parses given MRZ record.
@@ -82,15 +137,127 @@ public class MrzParser {
 	 * @throws MrzParseException could not parse MRZ
 	 */
 	public MrzParser(final String mrz) throws MrzParseException {
-		this.mrz = mrz;
-		this.rows = mrz.split("\n");
-		this.format = MrzFormat.get(mrz);
+		this(mrz, 0, mrz.length());
+	}
+
+	/**
+	 * Creates new parser which parses the MRZ record stored in given part of a character buffer. Rows are separated by \n or \r\n, the characters
+	 * are read directly from the buffer and are never copied.
+	 *
+	 * @param source the buffer containing the MRZ record, not null.
+	 * @param offset index of the first MRZ character.
+	 * @param length number of MRZ characters.
+	 *
+	 * @throws MrzParseException could not parse MRZ
+	 */
+	public MrzParser(final CharSequence source, final int offset, final int length) throws MrzParseException {
+		this(source, offset, length, MrzDiagnostics.NONE);
+		if (mismatchedRow >= 0) {
+			throw new MrzParseException(getFailureMessage(MrzParseFailure.DIFFERENT_ROW_LENGTHS), getMrz(), new MrzRange(0, 0, 0), null);
+		}
+		if (format == null) {
+			throw new MrzParseException(getFailureMessage(MrzParseFailure.UNKNOWN_FORMAT), getMrz(), new MrzRange(0, 0, 0), null);
+		}
+	}
+
+	/**
+	 * Locates the rows and detects the format without throwing: a record with rows of different lengths leaves {@link #mismatchedRow} set, a
+	 * record of unknown format leaves {@link #format} null. {@link #checkRecord(long)} tells whether the record can be decoded.
+	 *
+	 * @param source the buffer containing the MRZ record, not null.
+	 * @param offset index of the first MRZ character.
+	 * @param length number of MRZ characters.
+	 * @return the parser, never null.
+	 */
+	static MrzParser locate(final CharSequence source, final int offset, final int length) {
+		return new MrzParser(source, offset, length, MrzDiagnostics.NONE);
+	}
+
+	/**
+	 * Locates the rows and detects the format without throwing, see {@link #locate(CharSequence, int, int)}.
+	 *
+	 * @param source the buffer containing the MRZ record, not null.
+	 * @param offset index of the first MRZ character.
+	 * @param length number of MRZ characters.
+	 * @param diagnostics receives the problems found while decoding, not null.
+	 */
+	private MrzParser(final CharSequence source, final int offset, final int length, final MrzDiagnostics diagnostics) {
+		if (offset < 0 || length < 0 || offset + length > source.length()) {
+			throw new IndexOutOfBoundsException("Invalid MRZ window " + offset + "+" + length + " for a buffer of " + source.length() + " characters");
+		}
+		this.source = source;
+		this.offset = offset;
+		this.length = length;
+		this.diagnostics = diagnostics;
+		int count = 0;
+		int cols = 0;
+		int emptyRows = 0;
+		int mismatch = -1;
+		int mismatchLength = 0;
+		final int end = offset + length;
+		int rowStart = offset;
+		for (int i = offset; i <= end; i++) {
+			if (i < end && source.charAt(i) != '\n') {
+				continue;
+			}
+			int rowEnd = i;
+			if (rowEnd > rowStart && source.charAt(rowEnd - 1) == '\r') {
+				rowEnd--;
+			}
+			final int rowLength = rowEnd - rowStart;
+			if (rowLength == 0) {
+				// Empty rows only count when followed by a non-empty one, trailing line breaks are ignored
+				emptyRows++;
+			} else {
+				for (; emptyRows >= 0; emptyRows--) {
+					final int currentLength = emptyRows == 0 ? rowLength : 0;
+					if (count == 0) {
+						cols = currentLength;
+					} else if (currentLength != cols && mismatch < 0) {
+						mismatch = count;
+						mismatchLength = currentLength;
+					}
+					if (count < MAX_ROWS) {
+						rowOffsets[count] = rowStart;
+					}
+					count++;
+				}
+				emptyRows = 0;
+			}
+			rowStart = i + 1;
+		}
+		this.rowCount = count;
+		this.columns = cols;
+		this.mismatchedRow = mismatch;
+		this.mismatchedRowLength = mismatchLength;
+		this.format = mismatch >= 0 ? null
+			: MrzFormat.find(source, rowOffsets[0], rowOffsets[1], rowCount, columns);
+	}
+
+	/**
+	 * @return true if the rows do not all have the same length
+	 */
+	boolean hasMismatchedRows() {
+		return mismatchedRow >= 0;
+	}
+
+	/**
+	 * Builds the message of a failure detected while locating the rows or the format.
+	 */
+	String getFailureMessage(final MrzParseFailure failure) {
+		if (failure == MrzParseFailure.DIFFERENT_ROW_LENGTHS) {
+			return "Different row lengths: 0: " + columns + " and " + mismatchedRow + ": " + mismatchedRowLength;
+		}
+		return "Unknown format / unsupported number of cols/rows: " + columns + "/" + rowCount;
 	}
 
 	/**
 	 * @return the MRZ record
 	 */
 	public String getMrz() {
+		if (mrz == null) {
+			mrz = source.subSequence(offset, offset + length).toString();
+		}
 		return mrz;
 	}
 
@@ -98,9 +265,61 @@ public class MrzParser {
 	 * @return the MRZ rows
 	 */
 	public String[] getRows() {
+		if (rows == null) {
+			final String[] result = new String[rowCount];
+			for (int i = 0; i < rowCount; i++) {
+				result[i] = source.subSequence(rowOffsets[i], rowOffsets[i] + columns).toString();
+			}
+			rows = result;
+		}
 		return rows;
 	}
 
+	/**
+	 * @return the receiver of the problems found while parsing, {@link MrzDiagnostics#NONE} by default.
+	 */
+	public MrzDiagnostics getDiagnostics() {
+		return diagnostics;
+	}
+
+	/**
+	 * Sets the receiver of the problems found while parsing: invalid check digits, dates, characters and document codes.
+	 *
+	 * @param diagnostics the receiver, {@link MrzDiagnostics#NONE} to ignore the problems. Not null.
+	 */
+	public void setDiagnostics(final MrzDiagnostics diagnostics) {
+		this.diagnostics = diagnostics;
+	}
+
+	/**
+	 * @return the buffer holding the MRZ record, the characters are not copied.
+	 */
+	public CharSequence getSource() {
+		return source;
+	}
+
+	/**
+	 * @param row the 0-based row
+	 * @return index of the first character of given row in {@link #getSource()}
+	 */
+	public int getRowOffset(final int row) {
+		return rowOffsets[row];
+	}
+
+	/**
+	 * @return the number of MRZ rows
+	 */
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * @return the number of characters per MRZ row
+	 */
+	public int getColumns() {
+		return columns;
+	}
+
 	/**
 	 * @return the MRZ format
 	 */
@@ -108,6 +327,17 @@ public class MrzParser {
 		return format;
 	}
 
+	/**
+	 * Returns the MRZ character at given position, read directly from the parsed buffer.
+	 *
+	 * @param col the 0-based column
+	 * @param row the 0-based row
+	 * @return the character
+	 */
+	public char charAt(final int col, final int row) {
+		return source.charAt(rowOffsets[row] + col);
+	}
+
 	/**
 	 * Parses the MRZ name in form of SURNAME &lt;&lt;FIRSTNAME&lt;.
 	 *
@@ -117,22 +347,26 @@ public class MrzParser {
 	 * @throws MrzParseException could not parse range
 	 */
 	public String[] parseName(final MrzRange range) throws MrzParseException {
-		hasValidCharacters(range);
-		String str = rawValue(range);
-		while (str.endsWith("<")) {
-			str = str.substring(0, str.length() - 1);
+		return parseName(range.getColumn(), range.getColumnTo(), range.getRow());
+	}
+
+	/**
+	 * Parses the MRZ name in given columns, see {@link #parseName(MrzRange)}.
+	 */
+	String[] parseName(final int column, final int columnTo, final int row) throws MrzParseException {
+		hasValidCharacters(column, columnTo, row);
+		final int end = trimFillers(column, columnTo, row);
+		int separator = -1;
+		for (int col = column; col < end - 1; col++) {
+			if (charAt(col, row) == FILLER && charAt(col + 1, row) == FILLER) {
+				separator = col;
+				break;
+			}
 		}
-		final String[] names = str.split("<<");
-		String givenNames = "";
-		String surname = parseString(new MrzRange(range.getColumn(), range.getColumn() + names[0].length(), range.getRow()));
-		if (names.length == 1) {
-			givenNames = parseString(new MrzRange(range.getColumn(), range.getColumn() + names[0].length(), range.getRow()));
-			surname = "";
-		} else if (names.length > 1) {
-			surname = parseString(new MrzRange(range.getColumn(), range.getColumn() + names[0].length(), range.getRow()));
-			givenNames = parseString(new MrzRange(range.getColumn() + names[0].length() + 2, range.getColumn() + str.length(), range.getRow()));
+		if (separator < 0) {
+			return new String[]{"", decodeString(column, end, row)};
 		}
-		return new String[]{surname, givenNames};
+		return new String[]{decodeString(column, separator, row), decodeString(separator + 2, end, row)};
 	}
 
 	/**
@@ -142,13 +376,26 @@ public class MrzParser {
 	 * @return raw value, never null, may be empty.
 	 */
 	public String rawValue(final MrzRange... range) {
+		if (range.length == 1) {
+			return rawValue(range[0]);
+		}
 		final StringBuilder sb = new StringBuilder();
 		for (MrzRange r : range) {
-			sb.append(getRows()[r.getRow()].substring(r.getColumn(), r.getColumnTo()));
+			final int base = rowOffsets[r.getRow()];
+			sb.append(source, base + r.getColumn(), base + r.getColumnTo());
 		}
 		return sb.toString();
 	}
 
+	String rawValue(final MrzRange range) {
+		return rawValue(range.getColumn(), range.getColumnTo(), range.getRow());
+	}
+
+	String rawValue(final int column, final int columnTo, final int row) {
+		final int base = rowOffsets[row];
+		return source.subSequence(base + column, base + columnTo).toString();
+	}
+
 	/**
 	 * Checks that given range contains valid characters.
 	 *
@@ -156,11 +403,21 @@ public class MrzParser {
 	 * @throws MrzParseException could not parse range
 	 */
 	public boolean hasValidCharacters(final MrzRange range) throws MrzParseException {
-		final String str = rawValue(range);
-		for (int i = 0; i < str.length(); i++) {
-			final char c = str.charAt(i);
+		return hasValidCharacters(range.getColumn(), range.getColumnTo(), range.getRow());
+	}
+
+	/**
+	 * Checks that given columns contain valid characters, see {@link #hasValidCharacters(MrzRange)}.
+	 */
+	boolean hasValidCharacters(final int column, final int columnTo, final int row) throws MrzParseException {
+		final int base = rowOffsets[row];
+		for (int i = base + column; i < base + columnTo; i++) {
+			final char c = source.charAt(i);
 			if (c != FILLER && (c < '0' || c > '9') && (c < 'A' || c > 'Z')) {
-				System.out.println("Invalid character in MRZ record: " + c + " " + getMrz());
+				if (diagnostics != MrzDiagnostics.NONE) {
+					final int col = i - base;
+					diagnostics.report(MrzDiagnosticReason.INVALID_CHARACTER, null, new MrzRange(col, col + 1, row), MrzDiagnostics.NO_CHARACTER, c);
+				}
 				return false;
 			}
 		}
@@ -175,12 +432,45 @@ public class MrzParser {
 	 * @throws MrzParseException could not parse range
 	 */
 	public String parseString(final MrzRange range) throws MrzParseException {
-		hasValidCharacters(range);
-		String str = rawValue(range);
-		while (str.endsWith("<")) {
-			str = str.substring(0, str.length() - 1);
+		return parseString(range.getColumn(), range.getColumnTo(), range.getRow());
+	}
+
+	/**
+	 * Parses a string in given columns, see {@link #parseString(MrzRange)}.
+	 */
+	String parseString(final int column, final int columnTo, final int row) throws MrzParseException {
+		hasValidCharacters(column, columnTo, row);
+		return decodeString(column, trimFillers(column, columnTo, row), row);
+	}
+
+	/**
+	 * Finds the end of given row part without the trailing fillers.
+	 */
+	private int trimFillers(final int col, final int colTo, final int row) {
+		int end = colTo;
+		while (end > col && charAt(end - 1, row) == FILLER) {
+			end--;
 		}
-		return str.replace("" + FILLER + FILLER, ", ").replace(FILLER, ' ');
+		return end;
+	}
+
+	/**
+	 * Decodes given row part, &lt;&lt; are replaced with ", ", &lt; is replaced by space.
+	 */
+	private String decodeString(final int col, final int colTo, final int row) {
+		final StringBuilder sb = new StringBuilder(colTo - col + 1);
+		for (int i = col; i < colTo; i++) {
+			final char c = charAt(i, row);
+			if (c != FILLER) {
+				sb.append(c);
+			} else if (i + 1 < colTo && charAt(i + 1, row) == FILLER) {
+				sb.append(", ");
+				i++;
+			} else {
+				sb.append(' ');
+			}
+		}
+		return sb.toString();
 	}
 
 	/**
@@ -189,11 +479,24 @@ public class MrzParser {
 	 * @param col the 0-based column of the check digit.
 	 * @param row the 0-based column of the check digit.
 	 * @param strRange the range for which the check digit is computed.
-	 * @param fieldName (optional) field name. Used only when validity check fails.
+	 * @param field (optional) the field of the check digit, {@link MrzField#COMPOSITE} for the composite. Used only when validity check fails.
+	 * @return true if check digit is valid, false if not
+	 */
+	public boolean checkDigit(final int col, final int row, final MrzRange strRange, final MrzField field) {
+		return checkDigit(col, row, computeCheckDigit(strRange), field);
+	}
+
+	/**
+	 * Verifies the check digit computed over several ranges, e.g. the composite check digit.
+	 *
+	 * @param col the 0-based column of the check digit.
+	 * @param row the 0-based column of the check digit.
+	 * @param strRanges the ranges for which the check digit is computed, in order.
+	 * @param field (optional) the field of the check digit, {@link MrzField#COMPOSITE} for the composite. Used only when validity check fails.
 	 * @return true if check digit is valid, false if not
 	 */
-	public boolean checkDigit(final int col, final int row, final MrzRange strRange, final String fieldName) {
-		return checkDigit(col, row, rawValue(strRange), fieldName);
+	public boolean checkDigit(final int col, final int row, final List<MrzRange> strRanges, final MrzField field) {
+		return checkDigit(col, row, computeCheckDigit(strRanges), field);
 	}
 
 	/**
@@ -202,24 +505,64 @@ public class MrzParser {
 	 * @param col the 0-based column of the check digit.
 	 * @param row the 0-based column of the check digit.
 	 * @param str the raw MRZ substring.
-	 * @param fieldName (optional) field name. Used only when validity check fails.
+	 * @param field (optional) the field of the check digit, {@link MrzField#COMPOSITE} for the composite. Used only when validity check fails.
 	 * @return true if check digit is valid, false if not
 	 */
-	public boolean checkDigit(final int col, final int row, final String str, final String fieldName) {
-
-		// If the check digit validation fails, this will contain the location.
-		MrzRange invalidCheckdigit = null;
+	public boolean checkDigit(final int col, final int row, final String str, final MrzField field) {
+		return checkDigit(col, row, computeCheckDigit(str), field);
+	}
 
-		final char digit = (char) (computeCheckDigit(str) + '0');
-		char checkDigit = getRows()[row].charAt(col);
+	/**
+	 * Verifies the check digit against an already computed value.
+	 *
+	 * @param col the 0-based column of the check digit.
+	 * @param row the 0-based column of the check digit.
+	 * @param expected the expected check digit, 0..9.
+	 * @param field (optional) the field of the check digit, {@link MrzField#COMPOSITE} for the composite. Used only when validity check fails.
+	 * @return true if check digit is valid, false if not
+	 */
+	public boolean checkDigit(final int col, final int row, final int expected, final MrzField field) {
+		final char digit = (char) (expected + '0');
+		char checkDigit = charAt(col, row);
 		if (checkDigit == FILLER) {
 			checkDigit = '0';
 		}
 		if (digit != checkDigit) {
-			invalidCheckdigit = new MrzRange(col, col + 1, row);
-			System.out.println("Check digit verification failed for " + fieldName + ": expected " + digit + " but got " + checkDigit);
+			if (diagnostics != MrzDiagnostics.NONE) {
+				diagnostics.report(MrzDiagnosticReason.CHECK_DIGIT_MISMATCH, field, new MrzRange(col, col + 1, row), digit, checkDigit);
+			}
+			return false;
 		}
-		return invalidCheckdigit == null;
+		return true;
+	}
+
+	/**
+	 * Computes the check digits of all fields of the format layout and the composite check digit in a single pass over the MRZ.
+	 *
+	 * @param digits receives the computed check digit of every field of the {@link MrzFormat#getLayout() layout},
+	 * {@link MrzLayout#NO_CHECK_DIGIT} for fields without check digit. Must hold at least {@link MrzLayout#size()} items.
+	 * @return the computed composite check digit, {@link MrzLayout#NO_CHECK_DIGIT} if the format has none.
+	 * @throws IllegalArgumentException if a checked character is not valid in MRZ.
+	 */
+	public int computeCheckDigits(final int[] digits) {
+		return MrzCheckDigit.computeAll(source, rowOffsets, format.getLayout(), digits);
+	}
+
+	private int computeCheckDigit(final MrzRange range) {
+		final int base = rowOffsets[range.getRow()];
+		return MrzCheckDigit.compute(source, base + range.getColumn(), base + range.getColumnTo());
+	}
+
+	private int computeCheckDigit(final List<MrzRange> ranges) {
+		int result = 0;
+		int position = 0;
+		for (int i = 0; i < ranges.size(); i++) {
+			final MrzRange range = ranges.get(i);
+			final int base = rowOffsets[range.getRow()];
+			result += MrzCheckDigit.weightedSum(source, base + range.getColumn(), base + range.getColumnTo(), position);
+			position += range.length();
+		}
+		return result % 10;
 	}
 
 	/**
@@ -233,55 +576,43 @@ public class MrzParser {
 		if (range.length() != 6) {
 			throw new IllegalArgumentException("Parameter range: invalid value " + range + ": must be 6 characters long");
 		}
-		int year = parseYear(range);
-		int month = parseMonth(range);
-		int day = parseDay(range);
-		return new MrzDate(year, month, day, rawValue(range));
+		return parseDate(range.getColumn(), range.getRow());
 	}
 
-	private int parseYear(final MrzRange range) {
-		int year;
-		MrzRange r = new MrzRange(range.getColumn(), range.getColumn() + 2, range.getRow());
-		try {
-			year = Integer.parseInt(rawValue(r));
-		} catch (NumberFormatException ex) {
-			year = -1;
-			System.out.println("Failed to parse MRZ date year " + rawValue(range) + ": " + ex);
-		}
-		if (year < 0 || year > 99) {
-			System.out.println("Invalid year value " + year + ": must be 0..99");
-		}
-		return year;
+	/**
+	 * Parses the MRZ date starting at given column, see {@link #parseDate(MrzRange)}.
+	 */
+	MrzDate parseDate(final int column, final int row) {
+		final int year = parseDatePart(column, row, 0, 99);
+		final int month = parseDatePart(column + 2, row, 1, 12);
+		final int day = parseDatePart(column + 4, row, 1, 31);
+		return new MrzDate(year, month, day, rawValue(column, column + 6, row));
 	}
 
-	private int parseMonth(final MrzRange range) {
-		int month;
-		MrzRange r = new MrzRange(range.getColumn() + 2, range.getColumn() + 4, range.getRow());
-		try {
-			month = Integer.parseInt(rawValue(r));
-		} catch (NumberFormatException ex) {
-			month = -1;
-			System.out.println("Failed to parse MRZ date month " + rawValue(range) + ": " + ex);
-		}
-		if (month < 1 || month > 12) {
-			System.out.println("Invalid month value " + month + ": must be 1..12");
+	/**
+	 * Parses the two digits at given column of a date, reporting unparseable and out of range values.
+	 */
+	private int parseDatePart(final int col, final int row, final int min, final int max) {
+		final int value = parseTwoDigits(col, row);
+		if ((value < min || value > max) && diagnostics != MrzDiagnostics.NONE) {
+			final MrzDiagnosticReason reason = value < 0 ? MrzDiagnosticReason.UNPARSEABLE_DATE : MrzDiagnosticReason.DATE_OUT_OF_RANGE;
+			diagnostics.report(reason, null, new MrzRange(col, col + 2, row), MrzDiagnostics.NO_CHARACTER, MrzDiagnostics.NO_CHARACTER);
 		}
-		return month;
+		return value;
 	}
 
-	private int parseDay(final MrzRange range) {
-		int day;
-		MrzRange r = new MrzRange(range.getColumn() + 4, range.getColumn() + 6, range.getRow());
-		try {
-			day = Integer.parseInt(rawValue(r));
-		} catch (NumberFormatException ex) {
-			day = -1;
-			System.out.println("Failed to parse MRZ date day " + rawValue(range) + ": " + ex);
-		}
-		if (day < 1 || day > 31) {
-			System.out.println("Invalid day value " + day + ": must be 1..31");
+	/**
+	 * Parses a two digit number.
+	 *
+	 * @return the number, -1 if the characters are not digits.
+	 */
+	private int parseTwoDigits(final int col, final int row) {
+		final int tens = charAt(col, row) - '0';
+		final int ones = charAt(col + 1, row) - '0';
+		if (tens < 0 || tens > 9 || ones < 0 || ones > 9) {
+			return -1;
 		}
-		return day;
+		return tens * 10 + ones;
 	}
 
 	/**
@@ -292,7 +623,7 @@ public class MrzParser {
 	 * @return sex, never null.
 	 */
 	public MrzSex parseSex(final int col, final int row) {
-		return MrzSex.fromMrz(getRows()[row].charAt(col));
+		return MrzSex.fromMrz(charAt(col, row));
 	}
 
 	/**
@@ -302,20 +633,18 @@ public class MrzParser {
 	 * @return true if the character is valid, false otherwise.
 	 */
 	private static boolean isValid(final char c) {
-		return (c == FILLER) || (c >= '0' && c <= '9') || (c >= 'A' && c <= 'Z');
+		return MrzCheckDigit.isValid(c);
 	}
 
-	private static int getCharacterValue(final char c) {
-		if (c == FILLER) {
-			return 0;
-		}
-		if (c >= '0' && c <= '9') {
-			return c - '0';
-		}
-		if (c >= 'A' && c <= 'Z') {
-			return c - 'A' + 10;
-		}
-		throw new IllegalArgumentException("Invalid character in MRZ record: " + c);
+	/**
+	 * Returns the value of given character in the check digit computation.
+	 *
+	 * @param c the MRZ character.
+	 * @return 0 for the filler, 0..9 for digits and 10..35 for letters.
+	 * @throws IllegalArgumentException if the character is not valid in MRZ.
+	 */
+	public static int getCharacterValue(final char c) {
+		return MrzCheckDigit.valueOf(c);
 	}
 
 	/**
@@ -327,11 +656,7 @@ public class MrzParser {
 	 * part 15 for details.
 	 */
 	public static int computeCheckDigit(final String str) {
-		int result = 0;
-		for (int i = 0; i < str.length(); i++) {
-			result += getCharacterValue(str.charAt(i)) * MRZ_WEIGHTS[i % MRZ_WEIGHTS.length];
-		}
-		return result % 10;
+		return MrzCheckDigit.compute(str);
 	}
 
 	/**
@@ -354,11 +679,301 @@ public class MrzParser {
 	 * @throws MrzParseException could not parse MRZ
 	 */
 	public static MrzRecord parse(final String mrz) throws MrzParseException {
-		final MrzRecord result = MrzFormat.get(mrz).newRecord();
-		result.fromMrz(mrz);
+		return parse(mrz, 0, mrz.length());
+	}
+
+	/**
+	 * Factory method, which parses the MRZ stored in given part of a character buffer and returns appropriate record class. The rows are located
+	 * once and all fields are decoded directly from the buffer.
+	 *
+	 * @param mrz the buffer containing the MRZ, rows separated by \n or \r\n.
+	 * @param offset index of the first MRZ character.
+	 * @param length number of MRZ characters.
+	 * @return record class.
+	 * @throws MrzParseException could not parse MRZ
+	 */
+	public static MrzRecord parse(final CharSequence mrz, final int offset, final int length) throws MrzParseException {
+		final MrzParser parser = new MrzParser(mrz, offset, length);
+		final MrzRecord result = parser.getFormat().newRecord();
+		result.fromMrz(parser);
+		return result;
+	}
+
+	/**
+	 * Factory method, which parses only the given fields of the MRZ and returns appropriate record class, see
+	 * {@link MrzRecord#fromMrz(MrzParser, java.util.Set)}. Fields not requested are left null and their check digits are not verified: their
+	 * validity getters like {@link MrzRecord#isValidDocumentNumber()} keep their default, true (false for the personal number of
+	 * {@link com.github.rarspace01.mrz.records.MRP} and {@link com.github.rarspace01.mrz.records.PTD}), which says nothing about the MRZ.
+	 * Request every field whose check digit matters, e.g. all the fields a key is derived from.
+	 *
+	 * @param mrz MRZ to parse.
+	 * @param fields the fields to decode, not null.
+	 * @return record class.
+	 * @throws MrzParseException could not parse MRZ
+	 */
+	public static MrzRecord parse(final CharSequence mrz, final EnumSet<MrzField> fields) throws MrzParseException {
+		final MrzParser parser = new MrzParser(mrz, 0, mrz.length());
+		final MrzRecord result = parser.getFormat().newRecord();
+		result.fromMrz(parser, fields);
 		return result;
 	}
 
+	/**
+	 * Factory method, which parses the MRZ stored in given part of a character array and returns appropriate record class. The array is not copied.
+	 *
+	 * @param mrz the array containing the MRZ, rows separated by \n or \r\n.
+	 * @param offset index of the first MRZ character.
+	 * @param length number of MRZ characters.
+	 * @return record class.
+	 * @throws MrzParseException could not parse MRZ
+	 */
+	public static MrzRecord parse(final char[] mrz, final int offset, final int length) throws MrzParseException {
+		return parse(CharBuffer.wrap(mrz), offset, length);
+	}
+
+	/**
+	 * Factory method which only detects the format and checks the characters of the MRZ; the fields are decoded and their check digits
+	 * verified when first read from the returned record.
+	 *
+	 * @param mrz MRZ to parse, copied.
+	 * @return the lazy record.
+	 * @throws MrzParseException if the MRZ is malformed, of unknown format, has a forbidden document code or invalid characters.
+	 */
+	public static LazyMrzRecord parseLazy(final CharSequence mrz) throws MrzParseException {
+		final String copy = mrz.toString();
+		final MrzParser parser = MrzParser.locate(copy, 0, copy.length());
+		final ParseResult failure = parser.checkRecord(0);
+		if (failure != null) {
+			failure.getRecordOrThrow();
+		}
+		return new LazyMrzRecord(parser);
+	}
+
+	/**
+	 * Parses the MRZ without throwing: malformed records, unknown formats, forbidden document codes and invalid characters are reported as a
+	 * failed {@link ParseResult}, no exception is created.
+	 *
+	 * @param mrz MRZ to parse, not copied: the result reads it on demand, see {@link ParseResult}.
+	 * @return the record or the failure, never null.
+	 */
+	public static ParseResult tryParse(final CharSequence mrz) {
+		return tryParse(mrz, 0, mrz.length());
+	}
+
+	/**
+	 * Parses the MRZ stored in given part of a character buffer without throwing, see {@link #tryParse(CharSequence)}.
+	 *
+	 * @param mrz the buffer containing the MRZ record.
+	 * @param offset index of the first MRZ character.
+	 * @param length number of MRZ characters.
+	 * @return the record or the failure, never null.
+	 */
+	public static ParseResult tryParse(final CharSequence mrz, final int offset, final int length) {
+		return tryParse(mrz, offset, length, MrzDiagnostics.NONE);
+	}
+
+	/**
+	 * Parses the MRZ stored in given part of a character buffer without throwing, see {@link #tryParse(CharSequence)}, reporting the problems
+	 * which do not fail the parse to given diagnostics. With a {@link CollectingMrzDiagnostics} they are available in
+	 * {@link ParseResult#getDiagnostics()}.
+	 *
+	 * @param mrz the buffer containing the MRZ record.
+	 * @param offset index of the first MRZ character.
+	 * @param length number of MRZ characters.
+	 * @param diagnostics receives the problems, not null.
+	 * @return the record or the failure, never null.
+	 */
+	public static ParseResult tryParse(final CharSequence mrz, final int offset, final int length, final MrzDiagnostics diagnostics) {
+		return tryParse(mrz, offset, length, diagnostics, offset);
+	}
+
+	/**
+	 * Parses without throwing, see {@link #tryParse(CharSequence, int, int, MrzDiagnostics)}.
+	 *
+	 * @param position the position of the record reported by {@link ParseResult#getOffset()}, e.g. its offset in a stream.
+	 */
+	static ParseResult tryParse(final CharSequence mrz, final int offset, final int length, final MrzDiagnostics diagnostics, final long position) {
+		if (diagnostics instanceof CollectingMrzDiagnostics) {
+			// the collector may be shared by many parses, e.g. of a stream: give the result only its own diagnostics
+			final CollectingMrzDiagnostics collector = (CollectingMrzDiagnostics) diagnostics;
+			final int from = collector.getDiagnostics().size();
+			final ParseResult result = decode(mrz, offset, length, diagnostics, position);
+			result.setDiagnostics(collector.getDiagnostics().subList(from, collector.getDiagnostics().size()));
+			return result;
+		}
+		return decode(mrz, offset, length, diagnostics, position);
+	}
+
+	private static ParseResult decode(final CharSequence mrz, final int offset, final int length, final MrzDiagnostics diagnostics, final long position) {
+		final MrzParser parser = new MrzParser(mrz, offset, length, diagnostics);
+		final ParseResult failure = parser.checkRecord(position);
+		if (failure != null) {
+			return failure;
+		}
+		final MrzRecord record = parser.format.newRecord();
+		try {
+			record.fromMrz(parser);
+		} catch (MrzParseException ex) {
+			// not expected, the document code was verified above
+			return ParseResult.failure(parser, position, MrzParseFailure.DOCUMENT_CODE_NOT_ALLOWED, ex.getRange());
+		}
+		return ParseResult.success(parser, position, record);
+	}
+
+	/**
+	 * @return the range of the first character beyond ISO-8859-1, null if there is none. Fields without check digit, like the names, may
+	 * hold any character, which storage in bytes cannot keep.
+	 */
+	MrzRange findBeyondLatin1() {
+		for (int row = 0; row < getRowCount(); row++) {
+			for (int col = 0; col < getColumns(); col++) {
+				if (charAt(col, row) > 0xFF) {
+					return new MrzRange(col, col + 1, row);
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Checks what {@link #tryParse(CharSequence)} rejects: rows of different lengths, unknown format, forbidden document code and invalid
+	 * characters.
+	 *
+	 * @param position the position of the record reported by {@link ParseResult#getOffset()}.
+	 * @return the failure, null if the record can be decoded.
+	 */
+	ParseResult checkRecord(final long position) {
+		if (mismatchedRow >= 0) {
+			return ParseResult.failure(this, position, MrzParseFailure.DIFFERENT_ROW_LENGTHS, new MrzRange(0, mismatchedRowLength, mismatchedRow));
+		}
+		if (format == null) {
+			return ParseResult.failure(this, position, MrzParseFailure.UNKNOWN_FORMAT, new MrzRange(0, 0, 0));
+		}
+		if (charAt(0, 0) == 'I' && charAt(1, 0) == 'V') {
+			return ParseResult.failure(this, position, MrzParseFailure.DOCUMENT_CODE_NOT_ALLOWED, new MrzRange(0, 2, 0));
+		}
+		final MrzRange invalid = MrzCheckDigit.findInvalidCharacters(source, rowOffsets, format.getLayout());
+		if (invalid != null) {
+			return ParseResult.failure(this, position, MrzParseFailure.INVALID_CHARACTER, invalid);
+		}
+		return null;
+	}
+
+	/**
+	 * Decodes one field like {@link MrzRecord#fromMrz(MrzParser)}. Surname and given names are taken from the {@link MrzField#NAMES} field
+	 * in formats that have one.
+	 *
+	 * @param field the field
+	 * @return the decoded field, null if the format does not contain it.
+	 * @throws MrzParseException could not parse the field
+	 */
+	Object decodeField(final MrzField field) throws MrzParseException {
+		final MrzLayout layout = format.getLayout();
+		final boolean name = field == MrzField.SURNAME || field == MrzField.GIVEN_NAMES;
+		final int index = layout.indexOf(name && layout.indexOf(MrzField.NAMES) >= 0 ? MrzField.NAMES : field);
+		if (index < 0) {
+			return null;
+		}
+		final MrzRange range = layout.getRange(index);
+		switch (layout.getField(index)) {
+			case NAMES:
+				return parseName(range)[field == MrzField.SURNAME ? 0 : 1];
+			case DATE_OF_BIRTH:
+			case EXPIRATION_DATE:
+				return parseDate(range);
+			case SEX:
+				return parseSex(range.getColumn(), range.getRow());
+			default:
+				return parseString(range);
+		}
+	}
+
+	/**
+	 * Parses the MRZ stored in given part of a character array without throwing, see {@link #tryParse(CharSequence)}.
+	 *
+	 * @param mrz the array containing the MRZ record, not copied: the result reads it on demand, see {@link ParseResult}.
+	 * @param offset index of the first MRZ character.
+	 * @param length number of MRZ characters.
+	 * @return the record or the failure, never null.
+	 */
+	public static ParseResult tryParse(final char[] mrz, final int offset, final int length) {
+		return tryParse(CharBuffer.wrap(mrz), offset, length);
+	}
+
+	/**
+	 * Parses a batch of MRZ records in parallel on the common {@link ForkJoinPool}, see {@link #parseAll(Spliterator, Executor)}.
+	 *
+	 * @param mrzs the records to parse, not null.
+	 * @return the results in the order of the records.
+	 */
+	public static ParseResult[] parseAll(final List<? extends CharSequence> mrzs) {
+		return parseAll(mrzs, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Parses a batch of MRZ records in parallel on given executor, see {@link #parseAll(Spliterator, Executor)}.
+	 *
+	 * @param mrzs the records to parse, not null.
+	 * @param executor runs the parse tasks.
+	 * @return the results in the order of the records.
+	 */
+	public static ParseResult[] parseAll(final List<? extends CharSequence> mrzs, final Executor executor) {
+		return parseAll(mrzs.spliterator(), executor);
+	}
+
+	/**
+	 * Parses MRZ records in parallel: the spliterator is split into batches which are parsed with {@link #tryParse(CharSequence)} on given
+	 * executor, the last batch on the calling thread. A malformed record fails its own {@link ParseResult} and does not abort the others.
+	 *
+	 * @param mrzs the records to parse, none of them null.
+	 * @param executor runs the parse tasks.
+	 * @return the results in the encounter order of the records.
+	 */
+	public static ParseResult[] parseAll(final Spliterator<? extends CharSequence> mrzs, final Executor executor) {
+		final List<Spliterator<? extends CharSequence>> batches = new ArrayList<>();
+		split(mrzs, batches);
+		final List<CompletableFuture<List<ParseResult>>> tasks = new ArrayList<>(batches.size() - 1);
+		for (int i = 0; i < batches.size() - 1; i++) {
+			final Spliterator<? extends CharSequence> batch = batches.get(i);
+			tasks.add(CompletableFuture.supplyAsync(() -> tryParseAll(batch), executor));
+		}
+		final List<ParseResult> last = tryParseAll(batches.get(batches.size() - 1));
+		final List<ParseResult> results = new ArrayList<>();
+		try {
+			for (final CompletableFuture<List<ParseResult>> task : tasks) {
+				results.addAll(task.join());
+			}
+		} catch (CompletionException ex) {
+			if (ex.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) ex.getCause();
+			}
+			throw ex;
+		}
+		results.addAll(last);
+		return results.toArray(new ParseResult[0]);
+	}
+
+	/**
+	 * Splits the spliterator into batches of about {@link #PARSE_ALL_BATCH_SIZE} records, in encounter order.
+	 */
+	private static void split(final Spliterator<? extends CharSequence> mrzs, final List<Spliterator<? extends CharSequence>> batches) {
+		if (mrzs.estimateSize() > PARSE_ALL_BATCH_SIZE) {
+			final Spliterator<? extends CharSequence> prefix = mrzs.trySplit();
+			if (prefix != null) {
+				split(prefix, batches);
+				split(mrzs, batches);
+				return;
+			}
+		}
+		batches.add(mrzs);
+	}
+
+	private static List<ParseResult> tryParseAll(final Spliterator<? extends CharSequence> mrzs) {
+		final List<ParseResult> results = new ArrayList<>((int) Math.min(mrzs.estimateSize(), PARSE_ALL_BATCH_SIZE * 2));
+		mrzs.forEachRemaining(mrz -> results.add(tryParse(mrz)));
+		return results;
+	}
+
 	/**
 	 * Converts given string to a MRZ string: removes all accents, converts the string to upper-case and replaces all spaces and invalid characters
 	 * with '&lt;'.
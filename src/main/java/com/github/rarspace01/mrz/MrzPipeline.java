@@ -0,0 +1,469 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import com.github.rarspace01.mrz.types.MrzFormat;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Staged MRZ pipeline for OCR text, e.g. from camera frames: find the MRZ lines, normalise them, parse and validate the check digits.
+ * <p>
+ * The stages run on their own threads and hand the frames over through a ring buffer of preallocated slots: {@link #publish(String)}
+ * fills the next slot from the single producer thread, every stage processes the slots its predecessor has finished and the last one
+ * passes them to the handler. No queue nodes are allocated and idle threads wait with the configured {@link WaitStrategy}.
+ * </p>
+ * <ul>
+ * <li>find: the MRZ lines of the longest known format, like {@link MrzFinderUtil#findAll(CharSequence)} but tolerating lower case letters,
+ * spaces and '«' for fillers</li>
+ * <li>normalize: the rows in upper case with '&lt;' fillers, separated by '\n'</li>
+ * <li>parse: {@link MrzParser#tryParse(CharSequence)}</li>
+ * <li>validate: {@link MrzValidator#validate(CharSequence)}</li>
+ * </ul>
+ */
+public class MrzPipeline implements Closeable {
+
+	/**
+	 * Default number of slots.
+	 */
+	public static final int DEFAULT_CAPACITY = 64;
+
+	private static final int MAX_ROWS = 3;
+	private static final int MIN_COLUMNS = 30;
+	private static final int MAX_COLUMNS = 44;
+
+	/**
+	 * How an idle stage or a producer facing a full ring waits.
+	 */
+	public enum WaitStrategy {
+		/**
+		 * Spins on the CPU, lowest latency, burns a core per stage.
+		 */
+		BUSY_SPIN {
+			@Override
+			void idle() {
+				Thread.onSpinWait();
+			}
+		},
+		/**
+		 * Yields the CPU to other threads between checks.
+		 */
+		YIELD {
+			@Override
+			void idle() {
+				Thread.yield();
+			}
+		},
+		/**
+		 * Parks the thread for {@link #PARK_NANOS} between checks, no CPU use when idle.
+		 */
+		PARK {
+			@Override
+			void idle() {
+				LockSupport.parkNanos(PARK_NANOS);
+			}
+		};
+
+		/**
+		 * Time a parked thread sleeps between two checks.
+		 */
+		public static final long PARK_NANOS = 50_000;
+
+		abstract void idle();
+	}
+
+	/**
+	 * A processed frame. Only valid during the handler call, the slot is reused afterwards; the {@link #getResult() result} may be kept.
+	 */
+	public interface Event {
+
+		/**
+		 * @return the number of the frame, starting at 0.
+		 */
+		long getSequence();
+
+		/**
+		 * @return the published OCR text.
+		 */
+		String getInput();
+
+		/**
+		 * @return the normalised MRZ, empty if none was found.
+		 */
+		CharSequence getMrz();
+
+		/**
+		 * @return the parse result, null if no MRZ was found. It parses a copy of the MRZ and stays valid after the handler call.
+		 */
+		ParseResult getResult();
+
+		/**
+		 * @return the {@link MrzValidator#validate(CharSequence)} result, {@link MrzValidator#INVALID} if no MRZ was found.
+		 */
+		int getValidation();
+	}
+
+	private final Slot[] slots;
+	private final int mask;
+	private final WaitStrategy waitStrategy;
+	private final Consumer<? super Event> handler;
+	/**
+	 * Sequence of the last published slot.
+	 */
+	private final AtomicLong cursor = new AtomicLong(-1);
+	/**
+	 * Sequence of the last slot processed by each stage.
+	 */
+	private final AtomicLong[] stageSequences = new AtomicLong[Stage.values().length];
+	private final Thread[] threads = new Thread[Stage.values().length];
+	private volatile boolean running = true;
+	private volatile RuntimeException handlerFailure;
+	/**
+	 * Sequence of the next slot to publish, only used by the producer thread.
+	 */
+	private long next;
+
+	/**
+	 * Creates the pipeline and starts the stage threads.
+	 *
+	 * @param capacity number of slots, a power of two
+	 * @param waitStrategy how idle threads wait
+	 * @param handler receives the frames in publishing order on the validate thread
+	 */
+	public MrzPipeline(final int capacity, final WaitStrategy waitStrategy, final Consumer<? super Event> handler) {
+		if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+			throw new IllegalArgumentException("Parameter capacity: invalid value " + capacity + ": must be a power of two");
+		}
+		this.slots = new Slot[capacity];
+		for (int i = 0; i < capacity; i++) {
+			slots[i] = new Slot();
+		}
+		this.mask = capacity - 1;
+		this.waitStrategy = waitStrategy;
+		this.handler = handler;
+		for (final Stage stage : Stage.values()) {
+			stageSequences[stage.ordinal()] = new AtomicLong(-1);
+		}
+		for (final Stage stage : Stage.values()) {
+			final Thread thread = new Thread(() -> run(stage), "mrz-pipeline-" + stage.name().toLowerCase());
+			thread.setDaemon(true);
+			threads[stage.ordinal()] = thread;
+			thread.start();
+		}
+	}
+
+	/**
+	 * Publishes a frame, waiting while all slots are in use. Must always be called from the same thread.
+	 *
+	 * @param input the OCR text
+	 */
+	public void publish(final String input) {
+		if (!running) {
+			throw new IllegalStateException("The pipeline is closed");
+		}
+		final long sequence = next++;
+		final AtomicLong last = stageSequences[stageSequences.length - 1];
+		while (sequence - slots.length > last.get()) {
+			waitStrategy.idle();
+		}
+		slots[(int) sequence & mask].input = input;
+		cursor.set(sequence);
+	}
+
+	/**
+	 * Waits until all published frames have been handled and stops the stage threads. Must be called from the producer thread.
+	 *
+	 * @throws IllegalStateException if the handler threw, with the first exception as the cause.
+	 */
+	@Override
+	public void close() {
+		if (running) {
+			final AtomicLong last = stageSequences[stageSequences.length - 1];
+			while (last.get() < cursor.get()) {
+				waitStrategy.idle();
+			}
+			running = false;
+			for (final Thread thread : threads) {
+				try {
+					thread.join();
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
+		}
+		if (handlerFailure != null) {
+			throw new IllegalStateException("The pipeline handler failed", handlerFailure);
+		}
+	}
+
+	private void run(final Stage stage) {
+		final AtomicLong barrier = stage.ordinal() == 0 ? cursor : stageSequences[stage.ordinal() - 1];
+		final AtomicLong own = stageSequences[stage.ordinal()];
+		long sequence = own.get();
+		while (true) {
+			final long available = barrier.get();
+			if (available > sequence) {
+				// process everything the previous stage has finished in one go
+				while (sequence < available) {
+					sequence++;
+					process(stage, slots[(int) sequence & mask], sequence);
+				}
+				own.lazySet(sequence);
+			} else if (!running) {
+				return;
+			} else {
+				waitStrategy.idle();
+			}
+		}
+	}
+
+	private void process(final Stage stage, final Slot slot, final long sequence) {
+		switch (stage) {
+			case FIND:
+				slot.sequence = sequence;
+				slot.find();
+				break;
+			case NORMALIZE:
+				slot.normalize();
+				break;
+			case PARSE:
+				// the result reads its MRZ lazily: parse a copy, the buffer is reused by the next frame in the slot
+				slot.result = slot.rows == 0 ? null : MrzParser.tryParse(slot.mrz.toString());
+				break;
+			case VALIDATE:
+				slot.validation = slot.rows == 0 ? MrzValidator.INVALID : MrzValidator.validate(slot.mrz);
+				try {
+					handler.accept(slot);
+				} catch (RuntimeException ex) {
+					if (handlerFailure == null) {
+						handlerFailure = ex;
+					}
+				}
+				slot.input = null;
+				slot.normalized.text = null;
+				slot.result = null;
+				break;
+			default:
+				throw new IllegalStateException("Unsupported stage " + stage);
+		}
+	}
+
+	/**
+	 * The stages in processing order.
+	 */
+	private enum Stage {
+		FIND, NORMALIZE, PARSE, VALIDATE
+	}
+
+	/**
+	 * @return the character with lower case letters in upper case and spaces and '«' replaced by fillers.
+	 */
+	static char normalize(final char c) {
+		if (c >= 'a' && c <= 'z') {
+			return (char) (c - 'a' + 'A');
+		}
+		return c == ' ' || c == '«' ? MrzParser.FILLER : c;
+	}
+
+	private static boolean isMrzChar(final char c) {
+		return (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == MrzParser.FILLER;
+	}
+
+	private static boolean isMrzLine(final String input, final int start, final int end) {
+		if (end - start < MIN_COLUMNS || end - start > MAX_COLUMNS) {
+			return false;
+		}
+		for (int i = start; i < end; i++) {
+			if (!isMrzChar(normalize(input.charAt(i)))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Same rule as {@link MrzFinderUtil}: a document code, a country code or "D&lt;&lt;", then MRZ characters.
+	 */
+	private static boolean isFirstLine(final String input, final int start, final int end) {
+		if (!isMrzLine(input, start, end) || "P|VACI".indexOf(normalize(input.charAt(start))) < 0) {
+			return false;
+		}
+		final char c2 = normalize(input.charAt(start + 2));
+		final char c3 = normalize(input.charAt(start + 3));
+		final char c4 = normalize(input.charAt(start + 4));
+		final boolean country = c2 >= 'A' && c2 <= 'Z' && c3 >= 'A' && c3 <= 'Z' && c4 >= 'A' && c4 <= 'Z';
+		return country || (c2 == 'D' && c3 == MrzParser.FILLER && c4 == MrzParser.FILLER);
+	}
+
+	/**
+	 * A preallocated ring buffer entry.
+	 */
+	private static final class Slot implements Event {
+
+		private long sequence;
+		private String input;
+		private final int[] rowStarts = new int[MAX_ROWS];
+		private final int[] rowEnds = new int[MAX_ROWS];
+		private int rows;
+		private final NormalizedText normalized = new NormalizedText();
+		private final StringBuilder mrz = new StringBuilder(MAX_ROWS * (MAX_COLUMNS + 1));
+		private ParseResult result;
+		private int validation;
+
+		/**
+		 * Locates the trimmed MRZ lines in the input like {@link MrzFinderUtil#findAll(CharSequence)}: a first line and the following lines
+		 * of the same length, blank lines between them skipped, which form the longest known format. A first line which starts no known
+		 * format is skipped.
+		 */
+		void find() {
+			rows = 0;
+			final String text = input;
+			if (text == null) {
+				return;
+			}
+			normalized.text = text;
+			int lineStart = 0;
+			while (lineStart <= text.length()) {
+				int lineEnd = lineEnd(text, lineStart);
+				final int next = lineEnd + 1;
+				if (trim(0, lineStart, lineEnd) && isFirstLine(text, rowStarts[0], rowEnds[0])) {
+					final int columns = rowEnds[0] - rowStarts[0];
+					int count = 1;
+					for (lineStart = next; lineStart <= text.length() && count < MAX_ROWS; lineStart = lineEnd + 1) {
+						lineEnd = lineEnd(text, lineStart);
+						if (trim(count, lineStart, lineEnd)) {
+							if (rowEnds[count] - rowStarts[count] != columns || !isMrzLine(text, rowStarts[count], rowEnds[count])) {
+								break;
+							}
+							count++;
+						}
+					}
+					for (; count > 0; count--) {
+						if (MrzFormat.find(normalized, rowStarts[0], count > 1 ? rowStarts[1] : rowStarts[0], count, columns) != null) {
+							rows = count;
+							return;
+						}
+					}
+				}
+				lineStart = next;
+			}
+		}
+
+		private static int lineEnd(final String text, final int lineStart) {
+			final int lineEnd = text.indexOf('\n', lineStart);
+			return lineEnd < 0 ? text.length() : lineEnd;
+		}
+
+		/**
+		 * Stores the line without surrounding white space as given row.
+		 *
+		 * @return false if the line is blank.
+		 */
+		private boolean trim(final int row, final int lineStart, final int lineEnd) {
+			int start = lineStart;
+			int end = lineEnd;
+			while (start < end && input.charAt(start) <= ' ') {
+				start++;
+			}
+			while (end > start && input.charAt(end - 1) <= ' ') {
+				end--;
+			}
+			rowStarts[row] = start;
+			rowEnds[row] = end;
+			return start < end;
+		}
+
+		/**
+		 * Copies the found rows into the reused MRZ buffer.
+		 */
+		void normalize() {
+			mrz.setLength(0);
+			for (int row = 0; row < rows; row++) {
+				if (row > 0) {
+					mrz.append('\n');
+				}
+				for (int i = rowStarts[row]; i < rowEnds[row]; i++) {
+					mrz.append(MrzPipeline.normalize(input.charAt(i)));
+				}
+			}
+		}
+
+		@Override
+		public long getSequence() {
+			return sequence;
+		}
+
+		@Override
+		public String getInput() {
+			return input;
+		}
+
+		@Override
+		public CharSequence getMrz() {
+			return mrz;
+		}
+
+		@Override
+		public ParseResult getResult() {
+			return result;
+		}
+
+		@Override
+		public int getValidation() {
+			return validation;
+		}
+	}
+
+	/**
+	 * The input with {@link #normalize(char) normalised} characters, read in place to detect the format before the rows are copied.
+	 */
+	private static final class NormalizedText implements CharSequence {
+
+		private String text;
+
+		@Override
+		public int length() {
+			return text.length();
+		}
+
+		@Override
+		public char charAt(final int index) {
+			return normalize(text.charAt(index));
+		}
+
+		@Override
+		public CharSequence subSequence(final int start, final int end) {
+			return toString().substring(start, end);
+		}
+
+		@Override
+		public String toString() {
+			final StringBuilder builder = new StringBuilder(text.length());
+			for (int i = 0; i < text.length(); i++) {
+				builder.append(normalize(text.charAt(i)));
+			}
+			return builder.toString();
+		}
+	}
+
+}
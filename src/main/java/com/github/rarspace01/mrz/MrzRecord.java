@@ -20,17 +20,20 @@ package com.github.rarspace01.mrz;
 
 import com.github.rarspace01.mrz.types.MrzDate;
 import com.github.rarspace01.mrz.types.MrzDocumentCode;
+import com.github.rarspace01.mrz.types.MrzField;
 import com.github.rarspace01.mrz.types.MrzFormat;
+import com.github.rarspace01.mrz.types.MrzLayout;
 import com.github.rarspace01.mrz.types.MrzSex;
 
 import java.io.Serializable;
+import java.util.Set;
 
 /**
  * An abstract MRZ record, contains basic information present in all MRZ record types.
  *
  * @author Martin Vysny
  */
-public abstract class MrzRecord implements Serializable {
+public abstract class MrzRecord implements Serializable, MrzRecordView {
 
     /**
      * Detected MRZ format.
@@ -147,14 +150,178 @@ public abstract class MrzRecord implements Serializable {
      * @throws MrzParseException could not parse MRZ
      */
     public void fromMrz(final String mrz) throws MrzParseException {
-        if (getFormat() != MrzFormat.get(mrz)) {
-            System.out.println("Invalid format: " + MrzFormat.get(mrz) + " " + mrz);
+        fromMrz(new MrzParser(mrz));
+    }
+
+    /**
+     * Parses the MRZ record held by given parser. The fields are decoded in a single loop over the {@link MrzLayout} of the format, subclasses
+     * add their own fields by overriding {@link #decodeField(MrzField, MrzParser, MrzRange)} and {@link #setValidField(MrzField, boolean)}.
+     * Instances of the record classes of {@link MrzFormat} themselves are decoded by the parsers generated from the layouts at build time
+     * when they are on the classpath, with the same result.
+     *
+     * @param parser the parser holding the MRZ record, not null
+     * @throws MrzParseException could not parse MRZ
+     */
+    public void fromMrz(final MrzParser parser) throws MrzParseException {
+        if (getFormat() != parser.getFormat()) {
+            if (parser.getDiagnostics() != MrzDiagnostics.NONE) {
+                parser.getDiagnostics().report(MrzDiagnosticReason.FORMAT_MISMATCH, null, new MrzRange(0, 0, 0), MrzDiagnostics.NO_CHARACTER, MrzDiagnostics.NO_CHARACTER);
+            }
+            return;
+        }
+        // subclasses may override the decoding, only the generic loop calls their overrides
+        if (getClass() == getFormat().getRecordClass() && GeneratedParsers.decode(this, parser)) {
+            return;
+        }
+        decodeLayout(parser);
+    }
+
+    /**
+     * Decodes the fields in a loop over the {@link MrzLayout} of the format.
+     *
+     * @param parser the parser holding the MRZ record of the format of this record
+     * @throws MrzParseException could not parse MRZ
+     */
+    void decodeLayout(final MrzParser parser) throws MrzParseException {
+        final MrzLayout layout = getFormat().getLayout();
+        for (int i = 0; i < layout.size(); i++) {
+            decodeField(layout.getField(i), parser, layout.getRange(i));
+        }
+        final int[] digits = new int[layout.size()];
+        final int composite = parser.computeCheckDigits(digits);
+        for (int i = 0; i < layout.size(); i++) {
+            if (layout.hasCheckDigit(i)) {
+                final MrzField field = layout.getField(i);
+                setValidField(field, parser.checkDigit(layout.getCheckDigitColumn(i), layout.getRow(i), digits[i], field));
+            }
+        }
+        if (layout.hasComposite()) {
+            setValidComposite(parser.checkDigit(layout.getCompositeColumn(), layout.getCompositeRow(), composite, MrzField.COMPOSITE));
+        }
+    }
+
+    /**
+     * Parses only the given fields of the MRZ record held by given parser, and verifies only their check digits. The document code is
+     * always decoded; {@link MrzField#NAMES} stands for both {@link MrzField#SURNAME} and {@link MrzField#GIVEN_NAMES} and vice versa. The
+     * composite check digit is verified if {@link MrzField#COMPOSITE} or any of its members is requested.
+     * <p>
+     * Fields not requested keep their default value, and so does their validity: {@link #isValidDocumentNumber()},
+     * {@link #isValidDateOfBirth()}, {@link #isValidExpirationDate()} and {@link #isValidComposite()} return true for a check digit which
+     * was not verified, the personal number validity of the records which have one returns false. Request every field whose check digit
+     * matters.
+     * </p>
+     *
+     * @param parser the parser holding the MRZ record, not null
+     * @param fields the fields to decode, not null
+     * @throws MrzParseException could not parse MRZ
+     */
+    public void fromMrz(final MrzParser parser, final Set<MrzField> fields) throws MrzParseException {
+        if (getFormat() != parser.getFormat()) {
+            if (parser.getDiagnostics() != MrzDiagnostics.NONE) {
+                parser.getDiagnostics().report(MrzDiagnosticReason.FORMAT_MISMATCH, null, new MrzRange(0, 0, 0), MrzDiagnostics.NO_CHARACTER, MrzDiagnostics.NO_CHARACTER);
+            }
             return;
         }
-        setCode(MrzDocumentCode.parse(mrz));
-        setCode1(mrz.charAt(0));
-        setCode2(mrz.charAt(1));
-        setIssuingCountry(new MrzParser(mrz).parseString(new MrzRange(2, 5, 0)));
+        final MrzLayout layout = getFormat().getLayout();
+        boolean composite = fields.contains(MrzField.COMPOSITE);
+        for (int i = 0; i < layout.size(); i++) {
+            final MrzField field = layout.getField(i);
+            if (isRequested(field, fields)) {
+                decodeField(field, parser, layout.getRange(i));
+                composite |= layout.isCompositeMember(i);
+            } else if (field == MrzField.DOCUMENT_CODE) {
+                decodeField(field, parser, layout.getRange(i));
+            }
+        }
+        for (int i = 0; i < layout.size(); i++) {
+            final MrzField field = layout.getField(i);
+            if (layout.hasCheckDigit(i) && isRequested(field, fields)) {
+                setValidField(field, parser.checkDigit(layout.getCheckDigitColumn(i), layout.getRow(i), layout.getRange(i), field));
+            }
+        }
+        if (composite && layout.hasComposite()) {
+            setValidComposite(parser.checkDigit(layout.getCompositeColumn(), layout.getCompositeRow(), layout.getCompositeRanges(), MrzField.COMPOSITE));
+        }
+    }
+
+    private static boolean isRequested(final MrzField field, final Set<MrzField> fields) {
+        switch (field) {
+            case NAMES:
+            case SURNAME:
+            case GIVEN_NAMES:
+                return fields.contains(MrzField.NAMES) || fields.contains(MrzField.SURNAME) || fields.contains(MrzField.GIVEN_NAMES);
+            default:
+                return fields.contains(field);
+        }
+    }
+
+    /**
+     * Decodes one field of the MRZ record.
+     *
+     * @param field the field to decode
+     * @param parser the parser holding the MRZ record, not null
+     * @param range the range of the field
+     * @throws MrzParseException could not parse MRZ
+     */
+    protected void decodeField(final MrzField field, final MrzParser parser, final MrzRange range) throws MrzParseException {
+        switch (field) {
+            case DOCUMENT_CODE:
+                setCode(MrzDocumentCode.parse(parser));
+                setCode1(parser.charAt(range.getColumn(), range.getRow()));
+                setCode2(parser.charAt(range.getColumn() + 1, range.getRow()));
+                break;
+            case ISSUING_COUNTRY:
+                setIssuingCountry(parser.parseString(range));
+                break;
+            case NAMES:
+                setName(parser.parseName(range));
+                break;
+            case SURNAME:
+                setSurname(parser.parseString(range));
+                break;
+            case GIVEN_NAMES:
+                setGivenNames(parser.parseString(range));
+                break;
+            case DOCUMENT_NUMBER:
+                setDocumentNumber(parser.parseString(range));
+                break;
+            case NATIONALITY:
+                setNationality(parser.parseString(range));
+                break;
+            case DATE_OF_BIRTH:
+                setDateOfBirth(parser.parseDate(range));
+                break;
+            case SEX:
+                setSex(parser.parseSex(range.getColumn(), range.getRow()));
+                break;
+            case EXPIRATION_DATE:
+                setExpirationDate(parser.parseDate(range));
+                break;
+            default:
+                throw new IllegalStateException("Field " + field + " is not supported by " + getRecordName());
+        }
+    }
+
+    /**
+     * Records the result of the check digit verification of one field. Dates are only valid if the date itself is valid as well.
+     *
+     * @param field the field
+     * @param valid true if the check digit of the field is valid
+     */
+    protected void setValidField(final MrzField field, final boolean valid) {
+        switch (field) {
+            case DOCUMENT_NUMBER:
+                setValidDocumentNumber(valid);
+                break;
+            case DATE_OF_BIRTH:
+                setValidDateOfBirth(valid && getDateOfBirth().isDateValid());
+                break;
+            case EXPIRATION_DATE:
+                setValidExpirationDate(valid && getExpirationDate().isDateValid());
+                break;
+            default:
+                throw new IllegalStateException("Field " + field + " has no check digit in " + getRecordName());
+        }
     }
 
     /**
@@ -1,5 +1,6 @@
 package com.github.rarspace01.mrz;
 
+import com.github.rarspace01.mrz.types.MrzField;
 import com.github.rarspace01.mrz.types.MrzFormat;
 
 /**
@@ -20,6 +21,15 @@ public abstract class MrzRecordOptional extends MrzRecord {
 		super(format, recordName);
 	}
 
+	@Override
+	protected void decodeField(final MrzField field, final MrzParser parser, final MrzRange range) throws MrzParseException {
+		if (field == MrzField.OPTIONAL) {
+			setOptional(parser.parseString(range));
+		} else {
+			super.decodeField(field, parser, range);
+		}
+	}
+
 	@Override
 	protected void buildToString(final StringBuilder sb) {
 		super.buildToString(sb);
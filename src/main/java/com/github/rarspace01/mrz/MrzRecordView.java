@@ -0,0 +1,112 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import com.github.rarspace01.mrz.types.MrzDate;
+import com.github.rarspace01.mrz.types.MrzDocumentCode;
+import com.github.rarspace01.mrz.types.MrzFormat;
+import com.github.rarspace01.mrz.types.MrzSex;
+
+/**
+ * Read access to the fields common to all MRZ records, implemented by {@link MrzRecord}, the {@link MrzBatch.Row} flyweight,
+ * {@link CompactMrzRecord} and {@link LazyMrzRecord}.
+ */
+public interface MrzRecordView {
+
+	/**
+	 * @return the format
+	 */
+	MrzFormat getFormat();
+
+	/**
+	 * @return the document code
+	 */
+	MrzDocumentCode getCode();
+
+	/**
+	 * @return the first character of the document code
+	 */
+	char getCode1();
+
+	/**
+	 * @return the second character of the document code
+	 */
+	char getCode2();
+
+	/**
+	 * @return the issuing country
+	 */
+	String getIssuingCountry();
+
+	/**
+	 * @return the document number
+	 */
+	String getDocumentNumber();
+
+	/**
+	 * @return the surname
+	 */
+	String getSurname();
+
+	/**
+	 * @return the given names
+	 */
+	String getGivenNames();
+
+	/**
+	 * @return the date of birth
+	 */
+	MrzDate getDateOfBirth();
+
+	/**
+	 * @return the sex
+	 */
+	MrzSex getSex();
+
+	/**
+	 * @return the expiration date
+	 */
+	MrzDate getExpirationDate();
+
+	/**
+	 * @return the nationality
+	 */
+	String getNationality();
+
+	/**
+	 * @return true if valid document number
+	 */
+	boolean isValidDocumentNumber();
+
+	/**
+	 * @return true if valid date of birth
+	 */
+	boolean isValidDateOfBirth();
+
+	/**
+	 * @return true if valid expiration date
+	 */
+	boolean isValidExpirationDate();
+
+	/**
+	 * @return true if valid composite
+	 */
+	boolean isValidComposite();
+
+}
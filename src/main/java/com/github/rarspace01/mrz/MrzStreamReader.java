@@ -0,0 +1,300 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import com.github.rarspace01.mrz.types.MrzFormat;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads MRZ records from newline separated text, e.g. a dump of millions of records, through a fixed size buffer. A record starts with a
+ * line which looks like a first row, see {@link MrzFinderUtil#isFirstRow(CharSequence, int, int)}: its length tells the number of rows
+ * from the {@link MrzFormat}s with that many columns, the following lines of the same length complete it. A second row must not look like
+ * a first row. Blank lines are skipped.
+ * <p>
+ * Malformed input does not stop the reader: a record cut short by a blank line, a line which does not continue it or the end of input is
+ * reported as a failed {@link ParseResult}, and so is every line which neither starts nor continues a record, e.g. the rows left over
+ * from a record whose first row got lost. Reading resumes with the next line. Every result carries the
+ * offset of the first character of its record, see {@link ParseResult#getOffset()}; for an {@link InputStream} it is the byte offset.
+ * <p>
+ * Not thread safe.
+ */
+public class MrzStreamReader implements Iterator<ParseResult>, Closeable {
+
+	/**
+	 * Default size of the read buffer.
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 8192;
+	/**
+	 * Longer lines are truncated, they match no format anyway.
+	 */
+	private static final int MAX_LINE_LENGTH = 256;
+	/**
+	 * Number of rows of the formats by the number of columns, 0 for unsupported lengths.
+	 */
+	private static final int[] ROWS_BY_COLUMNS = new int[MAX_LINE_LENGTH + 1];
+
+	static {
+		for (final MrzFormat format : MrzFormat.values()) {
+			ROWS_BY_COLUMNS[format.getColumns()] = Math.max(ROWS_BY_COLUMNS[format.getColumns()], format.getRows());
+		}
+	}
+
+	private final Reader reader;
+	private final char[] buffer;
+	private int position;
+	private int limit;
+	/**
+	 * Stream offset of {@code buffer[0]}.
+	 */
+	private long bufferOffset;
+	private boolean eof;
+	private final StringBuilder line = new StringBuilder();
+	private long lineOffset;
+	/**
+	 * Line read ahead which starts the next record, null if none.
+	 */
+	private String pendingLine;
+	private long pendingOffset;
+	private ParseResult next;
+	private MrzDiagnostics diagnostics = MrzDiagnostics.NONE;
+
+	/**
+	 * Creates a reader of the MRZ records of given character stream.
+	 *
+	 * @param reader the text, not null. Offsets are character offsets.
+	 */
+	public MrzStreamReader(final Reader reader) {
+		this(reader, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Creates a reader of the MRZ records of given character stream.
+	 *
+	 * @param reader the text, not null. Offsets are character offsets.
+	 * @param bufferSize the size of the read buffer, positive.
+	 */
+	public MrzStreamReader(final Reader reader, final int bufferSize) {
+		if (bufferSize <= 0) {
+			throw new IllegalArgumentException("Parameter bufferSize: invalid value " + bufferSize + ": not positive");
+		}
+		this.reader = reader;
+		this.buffer = new char[bufferSize];
+	}
+
+	/**
+	 * Creates a reader of the MRZ records of given byte stream. MRZ is plain ASCII, every byte is read as one character so that the offsets
+	 * are byte offsets.
+	 *
+	 * @param in the text, not null.
+	 */
+	public MrzStreamReader(final InputStream in) {
+		this(new InputStreamReader(in, StandardCharsets.ISO_8859_1));
+	}
+
+	/**
+	 * Sets the receiver of the problems found while parsing the records.
+	 *
+	 * @param diagnostics the receiver, not null. A {@link CollectingMrzDiagnostics} collects the problems of all records, the
+	 * {@link ParseResult#getDiagnostics()} of each record are its own.
+	 * @return this
+	 */
+	public MrzStreamReader setDiagnostics(final MrzDiagnostics diagnostics) {
+		this.diagnostics = diagnostics;
+		return this;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (next == null) {
+			try {
+				next = readRecord();
+			} catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		}
+		return next != null;
+	}
+
+	/**
+	 * @return the next record or failure, in input order.
+	 * @throws UncheckedIOException if reading fails.
+	 */
+	@Override
+	public ParseResult next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		final ParseResult result = next;
+		next = null;
+		return result;
+	}
+
+	/**
+	 * @return a sequential stream of the remaining records, closing it closes this reader.
+	 */
+	public Stream<ParseResult> stream() {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+			.onClose(() -> {
+				try {
+					close();
+				} catch (IOException ex) {
+					throw new UncheckedIOException(ex);
+				}
+			});
+	}
+
+	/**
+	 * Reads the lines of the next record.
+	 *
+	 * @return the parsed record, null at the end of input.
+	 */
+	private ParseResult readRecord() throws IOException {
+		String first = pendingLine;
+		long offset = pendingOffset;
+		pendingLine = null;
+		while (first == null || first.isEmpty()) {
+			first = readLine();
+			if (first == null) {
+				return null;
+			}
+			offset = lineOffset;
+		}
+		if (!startsRecord(first, 0, first.length())) {
+			// a stray line, e.g. the rest of a record whose first row got lost: report it alone
+			return MrzParser.tryParse(first, 0, first.length(), diagnostics, offset);
+		}
+		final int rows = getRecordRows(first.length());
+		final StringBuilder record = new StringBuilder(first);
+		for (int row = 1; row < rows; row++) {
+			final String l = readLine();
+			if (l == null || l.isEmpty()) {
+				break;
+			}
+			if (!continuesRecord(first.length(), row, l.length(), startsRecord(l, 0, l.length()))) {
+				// resynchronize: the line starts the next record
+				pendingLine = l;
+				pendingOffset = lineOffset;
+				break;
+			}
+			record.append('\n').append(l);
+		}
+		return MrzParser.tryParse(record, 0, record.length(), diagnostics, offset);
+	}
+
+	/**
+	 * @param text the text
+	 * @param start the index of the first character of the line
+	 * @param end the index after the last character of the line, without the line terminator
+	 * @return true if the line may start a record: it looks like a first row, see {@link MrzFinderUtil#isFirstRow(CharSequence, int, int)}.
+	 */
+	static boolean startsRecord(final CharSequence text, final int start, final int end) {
+		return MrzFinderUtil.isFirstRow(text, start, end);
+	}
+
+	/**
+	 * Tells if a line continues a record. A second row starts with a document number or a date of birth, which hardly ever look like a
+	 * first row, so a second line which does is taken as the start of the next record. Third rows are not checked: TD1 third rows start
+	 * with the name, which often does look like a first row.
+	 *
+	 * @param columns the length of the first line of the record
+	 * @param row the index of the row the line would be, positive
+	 * @param lineLength the length of the line without the line terminator
+	 * @param firstRow true if the line may start a record, see {@link #startsRecord(CharSequence, int, int)}
+	 * @return true if the line is the next row of the record.
+	 */
+	static boolean continuesRecord(final int columns, final int row, final int lineLength, final boolean firstRow) {
+		return lineLength == columns && (row > 1 || !firstRow);
+	}
+
+	/**
+	 * @param lineLength the length of the first line of a record
+	 * @return the number of lines of the record: the rows of the formats with that many columns, 1 if there is none.
+	 */
+	static int getRecordRows(final int lineLength) {
+		return lineLength < ROWS_BY_COLUMNS.length ? Math.max(1, ROWS_BY_COLUMNS[lineLength]) : 1;
+	}
+
+	/**
+	 * Reads the next line without the line terminator, truncated to {@link #MAX_LINE_LENGTH} characters.
+	 *
+	 * @return the line, null at the end of input.
+	 */
+	private String readLine() throws IOException {
+		line.setLength(0);
+		boolean started = false;
+		while (true) {
+			if (position == limit) {
+				if (eof || !fill()) {
+					return started ? trimCarriageReturn() : null;
+				}
+			}
+			if (!started) {
+				lineOffset = bufferOffset + position;
+				started = true;
+			}
+			final char c = buffer[position++];
+			if (c == '\n') {
+				return trimCarriageReturn();
+			}
+			if (line.length() < MAX_LINE_LENGTH) {
+				line.append(c);
+			}
+		}
+	}
+
+	private String trimCarriageReturn() {
+		final int length = line.length();
+		return length > 0 && line.charAt(length - 1) == '\r' ? line.substring(0, length - 1) : line.toString();
+	}
+
+	private boolean fill() throws IOException {
+		bufferOffset += limit;
+		position = 0;
+		limit = 0;
+		int read;
+		do {
+			read = reader.read(buffer);
+		} while (read == 0);
+		if (read < 0) {
+			eof = true;
+			return false;
+		}
+		limit = read;
+		return true;
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+
+}
@@ -0,0 +1,253 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import com.github.rarspace01.mrz.types.MrzFormat;
+import com.github.rarspace01.mrz.types.MrzLayout;
+
+/**
+ * Validation only fast path: detects the format of a MRZ record and verifies its check digits without building a {@link MrzRecord}, without
+ * decoding names or dates into objects and without allocating. Meant as a cheap pre-filter in front of {@link MrzParser#parse(String)}.
+ * <p>
+ * The result is a primitive int: the {@link MrzFormat#ordinal()} in the lowest 8 bits ({@link #UNKNOWN_FORMAT} when the record is malformed
+ * or of no known format) and the {@code VALID_*} flags, which mirror the {@code isValid*} getters of the record. As in the record, a flag is
+ * set when the format has no such check digit, so {@link #isValid(int)} tells if all check digits of the format are valid.
+ */
+public final class MrzValidator {
+
+	/**
+	 * Mask of the format ordinal in the result.
+	 */
+	public static final int FORMAT_MASK = 0xFF;
+	/**
+	 * Format of malformed records and records of unknown format.
+	 */
+	public static final int UNKNOWN_FORMAT = FORMAT_MASK;
+	/**
+	 * Mirrors {@link MrzRecord#isValidDocumentNumber()}.
+	 */
+	public static final int VALID_DOCUMENT_NUMBER = 1 << 8;
+	/**
+	 * Mirrors {@link MrzRecord#isValidDateOfBirth()}: valid check digit and date.
+	 */
+	public static final int VALID_DATE_OF_BIRTH = 1 << 9;
+	/**
+	 * Mirrors {@link MrzRecord#isValidExpirationDate()}: valid check digit and date.
+	 */
+	public static final int VALID_EXPIRATION_DATE = 1 << 10;
+	/**
+	 * Mirrors {@link MrzRecord#isValidComposite()}.
+	 */
+	public static final int VALID_COMPOSITE = 1 << 11;
+	/**
+	 * Mirrors {@code isValidPersonalNumber()} of the passport and travel pass records.
+	 */
+	public static final int VALID_PERSONAL_NUMBER = 1 << 12;
+	/**
+	 * All validity flags.
+	 */
+	public static final int VALID_ALL = VALID_DOCUMENT_NUMBER | VALID_DATE_OF_BIRTH | VALID_EXPIRATION_DATE | VALID_COMPOSITE | VALID_PERSONAL_NUMBER;
+	/**
+	 * Result for malformed records and records of unknown format.
+	 */
+	public static final int INVALID = UNKNOWN_FORMAT;
+
+	private static final MrzFormat[] FORMATS = MrzFormat.values();
+
+	/**
+	 * Prevent instantiation.
+	 */
+	private MrzValidator() {
+		// Do nothing
+	}
+
+	/**
+	 * Validates a MRZ record.
+	 *
+	 * @param mrz the MRZ record, rows separated by \n or \r\n.
+	 * @return the format and validity flags.
+	 */
+	public static int validate(final CharSequence mrz) {
+		return validate(mrz, 0, mrz.length());
+	}
+
+	/**
+	 * Validates the MRZ record stored in given part of a character buffer.
+	 *
+	 * @param source the buffer containing the MRZ record, not null.
+	 * @param offset index of the first MRZ character.
+	 * @param length number of MRZ characters.
+	 * @return the format and validity flags.
+	 */
+	public static int validate(final CharSequence source, final int offset, final int length) {
+		// locate the rows like MrzParser does, in locals
+		int rowCount = 0;
+		int columns = 0;
+		int firstRow = 0;
+		int secondRow = 0;
+		int thirdRow = 0;
+		boolean emptyRows = false;
+		final int end = offset + length;
+		int rowStart = offset;
+		for (int i = offset; i <= end; i++) {
+			if (i < end && source.charAt(i) != '\n') {
+				continue;
+			}
+			int rowEnd = i;
+			if (rowEnd > rowStart && source.charAt(rowEnd - 1) == '\r') {
+				rowEnd--;
+			}
+			final int rowLength = rowEnd - rowStart;
+			if (rowLength == 0) {
+				emptyRows = true;
+			} else if (emptyRows || (rowCount > 0 && rowLength != columns)) {
+				// different row lengths
+				return INVALID;
+			} else {
+				if (rowCount == 0) {
+					columns = rowLength;
+					firstRow = rowStart;
+				} else if (rowCount == 1) {
+					secondRow = rowStart;
+				} else {
+					thirdRow = rowStart;
+				}
+				rowCount++;
+			}
+			rowStart = i + 1;
+		}
+		final MrzFormat format = MrzFormat.find(source, firstRow, secondRow, rowCount, columns);
+		if (format == null) {
+			return INVALID;
+		}
+		int result = format.ordinal() | VALID_ALL;
+		final MrzLayout layout = format.getLayout();
+		int composite = 0;
+		int position = 0;
+		boolean compositeValid = true;
+		for (int f = 0; f < layout.size(); f++) {
+			final boolean member = layout.isCompositeMember(f);
+			final boolean checked = layout.hasCheckDigit(f);
+			if (!member && !checked) {
+				continue;
+			}
+			final int row = layout.getRow(f);
+			final int base = row == 0 ? firstRow : row == 1 ? secondRow : thirdRow;
+			final int from = base + layout.getColumn(f);
+			final int to = base + layout.getColumnTo(f);
+			final long sums = MrzCheckDigit.partialSums(source, from, to);
+			final boolean validCharacters = sums != MrzCheckDigit.INVALID_SUMS;
+			if (checked) {
+				boolean valid = validCharacters && matches(source.charAt(base + layout.getCheckDigitColumn(f)), MrzCheckDigit.weigh(sums, 0) % 10);
+				final int flag;
+				switch (layout.getField(f)) {
+					case DOCUMENT_NUMBER:
+						flag = VALID_DOCUMENT_NUMBER;
+						break;
+					case DATE_OF_BIRTH:
+						flag = VALID_DATE_OF_BIRTH;
+						valid &= isDateValid(source, from);
+						break;
+					case EXPIRATION_DATE:
+						flag = VALID_EXPIRATION_DATE;
+						valid &= isDateValid(source, from);
+						break;
+					case PERSONAL_NUMBER:
+						flag = VALID_PERSONAL_NUMBER;
+						break;
+					default:
+						flag = 0;
+						break;
+				}
+				if (!valid) {
+					result &= ~flag;
+				}
+			}
+			if (member) {
+				compositeValid &= validCharacters;
+				if (validCharacters) {
+					composite += MrzCheckDigit.weigh(sums, position);
+				}
+				position += to - from;
+				if (checked) {
+					for (int c = to; c <= base + layout.getCheckDigitColumn(f); c++) {
+						final int value = MrzCheckDigit.value(source.charAt(c));
+						if (value < 0) {
+							compositeValid = false;
+						} else {
+							composite += MrzCheckDigit.weigh(value, position);
+						}
+						position++;
+					}
+				}
+			}
+		}
+		if (layout.hasComposite()) {
+			final int row = layout.getCompositeRow();
+			final int base = row == 0 ? firstRow : row == 1 ? secondRow : thirdRow;
+			if (!compositeValid || !matches(source.charAt(base + layout.getCompositeColumn()), composite % 10)) {
+				result &= ~VALID_COMPOSITE;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Compares the check digit character with the computed one, the filler stands for 0 like in {@link MrzParser#checkDigit(int, int, int, com.github.rarspace01.mrz.types.MrzField)}.
+	 */
+	private static boolean matches(final char checkDigit, final int expected) {
+		return (checkDigit == MrzParser.FILLER ? '0' : checkDigit) == expected + '0';
+	}
+
+	/**
+	 * Checks the YYMMDD date like {@link com.github.rarspace01.mrz.types.MrzDate#isDateValid()} does for a parsed date.
+	 */
+	private static boolean isDateValid(final CharSequence source, final int from) {
+		final int month = twoDigits(source, from + 2);
+		final int day = twoDigits(source, from + 4);
+		return twoDigits(source, from) >= 0 && month >= 1 && month <= 12 && day >= 1 && day <= 31;
+	}
+
+	private static int twoDigits(final CharSequence source, final int index) {
+		final int tens = source.charAt(index) - '0';
+		final int ones = source.charAt(index + 1) - '0';
+		if (tens < 0 || tens > 9 || ones < 0 || ones > 9) {
+			return -1;
+		}
+		return tens * 10 + ones;
+	}
+
+	/**
+	 * @param result the result of {@link #validate(CharSequence)}
+	 * @return the format of the record, null if malformed or of unknown format.
+	 */
+	public static MrzFormat getFormat(final int result) {
+		final int ordinal = result & FORMAT_MASK;
+		return ordinal == UNKNOWN_FORMAT ? null : FORMATS[ordinal];
+	}
+
+	/**
+	 * @param result the result of {@link #validate(CharSequence)}
+	 * @return true if the record has a known format and all its check digits are valid.
+	 */
+	public static boolean isValid(final int result) {
+		return (result & FORMAT_MASK) != UNKNOWN_FORMAT && (result & VALID_ALL) == VALID_ALL;
+	}
+
+}
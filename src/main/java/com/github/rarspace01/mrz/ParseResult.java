@@ -0,0 +1,182 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import com.github.rarspace01.mrz.types.MrzFormat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of {@link MrzParser#tryParse(CharSequence, int, int)}: either the parsed record or the {@link MrzParseFailure} with the range of the
+ * problematic characters. Failures are reported without throwing and without capturing a stack trace, the message and the MRZ string are only
+ * built when asked for.
+ * <p>
+ * The result keeps the parser and with it the parsed {@link CharSequence} or {@code char[]} itself, not a copy: {@link #getFormat()} and
+ * the record are decided when parsing, but {@link #getMrz()}, {@link #getMessage()} and {@link #getRecordOrThrow()} read the MRZ
+ * characters from it when called. Do not modify or reuse the buffer while the result is in use, or parse a copy of it. It also keeps the
+ * whole buffer reachable, e.g. the mapped chunk of {@link MrzFileParser}.
+ * </p>
+ */
+public final class ParseResult {
+
+	/**
+	 * The parser holding the MRZ record, not null.
+	 */
+	private final MrzParser parser;
+	/**
+	 * Position of the record in its source.
+	 */
+	private final long offset;
+	private final MrzRecord record;
+	private final MrzParseFailure failure;
+	private final MrzRange range;
+	/**
+	 * The diagnostics reported while parsing this record, set by {@link MrzParser} after parsing.
+	 */
+	private List<MrzDiagnostic> diagnostics = Collections.emptyList();
+
+	private ParseResult(final MrzParser parser, final long offset, final MrzRecord record, final MrzParseFailure failure, final MrzRange range) {
+		this.parser = parser;
+		this.offset = offset;
+		this.record = record;
+		this.failure = failure;
+		this.range = range;
+	}
+
+	static ParseResult success(final MrzParser parser, final long offset, final MrzRecord record) {
+		return new ParseResult(parser, offset, record, null, null);
+	}
+
+	static ParseResult failure(final MrzParser parser, final long offset, final MrzParseFailure failure, final MrzRange range) {
+		return new ParseResult(parser, offset, null, failure, range);
+	}
+
+	/**
+	 * @return the parser holding the MRZ record.
+	 */
+	MrzParser getParser() {
+		return parser;
+	}
+
+	/**
+	 * @return true if the record was parsed.
+	 */
+	public boolean isSuccess() {
+		return failure == null;
+	}
+
+	/**
+	 * @return the position of the record in its source: the offset given to {@link MrzParser#tryParse(CharSequence, int, int)}, or the byte
+	 * (character for a {@link java.io.Reader}) offset in the stream read by {@link MrzStreamReader}.
+	 */
+	public long getOffset() {
+		return offset;
+	}
+
+	/**
+	 * @return the parsed record, null on failure.
+	 */
+	public MrzRecord getRecord() {
+		return record;
+	}
+
+	/**
+	 * @return the reason of the failure, null on success.
+	 */
+	public MrzParseFailure getFailure() {
+		return failure;
+	}
+
+	/**
+	 * @return the range containing the problematic characters, null on success.
+	 */
+	public MrzRange getRange() {
+		return range;
+	}
+
+	/**
+	 * @return the problems reported while parsing this record when parsed with a {@link CollectingMrzDiagnostics}, an empty list otherwise.
+	 * Only the ones of this record, also if the collector is shared by many parses, e.g. of a {@link MrzStreamReader}.
+	 */
+	public List<MrzDiagnostic> getDiagnostics() {
+		return diagnostics;
+	}
+
+	void setDiagnostics(final List<MrzDiagnostic> diagnostics) {
+		this.diagnostics = diagnostics.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(diagnostics));
+	}
+
+	/**
+	 * @return the detected MRZ format, null if the format is unknown.
+	 */
+	public MrzFormat getFormat() {
+		return parser.getFormat();
+	}
+
+	/**
+	 * @return the MRZ record, built on demand from the parsed characters.
+	 */
+	public String getMrz() {
+		return parser.getMrz();
+	}
+
+	/**
+	 * @return the description of the failure, built on demand. Null on success.
+	 */
+	public String getMessage() {
+		if (failure == null) {
+			return null;
+		}
+		switch (failure) {
+			case DIFFERENT_ROW_LENGTHS:
+			case UNKNOWN_FORMAT:
+				return parser.getFailureMessage(failure);
+			case DOCUMENT_CODE_NOT_ALLOWED:
+				return parser.rawValue(range) + " document code is not allowed";
+			case INVALID_CHARACTER:
+				return "Invalid character in MRZ record: " + parser.rawValue(range);
+			default:
+				throw new IllegalStateException("Unsupported failure " + failure);
+		}
+	}
+
+	/**
+	 * Returns the record, or throws a {@link MrzParseException} with the message, range and format of the failure. For rows of different
+	 * lengths, an unknown format or a forbidden document code this is the exception {@link MrzParser#parse(String)} throws; for an
+	 * {@link MrzParseFailure#INVALID_CHARACTER invalid character} {@code parse} throws an {@link IllegalArgumentException} from the check
+	 * digit computation instead.
+	 *
+	 * @return the parsed record, never null.
+	 * @throws MrzParseException if the parse failed.
+	 */
+	public MrzRecord getRecordOrThrow() throws MrzParseException {
+		if (failure != null) {
+			throw new MrzParseException(getMessage(), getMrz(), range, getFormat());
+		}
+		return record;
+	}
+
+	@Override
+	public String toString() {
+		return failure == null ? "ParseResult{" + record + "}" : "ParseResult{" + failure + " at " + range + ": " + getMessage() + "}";
+	}
+
+}
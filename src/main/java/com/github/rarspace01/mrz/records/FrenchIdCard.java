@@ -18,9 +18,7 @@
  */
 package com.github.rarspace01.mrz.records;
 
-import com.github.rarspace01.mrz.MrzParseException;
 import com.github.rarspace01.mrz.MrzParser;
-import com.github.rarspace01.mrz.MrzRange;
 import com.github.rarspace01.mrz.MrzRecordOptional;
 import com.github.rarspace01.mrz.types.MrzDocumentCode;
 import com.github.rarspace01.mrz.types.MrzFormat;
@@ -48,27 +46,6 @@ public class FrenchIdCard extends MrzRecordOptional {
 		setCode2('D');
 	}
 
-	@Override
-	public void fromMrz(final String mrz) throws MrzParseException {
-		super.fromMrz(mrz);
-		final MrzParser parser = new MrzParser(mrz);
-		//Special because surname and firstname not on the same line
-		String[] name = new String[]{"", ""};
-		name[0] = parser.parseString(new MrzRange(5, 30, 0));
-		name[1] = parser.parseString(new MrzRange(13, 27, 1));
-		setName(name);
-		setNationality(parser.parseString(new MrzRange(2, 5, 0)));
-		setOptional(parser.parseString(new MrzRange(30, 36, 0)));
-		setDocumentNumber(parser.parseString(new MrzRange(0, 12, 1)));
-		setValidDocumentNumber(parser.checkDigit(12, 1, new MrzRange(0, 12, 1), "document number"));
-		setDateOfBirth(parser.parseDate(new MrzRange(27, 33, 1)));
-		setValidDateOfBirth(parser.checkDigit(33, 1, new MrzRange(27, 33, 1), "date of birth") && getDateOfBirth().isDateValid());
-		setSex(parser.parseSex(34, 1));
-		final String finalChecksum = mrz.replace("\n", "").substring(0, 36 + 35);
-		setValidComposite(parser.checkDigit(35, 1, finalChecksum, "final checksum"));
-		// TODO expirationDate is missing
-	}
-
 	@Override
 	public String toMrz() {
 		final StringBuilder sb = new StringBuilder("IDFRA");
@@ -22,6 +22,7 @@ import com.github.rarspace01.mrz.MrzParseException;
 import com.github.rarspace01.mrz.MrzParser;
 import com.github.rarspace01.mrz.MrzRange;
 import com.github.rarspace01.mrz.MrzRecord;
+import com.github.rarspace01.mrz.types.MrzField;
 import com.github.rarspace01.mrz.types.MrzFormat;
 
 /**
@@ -45,21 +46,21 @@ public class MRP extends MrzRecord {
 	}
 
 	@Override
-	public void fromMrz(final String mrz) throws MrzParseException {
-		super.fromMrz(mrz);
-		final MrzParser parser = new MrzParser(mrz);
-		setName(parser.parseName(new MrzRange(5, 44, 0)));
-		setDocumentNumber(parser.parseString(new MrzRange(0, 9, 1)));
-		setValidDocumentNumber(parser.checkDigit(9, 1, new MrzRange(0, 9, 1), "passport number"));
-		setNationality(parser.parseString(new MrzRange(10, 13, 1)));
-		setDateOfBirth(parser.parseDate(new MrzRange(13, 19, 1)));
-		setValidDateOfBirth(parser.checkDigit(19, 1, new MrzRange(13, 19, 1), "date of birth") && getDateOfBirth().isDateValid());
-		setSex(parser.parseSex(20, 1));
-		setExpirationDate(parser.parseDate(new MrzRange(21, 27, 1)));
-		setValidExpirationDate(parser.checkDigit(27, 1, new MrzRange(21, 27, 1), "expiration date") && getExpirationDate().isDateValid());
-		setPersonalNumber(parser.parseString(new MrzRange(28, 42, 1)));
-		setValidPersonalNumber(parser.checkDigit(42, 1, new MrzRange(28, 42, 1), "personal number"));
-		setValidComposite(parser.checkDigit(43, 1, parser.rawValue(new MrzRange(0, 10, 1), new MrzRange(13, 20, 1), new MrzRange(21, 43, 1)), "mrz"));
+	protected void decodeField(final MrzField field, final MrzParser parser, final MrzRange range) throws MrzParseException {
+		if (field == MrzField.PERSONAL_NUMBER) {
+			setPersonalNumber(parser.parseString(range));
+		} else {
+			super.decodeField(field, parser, range);
+		}
+	}
+
+	@Override
+	protected void setValidField(final MrzField field, final boolean valid) {
+		if (field == MrzField.PERSONAL_NUMBER) {
+			setValidPersonalNumber(valid);
+		} else {
+			super.setValidField(field, valid);
+		}
 	}
 
 	@Override
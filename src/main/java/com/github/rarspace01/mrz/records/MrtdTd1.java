@@ -22,6 +22,7 @@ import com.github.rarspace01.mrz.MrzParseException;
 import com.github.rarspace01.mrz.MrzParser;
 import com.github.rarspace01.mrz.MrzRange;
 import com.github.rarspace01.mrz.MrzRecordOptional;
+import com.github.rarspace01.mrz.types.MrzField;
 import com.github.rarspace01.mrz.types.MrzFormat;
 
 /**
@@ -46,21 +47,12 @@ public class MrtdTd1 extends MrzRecordOptional {
 	}
 
 	@Override
-	public void fromMrz(final String mrz) throws MrzParseException {
-		super.fromMrz(mrz);
-		final MrzParser parser = new MrzParser(mrz);
-		setDocumentNumber(parser.parseString(new MrzRange(5, 14, 0)));
-		setValidDocumentNumber(parser.checkDigit(14, 0, new MrzRange(5, 14, 0), "document number"));
-		setOptional(parser.parseString(new MrzRange(15, 30, 0)));
-		setDateOfBirth(parser.parseDate(new MrzRange(0, 6, 1)));
-		setValidDateOfBirth(parser.checkDigit(6, 1, new MrzRange(0, 6, 1), "date of birth") && getDateOfBirth().isDateValid());
-		setSex(parser.parseSex(7, 1));
-		setExpirationDate(parser.parseDate(new MrzRange(8, 14, 1)));
-		setValidExpirationDate(parser.checkDigit(14, 1, new MrzRange(8, 14, 1), "expiration date") && getExpirationDate().isDateValid());
-		setNationality(parser.parseString(new MrzRange(15, 18, 1)));
-		setOptional2(parser.parseString(new MrzRange(18, 29, 1)));
-		setValidComposite(parser.checkDigit(29, 1, parser.rawValue(new MrzRange(5, 30, 0), new MrzRange(0, 7, 1), new MrzRange(8, 15, 1), new MrzRange(18, 29, 1)), "mrz"));
-		setName(parser.parseName(new MrzRange(0, 30, 2)));
+	protected void decodeField(final MrzField field, final MrzParser parser, final MrzRange range) throws MrzParseException {
+		if (field == MrzField.OPTIONAL2) {
+			setOptional2(parser.parseString(range));
+		} else {
+			super.decodeField(field, parser, range);
+		}
 	}
 
 	@Override
@@ -18,9 +18,7 @@
  */
 package com.github.rarspace01.mrz.records;
 
-import com.github.rarspace01.mrz.MrzParseException;
 import com.github.rarspace01.mrz.MrzParser;
-import com.github.rarspace01.mrz.MrzRange;
 import com.github.rarspace01.mrz.MrzRecordOptional;
 import com.github.rarspace01.mrz.types.MrzDocumentCode;
 import com.github.rarspace01.mrz.types.MrzFormat;
@@ -44,23 +42,6 @@ public class MrvA extends MrzRecordOptional {
 		setCode2('<');
 	}
 
-	@Override
-	public void fromMrz(final String mrz) throws MrzParseException {
-		super.fromMrz(mrz);
-		final MrzParser parser = new MrzParser(mrz);
-		setName(parser.parseName(new MrzRange(5, 44, 0)));
-		setDocumentNumber(parser.parseString(new MrzRange(0, 9, 1)));
-		setValidDocumentNumber(parser.checkDigit(9, 1, new MrzRange(0, 9, 1), "passport number"));
-		setNationality(parser.parseString(new MrzRange(10, 13, 1)));
-		setDateOfBirth(parser.parseDate(new MrzRange(13, 19, 1)));
-		setValidDateOfBirth(parser.checkDigit(19, 1, new MrzRange(13, 19, 1), "date of birth") && getDateOfBirth().isDateValid());
-		setSex(parser.parseSex(20, 1));
-		setExpirationDate(parser.parseDate(new MrzRange(21, 27, 1)));
-		setValidExpirationDate(parser.checkDigit(27, 1, new MrzRange(21, 27, 1), "expiration date") && getExpirationDate().isDateValid());
-		setOptional(parser.parseString(new MrzRange(28, 44, 1)));
-		// TODO validComposite missing? (final MRZ check digit)
-	}
-
 	@Override
 	public String toMrz() {
 		// first line
@@ -129,15 +129,12 @@ public class MrzDate implements Serializable, Comparable<MrzDate> {
 
 	private boolean check() {
 		if (getYear() < 0 || getYear() > 99) {
-			System.out.println("Parameter year: invalid value " + getYear() + ": must be 0..99");
 			return false;
 		}
 		if (getMonth() < 1 || getMonth() > 12) {
-			System.out.println("Parameter month: invalid value " + getMonth() + ": must be 1..12");
 			return false;
 		}
 		if (getDay() < 1 || getDay() > 31) {
-			System.out.println("Parameter day: invalid value " + getDay() + ": must be 1..31");
 			return false;
 		}
 
@@ -21,7 +21,10 @@
  */
 package com.github.rarspace01.mrz.types
 
+import com.github.rarspace01.mrz.MrzDiagnosticReason
+import com.github.rarspace01.mrz.MrzDiagnostics
 import com.github.rarspace01.mrz.MrzParseException
+import com.github.rarspace01.mrz.MrzParser
 import com.github.rarspace01.mrz.MrzRange
 
 /**
@@ -66,6 +69,42 @@ enum class MrzDocumentCode {
     MIGRANT;
 
     companion object {
+        /**
+         * Number of characters the lookup table distinguishes.
+         */
+        private const val CODE_CHARS = 128
+
+        /**
+         * Document codes indexed by [first character][second character], null rows for unsupported first characters.
+         */
+        private val BY_CODE: Array<Array<MrzDocumentCode?>?> = arrayOfNulls(CODE_CHARS)
+
+        init {
+            // General types by the first character
+            register('T', PASSPORT)
+            register('P', PASSPORT)
+            register('A', TYPE_A)
+            register('C', TYPE_C)
+            register('V', TYPE_V)
+            register('I', TYPE_I) // identity card or residence permit
+            register('R', MIGRANT) // swedish '51 Convention Travel Document
+            // Specific two character codes
+            register('A', 'C', CREW_MEMBER)
+            register('M', 'E', MIGRANT)
+            register('T', 'D', MIGRANT) // travel document
+            register('P', 'T', MIGRANT)
+            register('I', 'P', PASSPORT)
+        }
+
+        private fun register(code1: Char, type: MrzDocumentCode) {
+            BY_CODE[code1.code] = arrayOfNulls<MrzDocumentCode>(CODE_CHARS).also { it.fill(type) }
+        }
+
+        private fun register(code1: Char, code2: Char, type: MrzDocumentCode) {
+            val row = BY_CODE[code1.code] ?: arrayOfNulls<MrzDocumentCode>(CODE_CHARS).also { BY_CODE[code1.code] = it }
+            row[code2.code] = type
+        }
+
         /**
          * @author Zsombor turning to switch statement due to lots of types
          *
@@ -75,27 +114,43 @@ enum class MrzDocumentCode {
          */
         @JvmStatic
 		@Throws(MrzParseException::class)
-        fun parse(mrz: String): MrzDocumentCode? {
-            val code = mrz.substring(0, 2)
-            when (code) {
-                "IV" -> throw MrzParseException("IV document code is not allowed", mrz, MrzRange(0, 2, 0), null) // TODO why?
-                "AC" -> return CREW_MEMBER
-                "ME" -> return MIGRANT
-                "TD" -> return MIGRANT // travel document
-                "PT" -> return MIGRANT
-                "IP" -> return PASSPORT
-                else -> {}
+        fun parse(mrz: String): MrzDocumentCode? = parse(mrz[0], mrz[1], MrzDiagnostics.NONE) { mrz }
+
+        /**
+         * Parses the document code from the first two characters of the MRZ record held by given parser.
+         *
+         * @param parser the parser holding the MRZ record
+         * @return the mrz document code
+         * @throws MrzParseException could not parse MRZ
+         */
+        @JvmStatic
+        @Throws(MrzParseException::class)
+        fun parse(parser: MrzParser): MrzDocumentCode? = parse(parser.charAt(0, 0), parser.charAt(1, 0), parser.diagnostics) { parser.mrz }
+
+        /**
+         * Looks up the document code in a precomputed table, without allocating.
+         *
+         * @param code1 the first document code character
+         * @param code2 the second document code character
+         * @return the mrz document code, null if not supported or not allowed.
+         */
+        @JvmStatic
+        fun lookup(code1: Char, code2: Char): MrzDocumentCode? {
+            if (code1.code >= CODE_CHARS || code2.code >= CODE_CHARS || (code1 == 'I' && code2 == 'V')) {
+                return null
+            }
+            return BY_CODE[code1.code]?.get(code2.code)
+        }
+
+        private inline fun parse(code1: Char, code2: Char, diagnostics: MrzDiagnostics, mrz: () -> String): MrzDocumentCode? {
+            if (code1 == 'I' && code2 == 'V') {
+                throw MrzParseException("IV document code is not allowed", mrz(), MrzRange(0, 2, 0), null) // TODO why?
             }
-            return when (code[0]) {
-                'T', 'P' -> PASSPORT
-                'A' -> TYPE_A
-                'C' -> TYPE_C
-                'V' -> TYPE_V
-                'I' -> TYPE_I // identity card or residence permit
-                'R' -> MIGRANT // swedish '51 Convention Travel Document
-                else -> {println("Unsupported document code: $code $mrz"); null
-                }
+            val code = lookup(code1, code2)
+            if (code == null && diagnostics !== MrzDiagnostics.NONE) {
+                diagnostics.report(MrzDiagnosticReason.UNSUPPORTED_DOCUMENT_CODE, MrzField.DOCUMENT_CODE, MrzRange(0, 2, 0), MrzDiagnostics.NO_CHARACTER, code1)
             }
+            return code
         }
     }
 }
@@ -0,0 +1,84 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz.types;
+
+/**
+ * Lists the fields a MRZ record may consist of. The position of each field within a given format is described by {@link MrzLayout}.
+ */
+public enum MrzField {
+
+	/**
+	 * The two character document code, see {@link MrzDocumentCode}.
+	 */
+	DOCUMENT_CODE,
+	/**
+	 * Issuing country or organization.
+	 */
+	ISSUING_COUNTRY,
+	/**
+	 * Surname and given names, separated by &lt;&lt;.
+	 */
+	NAMES,
+	/**
+	 * Surname, for formats which store it separately from the given names.
+	 */
+	SURNAME,
+	/**
+	 * Given names, for formats which store them separately from the surname.
+	 */
+	GIVEN_NAMES,
+	/**
+	 * Document number.
+	 */
+	DOCUMENT_NUMBER,
+	/**
+	 * Nationality.
+	 */
+	NATIONALITY,
+	/**
+	 * Date of birth.
+	 */
+	DATE_OF_BIRTH,
+	/**
+	 * Sex.
+	 */
+	SEX,
+	/**
+	 * Expiration date.
+	 */
+	EXPIRATION_DATE,
+	/**
+	 * Personal number.
+	 */
+	PERSONAL_NUMBER,
+	/**
+	 * Optional data.
+	 */
+	OPTIONAL,
+	/**
+	 * Second optional data element.
+	 */
+	OPTIONAL2,
+	/**
+	 * The composite check digit over several fields. No layout has a range for it: it names the composite check digit in diagnostics
+	 * and requests its verification from {@link com.github.rarspace01.mrz.MrzParser#parse(CharSequence, java.util.EnumSet)}.
+	 */
+	COMPOSITE
+
+}
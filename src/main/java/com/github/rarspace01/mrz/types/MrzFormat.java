@@ -19,10 +19,16 @@
 package com.github.rarspace01.mrz.types;
 
 import com.github.rarspace01.mrz.MrzParseException;
+import com.github.rarspace01.mrz.MrzParser;
 import com.github.rarspace01.mrz.MrzRange;
 import com.github.rarspace01.mrz.MrzRecord;
 import com.github.rarspace01.mrz.records.*;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Lists all supported MRZ formats. Note that the order of the enum constants are important, see for example {@link  #FRENCH_ID}.
  *
@@ -33,84 +39,196 @@ public enum MrzFormat {
 	/**
 	 * MRTD td1 format: A three line long, 30 characters per line format.
 	 */
-	MRTD_TD1(3, 30, MrtdTd1.class),
+	MRTD_TD1(3, 30, "", MrtdTd1.class, MrzLayout.builder()
+			.field(MrzField.DOCUMENT_CODE, new MrzRange(0, 2, 0))
+			.field(MrzField.ISSUING_COUNTRY, new MrzRange(2, 5, 0))
+			.compositeField(MrzField.DOCUMENT_NUMBER, new MrzRange(5, 14, 0), 14)
+			.compositeField(MrzField.OPTIONAL, new MrzRange(15, 30, 0))
+			.compositeField(MrzField.DATE_OF_BIRTH, new MrzRange(0, 6, 1), 6)
+			.field(MrzField.SEX, new MrzRange(7, 8, 1))
+			.compositeField(MrzField.EXPIRATION_DATE, new MrzRange(8, 14, 1), 14)
+			.field(MrzField.NATIONALITY, new MrzRange(15, 18, 1))
+			.compositeField(MrzField.OPTIONAL2, new MrzRange(18, 29, 1))
+			.field(MrzField.NAMES, new MrzRange(0, 30, 2))
+			.composite(29, 1)
+			.build()),
 	/**
 	 * French 2 line/36 characters per line format, used with French ID cards. Need to occur before the {@link #MRTD_TD2} enum constant because of the
-	 * same values for row/column. See below for the "if" test.
+	 * same values for row/column. Recognized by the "IDFRA" prefix.
 	 */
-	FRENCH_ID(2, 36, FrenchIdCard.class) {
-
-		@Override
-		public boolean isFormatOf(final String[] mrzRows) {
-			if (!super.isFormatOf(mrzRows)) {
-				return false;
-			}
-			return mrzRows[0].startsWith("IDFRA");
-		}
-	},
+	FRENCH_ID(2, 36, "IDFRA", FrenchIdCard.class, MrzLayout.builder()
+			.compositeField(MrzField.DOCUMENT_CODE, new MrzRange(0, 2, 0))
+			.compositeField(MrzField.ISSUING_COUNTRY, new MrzRange(2, 5, 0))
+			.field(MrzField.NATIONALITY, new MrzRange(2, 5, 0))
+			.compositeField(MrzField.SURNAME, new MrzRange(5, 30, 0))
+			.compositeField(MrzField.OPTIONAL, new MrzRange(30, 36, 0))
+			.compositeField(MrzField.DOCUMENT_NUMBER, new MrzRange(0, 12, 1), 12)
+			.compositeField(MrzField.GIVEN_NAMES, new MrzRange(13, 27, 1))
+			.compositeField(MrzField.DATE_OF_BIRTH, new MrzRange(27, 33, 1), 33)
+			.compositeField(MrzField.SEX, new MrzRange(34, 35, 1))
+			.composite(35, 1)
+			// TODO expirationDate is missing
+			.build()),
 	/**
 	 * MRV type-B format: A two lines long, 36 characters per line format. Need to occur before the {@link #MRTD_TD2} enum constant because of the
-	 * same values for row/column. See below for the "if" test.
+	 * same values for row/column. Recognized by the "V" prefix.
 	 */
-	MRV_VISA_B(2, 36, MrvB.class) {
-
-		@Override
-		public boolean isFormatOf(final String[] mrzRows) {
-			if (!super.isFormatOf(mrzRows)) {
-				return false;
-			}
-			return mrzRows[0].charAt(0) == 'V';
-		}
-	},
+	MRV_VISA_B(2, 36, "V", MrvB.class, MrzLayout.builder()
+			.field(MrzField.DOCUMENT_CODE, new MrzRange(0, 2, 0))
+			.field(MrzField.ISSUING_COUNTRY, new MrzRange(2, 5, 0))
+			.field(MrzField.NAMES, new MrzRange(5, 36, 0))
+			.field(MrzField.DOCUMENT_NUMBER, new MrzRange(0, 9, 1), 9)
+			.field(MrzField.NATIONALITY, new MrzRange(10, 13, 1))
+			.field(MrzField.DATE_OF_BIRTH, new MrzRange(13, 19, 1), 19)
+			.field(MrzField.SEX, new MrzRange(20, 21, 1))
+			.field(MrzField.EXPIRATION_DATE, new MrzRange(21, 27, 1), 27)
+			.field(MrzField.OPTIONAL, new MrzRange(28, 36, 1))
+			// TODO validComposite missing? (full MRZ line)
+			.build()),
 	/**
 	 * MRTD td2 format: A two line long, 36 characters per line format.
 	 */
-	MRTD_TD2(2, 36, MrtdTd2.class),
+	MRTD_TD2(2, 36, "", MrtdTd2.class, MrzLayout.builder()
+			.field(MrzField.DOCUMENT_CODE, new MrzRange(0, 2, 0))
+			.field(MrzField.ISSUING_COUNTRY, new MrzRange(2, 5, 0))
+			.field(MrzField.NAMES, new MrzRange(5, 36, 0))
+			.compositeField(MrzField.DOCUMENT_NUMBER, new MrzRange(0, 9, 1), 9)
+			.field(MrzField.NATIONALITY, new MrzRange(10, 13, 1))
+			.compositeField(MrzField.DATE_OF_BIRTH, new MrzRange(13, 19, 1), 19)
+			.field(MrzField.SEX, new MrzRange(20, 21, 1))
+			.compositeField(MrzField.EXPIRATION_DATE, new MrzRange(21, 27, 1), 27)
+			.compositeField(MrzField.OPTIONAL, new MrzRange(28, 35, 1))
+			.composite(35, 1)
+			.build()),
 	/**
 	 * German Travel Pass format: Two row, 44 characters per line format.
 	 */
-	TRAVEL_PASS(2, 44, PTD.class){
+	TRAVEL_PASS(2, 44, "PTD", PTD.class, MrzLayout.builder()
+			.field(MrzField.DOCUMENT_CODE, new MrzRange(0, 2, 0))
+			.field(MrzField.ISSUING_COUNTRY, new MrzRange(2, 5, 0))
+			.field(MrzField.NAMES, new MrzRange(5, 44, 0))
+			.compositeField(MrzField.DOCUMENT_NUMBER, new MrzRange(0, 9, 1), 9)
+			.field(MrzField.NATIONALITY, new MrzRange(10, 13, 1))
+			.compositeField(MrzField.DATE_OF_BIRTH, new MrzRange(13, 19, 1), 19)
+			.field(MrzField.SEX, new MrzRange(20, 21, 1))
+			.compositeField(MrzField.EXPIRATION_DATE, new MrzRange(21, 27, 1), 27)
+			.compositeField(MrzField.PERSONAL_NUMBER, new MrzRange(28, 42, 1), 42)
+			.composite(43, 1)
+			.build()) {
 
 		@Override
-		public boolean isFormatOf(final String[] mrzRows) {
-			if (!super.isFormatOf(mrzRows)) {
+		boolean matches(final CharSequence source, final int firstRow, final int secondRow) {
+			if (!super.matches(source, firstRow, secondRow)) {
 				return false;
 			}
-			return mrzRows[0].startsWith("PTD") && !mrzRows[1].substring(0, 10).contains("<");
+			for (int col = 0; col < 10; col++) {
+				if (source.charAt(secondRow + col) == MrzParser.FILLER) {
+					return false;
+				}
+			}
+			return true;
 		}
 	},
 	/**
 	 * MRV type-A format: A two lines long, 44 characters per line format Need to occur before {@link #PASSPORT} constant because of the same values
-	 * for row/column. See below for the "if" test.
+	 * for row/column. Recognized by the "V" prefix.
 	 */
-	MRV_VISA_A(2, 44, MrvA.class) {
-
-		@Override
-		public boolean isFormatOf(final String[] mrzRows) {
-			if (!super.isFormatOf(mrzRows)) {
-				return false;
-			}
-			return mrzRows[0].charAt(0) == 'V';
-		}
-	},
+	MRV_VISA_A(2, 44, "V", MrvA.class, MrzLayout.builder()
+			.field(MrzField.DOCUMENT_CODE, new MrzRange(0, 2, 0))
+			.field(MrzField.ISSUING_COUNTRY, new MrzRange(2, 5, 0))
+			.field(MrzField.NAMES, new MrzRange(5, 44, 0))
+			.field(MrzField.DOCUMENT_NUMBER, new MrzRange(0, 9, 1), 9)
+			.field(MrzField.NATIONALITY, new MrzRange(10, 13, 1))
+			.field(MrzField.DATE_OF_BIRTH, new MrzRange(13, 19, 1), 19)
+			.field(MrzField.SEX, new MrzRange(20, 21, 1))
+			.field(MrzField.EXPIRATION_DATE, new MrzRange(21, 27, 1), 27)
+			.field(MrzField.OPTIONAL, new MrzRange(28, 44, 1))
+			// TODO validComposite missing? (final MRZ check digit)
+			.build()),
 	/**
 	 * MRP Passport format: A two line long, 44 characters per line format.
 	 */
-	PASSPORT(2, 44, MRP.class),
+	PASSPORT(2, 44, "", MRP.class, MrzLayout.builder()
+			.field(MrzField.DOCUMENT_CODE, new MrzRange(0, 2, 0))
+			.field(MrzField.ISSUING_COUNTRY, new MrzRange(2, 5, 0))
+			.field(MrzField.NAMES, new MrzRange(5, 44, 0))
+			.compositeField(MrzField.DOCUMENT_NUMBER, new MrzRange(0, 9, 1), 9)
+			.field(MrzField.NATIONALITY, new MrzRange(10, 13, 1))
+			.compositeField(MrzField.DATE_OF_BIRTH, new MrzRange(13, 19, 1), 19)
+			.field(MrzField.SEX, new MrzRange(20, 21, 1))
+			.compositeField(MrzField.EXPIRATION_DATE, new MrzRange(21, 27, 1), 27)
+			.compositeField(MrzField.PERSONAL_NUMBER, new MrzRange(28, 42, 1), 42)
+			.composite(43, 1)
+			.build()),
 	/**
 	 * Unknown 2 line/34 characters per line format, used with old Slovak ID cards.
 	 */
-	SLOVAK_ID_234(2, 34, SlovakId2x34.class);
+	SLOVAK_ID_234(2, 34, "", SlovakId2x34.class, MrzLayout.builder()
+			.field(MrzField.DOCUMENT_CODE, new MrzRange(0, 2, 0))
+			.field(MrzField.ISSUING_COUNTRY, new MrzRange(2, 5, 0))
+			.field(MrzField.NAMES, new MrzRange(5, 34, 0))
+			.field(MrzField.DOCUMENT_NUMBER, new MrzRange(0, 9, 1), 9)
+			.field(MrzField.NATIONALITY, new MrzRange(10, 13, 1))
+			.field(MrzField.DATE_OF_BIRTH, new MrzRange(13, 19, 1), 19)
+			.field(MrzField.SEX, new MrzRange(20, 21, 1))
+			.field(MrzField.EXPIRATION_DATE, new MrzRange(21, 27, 1), 27)
+			.field(MrzField.OPTIONAL, new MrzRange(28, 34, 1))
+			// TODO validComposite missing? (final MRZ check digit)
+			.build());
 
+	/**
+	 * Highest number of rows of any format.
+	 */
+	private static final int MAX_ROWS = 3;
+	/**
+	 * Highest number of columns of any format.
+	 */
+	private static final int MAX_COLUMNS = 44;
+	/**
+	 * Number of first row characters the dispatch table distinguishes, others are looked up as character 0.
+	 */
+	private static final int DISPATCH_CHARS = 128;
+	/**
+	 * Candidate formats, in enum order, indexed by [rows * (MAX_COLUMNS + 1) + columns][first character]. Null for unsupported row/column counts.
+	 */
+	private static final MrzFormat[][][] DISPATCH = new MrzFormat[(MAX_ROWS + 1) * (MAX_COLUMNS + 1)][][];
+	private static final MrzFormat[] NO_FORMATS = new MrzFormat[0];
+
+	static {
+		final Map<List<MrzFormat>, MrzFormat[]> shared = new HashMap<>();
+		for (final MrzFormat format : values()) {
+			final int shape = format.getRows() * (MAX_COLUMNS + 1) + format.getColumns();
+			if (DISPATCH[shape] != null) {
+				continue;
+			}
+			DISPATCH[shape] = new MrzFormat[DISPATCH_CHARS][];
+			for (int c = 0; c < DISPATCH_CHARS; c++) {
+				final List<MrzFormat> candidates = new ArrayList<>();
+				for (final MrzFormat f : values()) {
+					if (f.getRows() == format.getRows() && f.getColumns() == format.getColumns() && (f.prefix.isEmpty() || f.prefix.charAt(0) == c)) {
+						candidates.add(f);
+					}
+				}
+				DISPATCH[shape][c] = shared.computeIfAbsent(candidates, l -> l.toArray(new MrzFormat[0]));
+			}
+		}
+	}
 
 	private final int rows;
 	private final int columns;
+	/**
+	 * Characters the first row starts with, empty if any.
+	 */
+	private final String prefix;
 	private final Class<? extends MrzRecord> recordClass;
+	private final MrzLayout layout;
 
-	private MrzFormat(final int rows, final int columns, final Class<? extends MrzRecord> recordClass) {
+	private MrzFormat(final int rows, final int columns, final String prefix, final Class<? extends MrzRecord> recordClass, final MrzLayout layout) {
 		this.rows = rows;
 		this.columns = columns;
+		this.prefix = prefix;
 		this.recordClass = recordClass;
+		this.layout = layout;
 	}
 
 	/**
@@ -127,6 +245,14 @@ public enum MrzFormat {
 		return columns;
 	}
 
+	/**
+	 * @return the characters the first row starts with, empty if any. Formats of the same size are told apart by the prefix, see
+	 * {@link #find(CharSequence, int, int, int, int)}.
+	 */
+	public final String getPrefix() {
+		return prefix;
+	}
+
 	/**
 	 * @return the recordClass
 	 */
@@ -134,6 +260,13 @@ public enum MrzFormat {
 		return recordClass;
 	}
 
+	/**
+	 * @return the layout of the fields
+	 */
+	public final MrzLayout getLayout() {
+		return layout;
+	}
+
 	/**
 	 * Checks if this format is able to parse given serialized MRZ record.
 	 *
@@ -141,7 +274,44 @@ public enum MrzFormat {
 	 * @return true if given MRZ record is of this type, false otherwise.
 	 */
 	public boolean isFormatOf(final String[] mrzRows) {
-		return getRows() == mrzRows.length && getColumns() == mrzRows[0].length();
+		if (getRows() != mrzRows.length || getColumns() != mrzRows[0].length()) {
+			return false;
+		}
+		try {
+			return isFormatOf(new MrzParser(String.join("\n", mrzRows)));
+		} catch (MrzParseException ex) {
+			return false;
+		}
+	}
+
+	/**
+	 * Checks if this format is able to parse the MRZ record whose rows were located by given parser.
+	 *
+	 * @param parser the parser holding the MRZ record.
+	 * @return true if given MRZ record is of this type, false otherwise.
+	 */
+	public boolean isFormatOf(final MrzParser parser) {
+		if (getRows() != parser.getRowCount() || getColumns() != parser.getColumns()) {
+			return false;
+		}
+		return matches(parser.getSource(), parser.getRowOffset(0), parser.getRowOffset(1));
+	}
+
+	/**
+	 * Checks the content of a MRZ record which already has the size of this format.
+	 *
+	 * @param source the buffer holding the MRZ record.
+	 * @param firstRow index of the first character of the first row.
+	 * @param secondRow index of the first character of the second row.
+	 * @return true if given MRZ record is of this type, false otherwise.
+	 */
+	boolean matches(final CharSequence source, final int firstRow, final int secondRow) {
+		for (int i = 0; i < prefix.length(); i++) {
+			if (source.charAt(firstRow + i) != prefix.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	/**
@@ -152,19 +322,58 @@ public enum MrzFormat {
 	 * @throws MrzParseException could not parse MRZ
 	 */
 	public static MrzFormat get(final String mrz) throws MrzParseException {
-		final String[] rows = mrz.split("\n");
-		final int cols = rows[0].length();
-		for (int i = 1; i < rows.length; i++) {
-			if (rows[i].length() != cols) {
-				throw new MrzParseException("Different row lengths: 0: " + cols + " and " + i + ": " + rows[i].length(), mrz, new MrzRange(0, 0, 0), null);
-			}
+		return new MrzParser(mrz).getFormat();
+	}
+
+	/**
+	 * Detects the format of the MRZ record whose rows were located by given parser.
+	 *
+	 * @param parser the parser holding the MRZ record.
+	 * @return the format, never null.
+	 * @throws MrzParseException could not parse MRZ
+	 */
+	public static MrzFormat get(final MrzParser parser) throws MrzParseException {
+		final MrzFormat format = find(parser.getSource(), parser.getRowOffset(0), parser.getRowOffset(1), parser.getRowCount(), parser.getColumns());
+		if (format != null) {
+			return format;
 		}
-		for (final MrzFormat f : values()) {
-			if (f.isFormatOf(rows)) {
+		throw new MrzParseException("Unknown format / unsupported number of cols/rows: " + parser.getColumns() + "/" + parser.getRowCount(), parser.getMrz(), new MrzRange(0, 0, 0), null);
+	}
+
+	/**
+	 * Detects the format of a MRZ record stored in a buffer, reading the characters in place. Does not allocate.
+	 *
+	 * @param source the buffer holding the MRZ record.
+	 * @param firstRow index of the first character of the first row.
+	 * @param secondRow index of the first character of the second row, ignored for single row records.
+	 * @param rowCount the number of rows.
+	 * @param columnCount the number of characters per row.
+	 * @return the format, null if the record has no known format.
+	 */
+	public static MrzFormat find(final CharSequence source, final int firstRow, final int secondRow, final int rowCount, final int columnCount) {
+		for (final MrzFormat f : getCandidates(source, firstRow, rowCount, columnCount)) {
+			if (f.matches(source, firstRow, secondRow)) {
 				return f;
 			}
 		}
-		throw new MrzParseException("Unknown format / unsupported number of cols/rows: " + cols + "/" + rows.length, mrz, new MrzRange(0, 0, 0), null);
+		return null;
+	}
+
+	/**
+	 * Looks up the formats which may match a MRZ of given size, using the precomputed dispatch table. Does not allocate.
+	 *
+	 * @return the candidate formats in enum order, empty if no format has given size.
+	 */
+	private static MrzFormat[] getCandidates(final CharSequence source, final int firstRow, final int rowCount, final int columnCount) {
+		if (rowCount > MAX_ROWS || columnCount > MAX_COLUMNS) {
+			return NO_FORMATS;
+		}
+		final MrzFormat[][] byFirstChar = DISPATCH[rowCount * (MAX_COLUMNS + 1) + columnCount];
+		if (byFirstChar == null) {
+			return NO_FORMATS;
+		}
+		final char first = source.charAt(firstRow);
+		return byFirstChar[first < DISPATCH_CHARS ? first : 0];
 	}
 
 	/**
@@ -0,0 +1,323 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz.types;
+
+import com.github.rarspace01.mrz.MrzRange;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable description of the fields of a MRZ format: the position of every field, of its check digit and the parts of the record covered by
+ * the composite check digit. Built once per {@link MrzFormat} and compiled into flat arrays, so decoding a record is a single loop over the
+ * field indexes.
+ */
+public final class MrzLayout {
+
+	/**
+	 * Value of the check digit column for fields without check digit.
+	 */
+	public static final int NO_CHECK_DIGIT = -1;
+
+	private final MrzField[] fields;
+	private final MrzRange[] ranges;
+	/**
+	 * Flat table of {row, column, columnTo, checkDigitColumn} quadruples, one per field.
+	 */
+	private final int[] offsets;
+	private final boolean[] compositeMembers;
+	/**
+	 * Field index by {@link MrzField#ordinal()}, -1 for fields not present in the format.
+	 */
+	private final int[] indexByField;
+	private final List<MrzRange> compositeRanges;
+	private final int compositeColumn;
+	private final int compositeRow;
+
+	private MrzLayout(final Builder builder) {
+		final int size = builder.fields.size();
+		this.fields = builder.fields.toArray(new MrzField[0]);
+		this.ranges = builder.ranges.toArray(new MrzRange[0]);
+		this.offsets = new int[size * 4];
+		this.compositeMembers = new boolean[size];
+		this.indexByField = new int[MrzField.values().length];
+		Arrays.fill(indexByField, -1);
+		final List<MrzRange> composite = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			final MrzRange range = ranges[i];
+			final int checkDigitColumn = builder.checkDigitColumns.get(i);
+			offsets[i * 4] = range.getRow();
+			offsets[i * 4 + 1] = range.getColumn();
+			offsets[i * 4 + 2] = range.getColumnTo();
+			offsets[i * 4 + 3] = checkDigitColumn;
+			compositeMembers[i] = builder.compositeMembers.get(i);
+			if (indexByField[fields[i].ordinal()] < 0) {
+				indexByField[fields[i].ordinal()] = i;
+			}
+			if (compositeMembers[i]) {
+				// The composite check digit covers the field together with its check digit, adjacent parts are merged
+				final int columnTo = checkDigitColumn == NO_CHECK_DIGIT ? range.getColumnTo() : checkDigitColumn + 1;
+				final MrzRange last = composite.isEmpty() ? null : composite.get(composite.size() - 1);
+				if (last != null && last.getRow() == range.getRow() && last.getColumnTo() == range.getColumn()) {
+					composite.set(composite.size() - 1, new MrzRange(last.getColumn(), columnTo, range.getRow()));
+				} else {
+					composite.add(new MrzRange(range.getColumn(), columnTo, range.getRow()));
+				}
+			}
+		}
+		this.compositeRanges = Collections.unmodifiableList(composite);
+		this.compositeColumn = builder.compositeColumn;
+		this.compositeRow = builder.compositeRow;
+	}
+
+	/**
+	 * @return a new builder of a layout
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * @return the number of fields
+	 */
+	public int size() {
+		return fields.length;
+	}
+
+	/**
+	 * @param index the field index, 0..{@link #size()}-1
+	 * @return the field
+	 */
+	public MrzField getField(final int index) {
+		return fields[index];
+	}
+
+	/**
+	 * @param index the field index, 0..{@link #size()}-1
+	 * @return the range of the field
+	 */
+	public MrzRange getRange(final int index) {
+		return ranges[index];
+	}
+
+	/**
+	 * @param index the field index, 0..{@link #size()}-1
+	 * @return the 0-based row of the field
+	 */
+	public int getRow(final int index) {
+		return offsets[index * 4];
+	}
+
+	/**
+	 * @param index the field index, 0..{@link #size()}-1
+	 * @return the 0-based index of the first character of the field
+	 */
+	public int getColumn(final int index) {
+		return offsets[index * 4 + 1];
+	}
+
+	/**
+	 * @param index the field index, 0..{@link #size()}-1
+	 * @return the 0-based index of the character after the last character of the field
+	 */
+	public int getColumnTo(final int index) {
+		return offsets[index * 4 + 2];
+	}
+
+	/**
+	 * @param index the field index, 0..{@link #size()}-1
+	 * @return the 0-based column of the check digit of the field, on the same row, or {@link #NO_CHECK_DIGIT}
+	 */
+	public int getCheckDigitColumn(final int index) {
+		return offsets[index * 4 + 3];
+	}
+
+	/**
+	 * @param index the field index, 0..{@link #size()}-1
+	 * @return true if the field has a check digit
+	 */
+	public boolean hasCheckDigit(final int index) {
+		return offsets[index * 4 + 3] != NO_CHECK_DIGIT;
+	}
+
+	/**
+	 * @param index the field index, 0..{@link #size()}-1
+	 * @return true if the field, including its check digit, is covered by the composite check digit
+	 */
+	public boolean isCompositeMember(final int index) {
+		return compositeMembers[index];
+	}
+
+	/**
+	 * @param field the field
+	 * @return the index of the first occurrence of the field, -1 if the format does not contain it
+	 */
+	public int indexOf(final MrzField field) {
+		return indexByField[field.ordinal()];
+	}
+
+	/**
+	 * @param field the field
+	 * @return the range of the field, null if the format does not contain it
+	 */
+	public MrzRange getRange(final MrzField field) {
+		final int index = indexOf(field);
+		return index < 0 ? null : ranges[index];
+	}
+
+	/**
+	 * @return true if the format has a composite check digit
+	 */
+	public boolean hasComposite() {
+		return compositeColumn != NO_CHECK_DIGIT;
+	}
+
+	/**
+	 * @return the 0-based column of the composite check digit, or {@link #NO_CHECK_DIGIT}
+	 */
+	public int getCompositeColumn() {
+		return compositeColumn;
+	}
+
+	/**
+	 * @return the 0-based row of the composite check digit
+	 */
+	public int getCompositeRow() {
+		return compositeRow;
+	}
+
+	/**
+	 * @return the ranges the composite check digit is computed from, in order, never null.
+	 */
+	public List<MrzRange> getCompositeRanges() {
+		return compositeRanges;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder("{");
+		for (int i = 0; i < fields.length; i++) {
+			if (i > 0) {
+				sb.append(", ");
+			}
+			sb.append(fields[i]).append('=').append(ranges[i]);
+			if (hasCheckDigit(i)) {
+				sb.append('/').append(getCheckDigitColumn(i));
+			}
+		}
+		if (hasComposite()) {
+			sb.append(", composite=").append(compositeRanges).append('/').append(compositeColumn).append(',').append(compositeRow);
+		}
+		return sb.append('}').toString();
+	}
+
+	/**
+	 * Collects the fields of a layout, in MRZ order.
+	 */
+	public static final class Builder {
+
+		private final List<MrzField> fields = new ArrayList<>();
+		private final List<MrzRange> ranges = new ArrayList<>();
+		private final List<Integer> checkDigitColumns = new ArrayList<>();
+		private final List<Boolean> compositeMembers = new ArrayList<>();
+		private int compositeColumn = NO_CHECK_DIGIT;
+		private int compositeRow;
+
+		private Builder() {
+			// Use MrzLayout.builder()
+		}
+
+		/**
+		 * Adds a field without check digit which is not covered by the composite check digit.
+		 *
+		 * @param field the field
+		 * @param range the range of the field
+		 * @return this builder
+		 */
+		public Builder field(final MrzField field, final MrzRange range) {
+			return add(field, range, NO_CHECK_DIGIT, false);
+		}
+
+		/**
+		 * Adds a field which has a check digit on the same row, not covered by the composite check digit.
+		 *
+		 * @param field the field
+		 * @param range the range of the field
+		 * @param checkDigitColumn the 0-based column of the check digit
+		 * @return this builder
+		 */
+		public Builder field(final MrzField field, final MrzRange range, final int checkDigitColumn) {
+			return add(field, range, checkDigitColumn, false);
+		}
+
+		/**
+		 * Adds a field without check digit, covered by the composite check digit.
+		 *
+		 * @param field the field
+		 * @param range the range of the field
+		 * @return this builder
+		 */
+		public Builder compositeField(final MrzField field, final MrzRange range) {
+			return add(field, range, NO_CHECK_DIGIT, true);
+		}
+
+		/**
+		 * Adds a field which has a check digit on the same row, both covered by the composite check digit.
+		 *
+		 * @param field the field
+		 * @param range the range of the field
+		 * @param checkDigitColumn the 0-based column of the check digit
+		 * @return this builder
+		 */
+		public Builder compositeField(final MrzField field, final MrzRange range, final int checkDigitColumn) {
+			return add(field, range, checkDigitColumn, true);
+		}
+
+		/**
+		 * Sets the position of the composite check digit.
+		 *
+		 * @param col the 0-based column of the composite check digit
+		 * @param row the 0-based row of the composite check digit
+		 * @return this builder
+		 */
+		public Builder composite(final int col, final int row) {
+			this.compositeColumn = col;
+			this.compositeRow = row;
+			return this;
+		}
+
+		private Builder add(final MrzField field, final MrzRange range, final int checkDigitColumn, final boolean compositeMember) {
+			fields.add(field);
+			ranges.add(range);
+			checkDigitColumns.add(checkDigitColumn);
+			compositeMembers.add(compositeMember);
+			return this;
+		}
+
+		/**
+		 * @return the immutable layout
+		 */
+		public MrzLayout build() {
+			return new MrzLayout(this);
+		}
+	}
+
+}
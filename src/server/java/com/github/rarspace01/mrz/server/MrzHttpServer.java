@@ -0,0 +1,191 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz.server;
+
+import com.github.rarspace01.mrz.MrzParser;
+import com.github.rarspace01.mrz.MrzStreamReader;
+import com.github.rarspace01.mrz.ParseResult;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Small embedded HTTP parsing service on the JDK {@link HttpServer}. Requests are handled on virtual threads when the runtime provides
+ * them (Java 21+), on a cached thread pool otherwise.
+ * <ul>
+ * <li>{@code POST /parse}: the body is one MRZ record, rows separated by {@code \n} or {@code \r\n}. The response is a JSON object with
+ * the record fields and validity flags, or the failure, its message and range.</li>
+ * <li>{@code POST /parse/batch}: the body is a stream of records read by {@link MrzStreamReader}, the response streams one JSON object
+ * per record as NDJSON, in the order of the records.</li>
+ * </ul>
+ */
+public class MrzHttpServer implements Closeable {
+
+	/**
+	 * Port used by {@link #main(String[])} when none is given.
+	 */
+	public static final int DEFAULT_PORT = 8080;
+
+	/**
+	 * Largest accepted body of a single parse, far more than the longest MRZ.
+	 */
+	private static final int MAX_RECORD_LENGTH = 1024;
+
+	private static final String JSON = "application/json";
+	private static final String NDJSON = "application/x-ndjson";
+
+	private final HttpServer server;
+	private final ExecutorService executor;
+
+	/**
+	 * Creates and starts the server.
+	 *
+	 * @param address the address to listen on, port 0 picks a free port
+	 * @throws IOException if the server cannot be bound.
+	 */
+	public MrzHttpServer(final InetSocketAddress address) throws IOException {
+		server = HttpServer.create(address, 0);
+		executor = newExecutor();
+		server.setExecutor(executor);
+		server.createContext("/parse", this::parse);
+		server.createContext("/parse/batch", this::parseBatch);
+		server.start();
+	}
+
+	/**
+	 * @return the address the server listens on.
+	 */
+	public InetSocketAddress getAddress() {
+		return server.getAddress();
+	}
+
+	/**
+	 * Stops the server, waiting up to a second for running exchanges.
+	 */
+	@Override
+	public void close() {
+		server.stop(1);
+		executor.shutdown();
+	}
+
+	/**
+	 * @return a virtual thread per task executor when available, a cached thread pool otherwise.
+	 */
+	static ExecutorService newExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException ex) {
+			return Executors.newCachedThreadPool();
+		}
+	}
+
+	private void parse(final HttpExchange exchange) throws IOException {
+		try (exchange) {
+			if (!"/parse".equals(exchange.getRequestURI().getPath())) {
+				exchange.sendResponseHeaders(404, -1);
+				return;
+			}
+			if (!isPost(exchange)) {
+				return;
+			}
+			final String mrz = readRecord(exchange.getRequestBody());
+			if (mrz == null) {
+				exchange.sendResponseHeaders(413, -1);
+				return;
+			}
+			final byte[] body = MrzJson.append(new StringBuilder(), MrzParser.tryParse(mrz)).toString().getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", JSON);
+			exchange.sendResponseHeaders(200, body.length);
+			exchange.getResponseBody().write(body);
+		}
+	}
+
+	private void parseBatch(final HttpExchange exchange) throws IOException {
+		try (exchange) {
+			if (!"/parse/batch".equals(exchange.getRequestURI().getPath())) {
+				exchange.sendResponseHeaders(404, -1);
+				return;
+			}
+			if (!isPost(exchange)) {
+				return;
+			}
+			exchange.getResponseHeaders().set("Content-Type", NDJSON);
+			exchange.sendResponseHeaders(200, 0);
+			final StringBuilder line = new StringBuilder(512);
+			try (MrzStreamReader reader = new MrzStreamReader(exchange.getRequestBody());
+				 Writer out = new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8)) {
+				while (reader.hasNext()) {
+					final ParseResult result = reader.next();
+					line.setLength(0);
+					MrzJson.append(line, result).append('\n');
+					out.append(line);
+					// the client may still be sending, each result goes out before the next record is read
+					out.flush();
+				}
+			}
+		}
+	}
+
+	private static boolean isPost(final HttpExchange exchange) throws IOException {
+		if ("POST".equals(exchange.getRequestMethod())) {
+			return true;
+		}
+		exchange.getResponseHeaders().set("Allow", "POST");
+		exchange.sendResponseHeaders(405, -1);
+		return false;
+	}
+
+	/**
+	 * @return the body without trailing line terminators, null if it is longer than {@link #MAX_RECORD_LENGTH}.
+	 */
+	private static String readRecord(final InputStream in) throws IOException {
+		final byte[] bytes = in.readNBytes(MAX_RECORD_LENGTH + 1);
+		if (bytes.length > MAX_RECORD_LENGTH) {
+			return null;
+		}
+		int length = bytes.length;
+		while (length > 0 && (bytes[length - 1] == '\n' || bytes[length - 1] == '\r')) {
+			length--;
+		}
+		return new String(bytes, 0, length, StandardCharsets.ISO_8859_1);
+	}
+
+	/**
+	 * Runs the server until the process is stopped.
+	 *
+	 * @param args the port, {@link #DEFAULT_PORT} by default
+	 * @throws IOException if the server cannot be bound.
+	 */
+	public static void main(final String[] args) throws IOException {
+		final int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+		final MrzHttpServer server = new MrzHttpServer(new InetSocketAddress(port));
+		Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+		System.out.println("MRZ parsing service listening on " + server.getAddress());
+	}
+
+}
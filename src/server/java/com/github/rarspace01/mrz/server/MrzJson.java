@@ -0,0 +1,143 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz.server;
+
+import com.github.rarspace01.mrz.MrzRange;
+import com.github.rarspace01.mrz.MrzRecord;
+import com.github.rarspace01.mrz.MrzRecordOptional;
+import com.github.rarspace01.mrz.ParseResult;
+import com.github.rarspace01.mrz.records.MRP;
+import com.github.rarspace01.mrz.records.MrtdTd1;
+import com.github.rarspace01.mrz.records.PTD;
+import com.github.rarspace01.mrz.types.MrzDate;
+
+/**
+ * Writes parse results as single line JSON objects.
+ */
+final class MrzJson {
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	/**
+	 * Prevent instantiation.
+	 */
+	private MrzJson() {
+	}
+
+	/**
+	 * Appends the result: the offset, and either the record fields and validity flags or the failure, its message and range.
+	 *
+	 * @param sb the JSON is appended here
+	 * @param result the parse result
+	 * @return sb
+	 */
+	static StringBuilder append(final StringBuilder sb, final ParseResult result) {
+		sb.append("{\"offset\":").append(result.getOffset()).append(",\"success\":").append(result.isSuccess());
+		if (result.isSuccess()) {
+			sb.append(",\"record\":");
+			appendRecord(sb, result.getRecord());
+		} else {
+			sb.append(",\"failure\":");
+			appendString(sb, result.getFailure().name());
+			sb.append(",\"message\":");
+			appendString(sb, result.getMessage());
+			sb.append(",\"format\":");
+			appendString(sb, result.getFormat() == null ? null : result.getFormat().name());
+			final MrzRange range = result.getRange();
+			sb.append(",\"range\":{\"row\":").append(range.getRow()).append(",\"column\":").append(range.getColumn())
+				.append(",\"columnTo\":").append(range.getColumnTo()).append('}');
+		}
+		return sb.append('}');
+	}
+
+	private static void appendRecord(final StringBuilder sb, final MrzRecord record) {
+		sb.append('{');
+		field(sb, "format", record.getFormat().name());
+		field(sb, "code", record.getCode() == null ? null : record.getCode().name());
+		field(sb, "code1", String.valueOf(record.getCode1()));
+		field(sb, "code2", String.valueOf(record.getCode2()));
+		field(sb, "issuingCountry", record.getIssuingCountry());
+		field(sb, "documentNumber", record.getDocumentNumber());
+		field(sb, "surname", record.getSurname());
+		field(sb, "givenNames", record.getGivenNames());
+		field(sb, "dateOfBirth", date(record.getDateOfBirth()));
+		field(sb, "sex", record.getSex() == null ? null : record.getSex().name());
+		field(sb, "expirationDate", date(record.getExpirationDate()));
+		field(sb, "nationality", record.getNationality());
+		if (record instanceof MrzRecordOptional) {
+			field(sb, "optional", ((MrzRecordOptional) record).getOptional());
+		}
+		if (record instanceof MrtdTd1) {
+			field(sb, "optional2", ((MrtdTd1) record).getOptional2());
+		}
+		Boolean validPersonalNumber = null;
+		if (record instanceof MRP) {
+			field(sb, "personalNumber", ((MRP) record).getPersonalNumber());
+			validPersonalNumber = ((MRP) record).isValidPersonalNumber();
+		} else if (record instanceof PTD) {
+			field(sb, "personalNumber", ((PTD) record).getPersonalNumber());
+			validPersonalNumber = ((PTD) record).isValidPersonalNumber();
+		}
+		sb.append("\"valid\":{\"documentNumber\":").append(record.isValidDocumentNumber())
+			.append(",\"dateOfBirth\":").append(record.isValidDateOfBirth())
+			.append(",\"expirationDate\":").append(record.isValidExpirationDate())
+			.append(",\"composite\":").append(record.isValidComposite());
+		if (validPersonalNumber != null) {
+			sb.append(",\"personalNumber\":").append(validPersonalNumber.booleanValue());
+		}
+		sb.append("}}");
+	}
+
+	private static String date(final MrzDate date) {
+		return date == null ? null : date.toMrz();
+	}
+
+	private static void field(final StringBuilder sb, final String name, final String value) {
+		sb.append('"').append(name).append("\":");
+		appendString(sb, value);
+		sb.append(',');
+	}
+
+	/**
+	 * Appends a JSON string, escaping quotes, backslashes and control characters.
+	 */
+	static void appendString(final StringBuilder sb, final String value) {
+		if (value == null) {
+			sb.append("null");
+			return;
+		}
+		sb.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			final char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				sb.append('\\').append(c);
+			} else if (c == '\n') {
+				sb.append("\\n");
+			} else if (c == '\r') {
+				sb.append("\\r");
+			} else if (c < 0x20) {
+				sb.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+			} else {
+				sb.append(c);
+			}
+		}
+		sb.append('"');
+	}
+
+}
@@ -0,0 +1,4 @@
+/**
+ * Optional embedded HTTP parsing service.
+ */
+package com.github.rarspace01.mrz.server;
@@ -0,0 +1,88 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import com.github.rarspace01.mrz.records.MRP;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import static com.github.rarspace01.mrz.MrzSamples.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests {@link CompactMrzRecord}.
+ */
+public class CompactMrzRecordTest {
+
+	@Test
+	public void testGettersMatchRecord() throws MrzParseException {
+		for (final String mrz : MRZS) {
+			final MrzRecord record = MrzParser.parse(mrz);
+			assertMatches(record, CompactMrzRecord.parse(mrz, false), mrz);
+			final CompactMrzRecord cached = CompactMrzRecord.parse(mrz, true);
+			assertMatches(record, cached, mrz);
+			assertMatches(record, cached, mrz);
+			assertEquals(mrz, cached.getMrz());
+			assertEquals(cached, CompactMrzRecord.parse(mrz, false));
+			assertEquals(cached.hashCode(), CompactMrzRecord.parse(mrz, false).hashCode());
+		}
+	}
+
+	@Test
+	public void testExtraFields() throws MrzParseException {
+		final MRP record = (MRP) MrzParser.parse(VALID.get(1));
+		final CompactMrzRecord compact = CompactMrzRecord.parse(VALID.get(1), true);
+		assertEquals(record.getPersonalNumber(), compact.getPersonalNumber());
+		assertEquals(record.isValidPersonalNumber(), compact.isValidPersonalNumber());
+		assertNull(compact.getOptional());
+		assertNull(CompactMrzRecord.parse(VALID.get(2), true).getPersonalNumber());
+		assertEquals(compact, CompactMrzRecord.of(record, false));
+	}
+
+	@Test
+	public void testSerialization() throws Exception {
+		final CompactMrzRecord compact = CompactMrzRecord.parse(VALID.get(0), true);
+		assertEquals("STEVENSON", compact.getSurname());
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(compact);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			final CompactMrzRecord copy = (CompactMrzRecord) in.readObject();
+			assertEquals(compact, copy);
+			assertEquals("PETER", copy.getGivenNames());
+		}
+	}
+
+	@Test
+	public void testInvalidInput() throws MrzParseException {
+		assertThrows(MrzParseException.class, () -> CompactMrzRecord.parse("garbage", false));
+		assertThrows(MrzParseException.class, () -> CompactMrzRecord.parse("P<GBRUK\n9250764733GBR88", false));
+		// the name has no check digit, the parser keeps the character but the bytes cannot
+		final String beyondLatin1 = VALID.get(1).replace("SPECIMEN", "SPEC\u0141MEN");
+		assertEquals("UK SPEC\u0141MEN", MrzParser.parse(beyondLatin1).getSurname());
+		final MrzParseException ex = assertThrows(MrzParseException.class, () -> CompactMrzRecord.parse(beyondLatin1, false));
+		assertEquals(new MrzRange(12, 13, 0).toString(), ex.getRange().toString());
+	}
+
+}
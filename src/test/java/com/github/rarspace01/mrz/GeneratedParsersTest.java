@@ -0,0 +1,92 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import com.github.rarspace01.mrz.records.MRP;
+import com.github.rarspace01.mrz.types.MrzField;
+import com.github.rarspace01.mrz.types.MrzFormat;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.rarspace01.mrz.MrzSamples.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests {@link GeneratedParsers} and the parsers generated by the generateMrzParsers task, which are on the test classpath.
+ */
+public class GeneratedParsersTest {
+
+	private static final String[] SAMPLES = {
+		TD1 + "\n",
+		FRENCH_ID + "\n",
+		VISA_B + "\n",
+		TD2,
+		TRAVEL_PASS,
+		VISA_A + "\n",
+		CZECH_PASSPORT,
+		// wrong composite check digit
+		CZECH_PASSPORT.substring(0, CZECH_PASSPORT.length() - 1) + "3",
+		SLOVAK_ID
+	};
+
+	@Test
+	public void testAvailable() {
+		assertTrue(GeneratedParsers.isAvailable(), GeneratedParsers.DECODER_CLASS + " is not on the classpath");
+	}
+
+	@Test
+	public void testMatchesLayoutDecoding() throws Exception {
+		for (final String mrz : SAMPLES) {
+			final MrzParser parser = new MrzParser(mrz);
+			final MrzFormat format = parser.getFormat();
+			final MrzRecord expected = format.newRecord();
+			expected.decodeLayout(parser);
+			final MrzRecord record = format.newRecord();
+			assertTrue(GeneratedParsers.decode(record, parser), format.name());
+			assertEquals(format.getRecordClass(), record.getClass());
+			assertEquals(expected.toString(), record.toString());
+			assertEquals(expected.toMrz(), record.toMrz());
+			assertEquals(expected.isValidDocumentNumber(), record.isValidDocumentNumber());
+			assertEquals(expected.isValidDateOfBirth(), record.isValidDateOfBirth());
+			assertEquals(expected.isValidExpirationDate(), record.isValidExpirationDate());
+			assertEquals(expected.isValidComposite(), record.isValidComposite());
+			if (record instanceof MRP) {
+				assertEquals(((MRP) expected).isValidPersonalNumber(), ((MRP) record).isValidPersonalNumber());
+			}
+		}
+	}
+
+	@Test
+	public void testSubclassDecodesWithLayout() throws Exception {
+		final List<MrzField> decoded = new ArrayList<>();
+		final MRP record = new MRP() {
+			@Override
+			protected void decodeField(final MrzField field, final MrzParser parser, final MrzRange range) throws MrzParseException {
+				decoded.add(field);
+				super.decodeField(field, parser, range);
+			}
+		};
+		record.fromMrz(CZECH_PASSPORT);
+		assertEquals(MrzFormat.PASSPORT.getLayout().size(), decoded.size());
+		assertEquals(MrzParser.parse(CZECH_PASSPORT).toString(), record.toString());
+	}
+
+}
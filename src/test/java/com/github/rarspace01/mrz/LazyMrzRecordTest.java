@@ -0,0 +1,104 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import com.github.rarspace01.mrz.records.MRP;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static com.github.rarspace01.mrz.MrzSamples.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests {@link LazyMrzRecord}.
+ */
+public class LazyMrzRecordTest {
+
+	@Test
+	public void testGettersMatchRecord() throws MrzParseException {
+		for (final String mrz : MRZS) {
+			final MrzRecord record = MrzParser.parse(mrz);
+			final LazyMrzRecord lazy = MrzParser.parseLazy(mrz);
+			assertMatches(record, lazy, mrz);
+			assertEquals(record.toString(), lazy.toRecord().toString(), mrz);
+		}
+	}
+
+	@Test
+	public void testExtraFields() throws MrzParseException {
+		final MRP record = (MRP) MrzParser.parse(INVALID_CHECK_DIGITS);
+		final LazyMrzRecord lazy = MrzParser.parseLazy(INVALID_CHECK_DIGITS);
+		assertFalse(lazy.isValidPersonalNumber());
+		assertEquals(record.isValidPersonalNumber(), lazy.isValidPersonalNumber());
+		assertEquals(record.getPersonalNumber(), lazy.getPersonalNumber());
+		assertNull(lazy.getOptional());
+		assertTrue(MrzParser.parseLazy(VALID.get(2)).isValidPersonalNumber());
+	}
+
+	@Test
+	public void testSourceIsCopied() throws MrzParseException {
+		final StringBuilder mrz = new StringBuilder(VALID.get(1));
+		final LazyMrzRecord lazy = MrzParser.parseLazy(mrz);
+		mrz.setCharAt(5, 'X');
+		assertEquals("UK SPECIMEN", lazy.getSurname());
+	}
+
+	@Test
+	public void testConcurrentReadsShareValues() throws Exception {
+		final LazyMrzRecord lazy = MrzParser.parseLazy(VALID.get(0));
+		final CountDownLatch start = new CountDownLatch(1);
+		final List<Object[]> seen = new ArrayList<>();
+		final List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			final Thread thread = new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+				final Object[] values = new Object[]{lazy.getSurname(), lazy.getDateOfBirth(), lazy.isValidComposite()};
+				synchronized (seen) {
+					seen.add(values);
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		start.countDown();
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(8, seen.size());
+		for (final Object[] values : seen) {
+			assertTrue(values[0] == seen.get(0)[0]);
+			assertTrue(values[1] == seen.get(0)[1]);
+			assertEquals(Boolean.TRUE, values[2]);
+		}
+	}
+
+	@Test
+	public void testInvalidInput() {
+		assertThrows(MrzParseException.class, () -> MrzParser.parseLazy("garbage"));
+		assertThrows(MrzParseException.class, () -> MrzParser.parseLazy("I<UTOSTEVENSON<<PETER<<<<<<<<<<<<<<<\nD231458907UTO3407127M9507122<<<<<<<2<"));
+	}
+
+}
@@ -0,0 +1,116 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import com.github.rarspace01.mrz.types.MrzDate;
+import com.github.rarspace01.mrz.types.MrzFormat;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests {@link MrzBatch}.
+ */
+public class MrzBatchTest {
+
+	private static final List<String> MRZS = new ArrayList<>(MrzSamples.MRZS);
+
+	static {
+		MRZS.add("garbage");
+	}
+
+	@Test
+	public void testRowsMatchRecords() {
+		final MrzBatch batch = new MrzBatch(2);
+		for (final String mrz : MRZS) {
+			batch.add(mrz);
+		}
+		assertEquals(MRZS.size(), batch.size());
+		final MrzBatch.Row row = batch.getRow(0);
+		for (int i = 0; i < MRZS.size(); i++) {
+			row.moveTo(i);
+			final ParseResult result = MrzParser.tryParse(MRZS.get(i));
+			assertEquals(result.getFormat(), row.getFormat());
+			assertEquals(result.getFailure(), row.getFailure());
+			if (!result.isSuccess()) {
+				assertNull(row.getSurname());
+				assertEquals(MrzBatch.NO_DATE, batch.getDateOfBirth(i));
+				continue;
+			}
+			MrzSamples.assertMatches(result.getRecord(), row, MRZS.get(i));
+		}
+		assertEquals(MrzFormat.PASSPORT, batch.getFormat(1));
+		assertEquals(MrzBatch.packCountry("GBR"), batch.getNationality(1));
+		assertNull(batch.getRow(2).getPersonalNumber());
+		assertEquals("", batch.getRow(1).getPersonalNumber());
+		assertEquals("ZE184226B", batch.getRow(3).getOptional());
+		assertNull(batch.getRow(3).getOptional2());
+		// unparseable date parts
+		assertEquals("88<<<<", batch.getRow(5).getDateOfBirth().getMrz());
+		assertFalse(batch.getRow(5).getDateOfBirth().isDateValid());
+	}
+
+	@Test
+	public void testColumnScan() {
+		final List<String> mrzs = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			mrzs.addAll(MRZS);
+		}
+		final MrzBatch batch = MrzBatch.parse(mrzs);
+		final int gbr = MrzBatch.packCountry("GBR");
+		final int born = MrzBatch.packDate(80, 1, 1);
+		int count = 0;
+		for (int i = 0; i < batch.size(); i++) {
+			if (batch.getNationality(i) == gbr && batch.getDateOfBirth(i) > born && MrzValidator.isValid(batch.getValidity(i) | batch.getFormat(i).ordinal())) {
+				count++;
+			}
+		}
+		assertEquals(100, count);
+	}
+
+	@Test
+	public void testBeyondLatin1() {
+		// the parser keeps the character in the name, which has no check digit, but the byte arena cannot
+		final String mrz = MrzSamples.VALID.get(1).replace("SPECIMEN", "SPEC\u0141MEN");
+		assertTrue(MrzParser.tryParse(mrz).isSuccess());
+		final MrzBatch batch = new MrzBatch(1);
+		batch.add(mrz);
+		final MrzBatch.Row row = batch.getRow(0);
+		assertFalse(row.isSuccess());
+		assertEquals(MrzParseFailure.INVALID_CHARACTER, row.getFailure());
+		assertEquals(MrzFormat.PASSPORT, row.getFormat());
+		assertNull(row.getSurname());
+	}
+
+	@Test
+	public void testPacking() {
+		assertEquals("UTO", MrzBatch.unpackCountry(MrzBatch.packCountry("UTO")));
+		assertEquals("D", MrzBatch.unpackCountry(MrzBatch.packCountry("D")));
+		assertNull(MrzBatch.unpackCountry(MrzBatch.NO_COUNTRY));
+		assertThrows(IllegalArgumentException.class, () -> MrzBatch.packCountry("GBRX"));
+		assertEquals(new MrzDate(34, 7, 12), MrzBatch.unpackDate(MrzBatch.packDate(34, 7, 12)));
+		assertTrue(MrzBatch.packDate(34, 7, 12) < MrzBatch.packDate(34, 7, 13));
+		assertTrue(MrzBatch.packDate(34, 12, 1) < MrzBatch.packDate(35, 1, 1));
+		assertNull(MrzBatch.unpackDate(MrzBatch.NO_DATE));
+	}
+
+}
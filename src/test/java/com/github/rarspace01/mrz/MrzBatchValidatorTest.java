@@ -0,0 +1,131 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import com.github.rarspace01.mrz.types.MrzField;
+import com.github.rarspace01.mrz.types.MrzFormat;
+import com.github.rarspace01.mrz.types.MrzLayout;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests {@link MrzBatchValidator}, both the scalar and, when available, the vectorized implementation.
+ */
+public class MrzBatchValidatorTest {
+
+	private static final String CHARS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ<";
+
+	/**
+	 * Mutates the characters of the last row, so that the format stays the same and the check digits fail now and then.
+	 */
+	private static List<String> mutations(final String mrz, final int count) {
+		final List<String> result = new ArrayList<>();
+		final int lastRow = mrz.lastIndexOf('\n', mrz.length() - 2) + 1;
+		for (int i = 0; i < count; i++) {
+			final char[] chars = mrz.toCharArray();
+			if (i % 3 != 0) {
+				final int index = lastRow + (i * 7) % (mrz.length() - lastRow - 1);
+				if (chars[index] != '\n') {
+					chars[index] = CHARS.charAt((i * 11) % CHARS.length());
+				}
+			}
+			result.add(new String(chars));
+		}
+		return result;
+	}
+
+	private static int expectedMask(final String mrz) throws MrzParseException {
+		final MrzParser parser = new MrzParser(mrz);
+		final MrzLayout layout = parser.getFormat().getLayout();
+		final int[] digits = new int[layout.size()];
+		final int composite = parser.computeCheckDigits(digits);
+		int mask = 0;
+		for (int i = 0; i < layout.size(); i++) {
+			if (layout.hasCheckDigit(i) && !parser.checkDigit(layout.getCheckDigitColumn(i), layout.getRow(i), digits[i], layout.getField(i))) {
+				mask |= MrzBatchValidator.bit(layout.getField(i));
+			}
+		}
+		if (layout.hasComposite() && !parser.checkDigit(layout.getCompositeColumn(), layout.getCompositeRow(), composite, MrzField.COMPOSITE)) {
+			mask |= MrzBatchValidator.COMPOSITE;
+		}
+		return mask;
+	}
+
+	private static void assertValidates(final MrzBatchValidator validator, final List<String> mrzs) throws MrzParseException {
+		final int[] masks = validator.validate(validator.toMatrix(mrzs), mrzs.size());
+		for (int i = 0; i < mrzs.size(); i++) {
+			assertEquals(expectedMask(mrzs.get(i)), masks[i], mrzs.get(i));
+		}
+	}
+
+	@Test
+	public void testValidate() throws MrzParseException {
+		final String[] samples = {
+			"CIUTOD231458907A123X5328434D23\n3407127M9507122UTO<<<<<<<<<<<6\nSTEVENSON<<PETER<<<<<<<<<<<<<<\n",
+			"I<UTOSTEVENSON<<PETER<<<<<<<<<<<<<<<\nD231458907UTO3407127M9507122<<<<<<<2\n",
+			"P<CZESPECIMEN<<VZOR<<<<<<<<<<<<<<<<<<<<<<<<<\n99003853<1CZE1101018M1207046110101111<<<<<94\n",
+			"V<UTOERIKSSON<<ANNA<MARIA<<<<<<<<<<<<<<<<<<<\nL898902C<3UTO6908061F9406236ZE184226B<<<<<<<\n"
+		};
+		for (final String sample : samples) {
+			final MrzFormat format = MrzFormat.get(sample);
+			final List<String> mrzs = mutations(sample, 45);
+			assertValidates(new MrzBatchValidator(format), mrzs);
+			assertValidates(MrzBatchValidator.create(format), mrzs);
+		}
+	}
+
+	@Test
+	public void testValidRecords() throws MrzParseException {
+		final String mrz = "P<CZESPECIMEN<<VZOR<<<<<<<<<<<<<<<<<<<<<<<<<\n99003853<1CZE1101018M1207046110101111<<<<<94";
+		final MrzBatchValidator validator = MrzBatchValidator.create(MrzFormat.PASSPORT);
+		final int[] masks = validator.validate(validator.toMatrix(Arrays.asList(mrz, mrz, mrz)), 3);
+		assertArrayEquals(new int[3], masks);
+	}
+
+	@Test
+	public void testInvalidCharacter() {
+		final String mrz = "P<CZESPECIMEN<<VZOR<<<<<<<<<<<<<<<<<<<<<<<<<99003853<1CZE1101018M1207046110101111<<<<<94";
+		final int expected = MrzBatchValidator.bit(MrzField.DOCUMENT_NUMBER) | MrzBatchValidator.COMPOSITE;
+		assertEquals(MrzBatchValidator.COMPOSITE, MrzBatchValidator.bit(MrzField.COMPOSITE));
+		for (final MrzBatchValidator validator : Arrays.asList(new MrzBatchValidator(MrzFormat.PASSPORT), MrzBatchValidator.create(MrzFormat.PASSPORT))) {
+			final byte[] matrix = new byte[validator.getRecordLength() * 20];
+			for (int i = 0; i < 20; i++) {
+				for (int c = 0; c < mrz.length(); c++) {
+					matrix[i * mrz.length() + c] = (byte) mrz.charAt(c);
+				}
+			}
+			matrix[5 * mrz.length() + 46] = 'x';
+			final int[] masks = validator.validate(matrix, 20);
+			assertEquals(expected, masks[5]);
+			assertEquals(0, masks[4]);
+			assertEquals(0, masks[6]);
+		}
+	}
+
+	@Test
+	public void testFormatMismatch() {
+		final MrzBatchValidator validator = new MrzBatchValidator(MrzFormat.PASSPORT);
+		assertThrows(IllegalArgumentException.class, () -> validator.toMatrix(Arrays.asList("I<UTOSTEVENSON<<PETER<<<<<<<<<<<<<<<\nD231458907UTO3407127M9507122<<<<<<<2")));
+	}
+}
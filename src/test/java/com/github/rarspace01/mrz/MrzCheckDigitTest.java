@@ -0,0 +1,100 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import com.github.rarspace01.mrz.types.MrzLayout;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests {@link MrzCheckDigit}.
+ */
+public class MrzCheckDigitTest {
+
+	private static final int[] WEIGHTS = new int[]{7, 3, 1};
+
+	private static int naive(final String str) {
+		int result = 0;
+		for (int i = 0; i < str.length(); i++) {
+			final char c = str.charAt(i);
+			final int value = c == '<' ? 0 : c <= '9' ? c - '0' : c - 'A' + 10;
+			result += value * WEIGHTS[i % 3];
+		}
+		return result % 10;
+	}
+
+	@Test
+	public void testValueOf() {
+		assertEquals(0, MrzCheckDigit.valueOf('<'));
+		assertEquals(7, MrzCheckDigit.valueOf('7'));
+		assertEquals(10, MrzCheckDigit.valueOf('A'));
+		assertEquals(35, MrzCheckDigit.valueOf('Z'));
+		assertThrows(IllegalArgumentException.class, () -> MrzCheckDigit.valueOf('a'));
+		assertThrows(IllegalArgumentException.class, () -> MrzCheckDigit.valueOf('Ü'));
+		assertFalse(MrzCheckDigit.isValid(' '));
+		assertTrue(MrzCheckDigit.isValid('Q'));
+	}
+
+	@Test
+	public void testCompute() {
+		final String chars = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ<";
+		final StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 50; i++) {
+			assertEquals(naive(sb.toString()), MrzCheckDigit.compute(sb));
+			assertEquals(naive(sb.toString()), MrzCheckDigit.compute("xx" + sb + "yy", 2, sb.length() + 2));
+			sb.append(chars.charAt((i * 7) % chars.length()));
+		}
+		assertEquals(7, MrzCheckDigit.compute("D23145890"));
+		assertEquals(7, MrzCheckDigit.compute("340712"));
+	}
+
+	@Test
+	public void testWeightedSumPosition() {
+		final String str = "L898902C<3UTO6908061F9406236";
+		for (int split = 0; split <= str.length(); split++) {
+			final int sum = MrzCheckDigit.weightedSum(str, 0, split, 0) + MrzCheckDigit.weightedSum(str, split, str.length(), split);
+			assertEquals(naive(str), sum % 10);
+		}
+	}
+
+	@Test
+	public void testComputeAll() throws MrzParseException {
+		final String[] mrzs = {
+			"CIUTOD231458907A123X5328434D23\n3407127M9507122UTO<<<<<<<<<<<6\nSTEVENSON<<PETER<<<<<<<<<<<<<<\n",
+			"IDFRAPETE<<<<<<<<<<<<<<<<<<<<<952042\n0509952018746NICOLAS<<PAUL<8206152M3\n",
+			"I<UTOSTEVENSON<<PETER<<<<<<<<<<<<<<<\nD231458907UTO3407127M9507122<<<<<<<2",
+			"P<CZESPECIMEN<<VZOR<<<<<<<<<<<<<<<<<<<<<<<<<\n99003853<1CZE1101018M1207046110101111<<<<<94"
+		};
+		for (final String mrz : mrzs) {
+			final MrzParser parser = new MrzParser(mrz);
+			final MrzLayout layout = parser.getFormat().getLayout();
+			final int[] digits = new int[layout.size()];
+			final int composite = parser.computeCheckDigits(digits);
+			for (int i = 0; i < layout.size(); i++) {
+				if (layout.hasCheckDigit(i)) {
+					assertEquals(parser.charAt(layout.getCheckDigitColumn(i), layout.getRow(i)) - '0', digits[i], layout.getField(i).toString());
+				} else {
+					assertEquals(MrzLayout.NO_CHECK_DIGIT, digits[i]);
+				}
+			}
+			assertEquals(parser.charAt(layout.getCompositeColumn(), layout.getCompositeRow()) - '0', composite, mrz);
+		}
+	}
+}
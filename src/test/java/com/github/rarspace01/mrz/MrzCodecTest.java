@@ -0,0 +1,109 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests {@link MrzCodec}.
+ */
+public class MrzCodecTest {
+
+	private static final List<String> MRZS = new ArrayList<>();
+
+	static {
+		for (final String mrz : MrzSamples.VALID) {
+			MRZS.add(mrz + "\n");
+		}
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		for (final String mrz : MRZS) {
+			final byte[] encoded = MrzCodec.encode(mrz);
+			assertEquals(mrz, MrzCodec.decode(encoded));
+			final MrzRecord record = MrzParser.parse(mrz);
+			assertEquals(record.toMrz(), MrzCodec.decode(MrzCodec.encode(record.toMrz())));
+			assertEquals(record.toString(), MrzCodec.decodeRecord(encoded, 0).toString());
+		}
+		// CR LF and no trailing line terminator
+		assertEquals(MRZS.get(1), MrzCodec.decode(MrzCodec.encode(MRZS.get(1).trim().replace("\n", "\r\n"))));
+	}
+
+	@Test
+	public void testSize() {
+		// 88 characters in 6 bits are 66 bytes, the filler runs make it much smaller
+		assertEquals(1 + 66, MrzCodec.encode(MRZS.get(1).replace('<', '0')).length);
+		assertTrue(MrzCodec.encode(MRZS.get(1)).length < 55);
+		final String fillers = "<".repeat(44) + "\n" + "<".repeat(44);
+		assertEquals(fillers + "\n", MrzCodec.decode(MrzCodec.encode(fillers)));
+		assertEquals(1 + 3, MrzCodec.encode(fillers).length);
+	}
+
+	@Test
+	public void testInvalid() {
+		assertThrows(IllegalArgumentException.class, () -> MrzCodec.encode("P<GBRUK<SPECIMEN<<ANGELA<ZOE<<<<<<<<<<<<<<<<\n9250764733GBR88o9117F2007162<<<<<<<<<<<<<<08"));
+		assertThrows(IllegalArgumentException.class, () -> MrzCodec.encode("ABC\nABCD"));
+		assertThrows(IllegalArgumentException.class, () -> MrzCodec.encode("A\nB\nC\nD"));
+		assertThrows(IllegalArgumentException.class, () -> MrzCodec.encode(""));
+	}
+
+	@Test
+	public void testContainer() throws Exception {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (MrzCodec.Writer writer = new MrzCodec.Writer(bytes, 7)) {
+			for (int i = 0; i < 100; i++) {
+				if (i % 2 == 0) {
+					writer.write(MRZS.get(i % MRZS.size()));
+				} else {
+					writer.write(MrzParser.parse(MRZS.get(i % MRZS.size())));
+				}
+			}
+		}
+		final Path file = Files.createTempFile("mrz", ".bin");
+		try {
+			Files.write(file, bytes.toByteArray());
+			try (MrzCodec.Reader reader = new MrzCodec.Reader(FileChannel.open(file))) {
+				assertEquals(100, reader.size());
+				for (final int i : new int[]{99, 0, 1, 2, 50, 49, 13, 14, 15}) {
+					assertEquals(MrzParser.parse(MRZS.get(i % MRZS.size())).toMrz(), reader.get(i), "record " + i);
+				}
+				for (int i = 0; i < 100; i++) {
+					assertEquals(MrzParser.parse(MRZS.get(i % MRZS.size())).toString(), reader.getRecord(i).toString());
+				}
+				assertThrows(IndexOutOfBoundsException.class, () -> reader.get(100));
+			}
+			Files.write(file, Arrays.copyOf(bytes.toByteArray(), bytes.size() - 1));
+			assertThrows(java.io.IOException.class, () -> new MrzCodec.Reader(FileChannel.open(file)));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+}
@@ -0,0 +1,88 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import com.github.rarspace01.mrz.types.MrzFormat;
+import org.junit.jupiter.api.Test;
+
+import static com.github.rarspace01.mrz.MrzSamples.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests {@link MrzConsensus}.
+ */
+public class MrzConsensusTest {
+
+	@Test
+	public void testStableAfterLead() {
+		final MrzConsensus consensus = new MrzConsensus(MrzFormat.PASSPORT, 2);
+		assertFalse(consensus.isStable());
+		assertNull(consensus.getMrz());
+		assertFalse(consensus.add(PASSPORT));
+		assertTrue(consensus.isValid());
+		assertTrue(consensus.add(PASSPORT));
+		assertEquals(PASSPORT, consensus.getMrz());
+		assertEquals(2, consensus.getReadings());
+	}
+
+	@Test
+	public void testOutvotesWrongCharacter() {
+		final String wrong = PASSPORT.replace("9250764733", "9250764B33");
+		final MrzConsensus consensus = new MrzConsensus(MrzFormat.PASSPORT, 2);
+		assertFalse(consensus.add(wrong));
+		assertFalse(consensus.isValid());
+		assertFalse(consensus.add(PASSPORT));
+		// ties keep the first winner
+		assertEquals(wrong, consensus.getMrz());
+		assertFalse(consensus.add(PASSPORT));
+		assertTrue(consensus.isValid());
+		assertEquals(PASSPORT, consensus.getMrz());
+		assertTrue(consensus.add(PASSPORT));
+	}
+
+	@Test
+	public void testOutvotesWrongCompositeMember() {
+		final MrzConsensus consensus = new MrzConsensus(MrzFormat.MRTD_TD1, 1);
+		assertFalse(consensus.add(TD1.replace("A123X5328434D23", "A123X5328434D2Z")));
+		assertFalse(consensus.add(TD1.replace("A123X5328434D23", "A123X5328434D2Z")));
+		for (int i = 0; i < 2; i++) {
+			consensus.add(TD1.replace("\n", "\r\n"));
+		}
+		assertFalse(consensus.isStable());
+		assertTrue(consensus.add(TD1));
+		assertEquals(TD1, consensus.getMrz());
+	}
+
+	@Test
+	public void testIgnoresOtherSizesAndInvalidCharacters() {
+		final MrzConsensus consensus = new MrzConsensus(MrzFormat.PASSPORT, 1);
+		assertFalse(consensus.add(TD1));
+		assertFalse(consensus.add(PASSPORT.substring(0, 50)));
+		assertEquals(0, consensus.getReadings());
+		assertFalse(consensus.add(PASSPORT.replace('Z', 'z')));
+		assertEquals(1, consensus.getReadings());
+		assertEquals(PASSPORT.replace('Z', '<'), consensus.getMrz());
+		assertTrue(consensus.add(PASSPORT));
+		consensus.reset();
+		assertEquals(0, consensus.getReadings());
+		assertFalse(consensus.isStable());
+		assertThrows(IllegalArgumentException.class, () -> new MrzConsensus(MrzFormat.PASSPORT, 0));
+	}
+
+}
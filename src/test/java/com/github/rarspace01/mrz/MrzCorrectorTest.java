@@ -0,0 +1,123 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.github.rarspace01.mrz.MrzSamples.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests {@link MrzCorrector}.
+ */
+public class MrzCorrectorTest {
+
+	@Test
+	public void testValidUnchanged() throws MrzParseException {
+		for (final String mrz : Arrays.asList(TD1, PASSPORT, TD2)) {
+			final MrzCorrector.Correction correction = MrzCorrector.correct(mrz);
+			assertEquals(mrz, correction.getMrz());
+			assertTrue(correction.getChanges().isEmpty());
+			assertEquals(1.0, correction.getConfidence(), 0);
+			assertTrue(correction.isValid());
+		}
+	}
+
+	@Test
+	public void testCorrectsByCharacterClass() throws MrzParseException {
+		final String ocr = "P<G8RUK<SPECIMEN<<ANGELA<Z0E<<<<<<<<<<<<<<<<\n9250764733GBR88O9117F2OO716Z<<<<<<<<<<<<<<O8";
+		final MrzCorrector.Correction correction = MrzCorrector.correct(ocr);
+		assertEquals(PASSPORT, correction.getMrz());
+		assertEquals("[3-4,0, 26-27,0, 15-16,1, 22-23,1, 23-24,1, 27-28,1, 42-43,1]", ranges(correction));
+		assertEquals(1.0, correction.getConfidence(), 0);
+		assertTrue(correction.isValid());
+	}
+
+	@Test
+	public void testCorrectsByCheckDigit() throws MrzParseException {
+		for (final String mrz : Arrays.asList(TD1, PASSPORT, TD2)) {
+			final MrzRecord record = MrzParser.parse(mrz);
+			final String number = record.getDocumentNumber();
+			for (int i = 0; i < number.length(); i++) {
+				final char partner = partner(number.charAt(i));
+				if (partner == 0) {
+					continue;
+				}
+				final int index = mrz.indexOf(number) + i;
+				final String ocr = mrz.substring(0, index) + partner + mrz.substring(index + 1);
+				final MrzCorrector.Correction correction = MrzCorrector.correct(ocr);
+				assertTrue(correction.isValid(), ocr);
+				assertTrue(correction.getConfidence() > 0, ocr);
+				assertEquals(1, correction.getChanges().size(), ocr);
+				if (correction.getConfidence() == 1) {
+					assertEquals(mrz, correction.getMrz(), ocr);
+				}
+			}
+		}
+		// no single substitution fits the check digit
+		final MrzCorrector.Correction correction = MrzCorrector.correct(TD2.replace("D23145890", "DZ314S890"));
+		assertTrue(correction.isValid());
+		assertEquals(2, correction.getChanges().size());
+		assertTrue(correction.getConfidence() > 0);
+	}
+
+	@Test
+	public void testConfidenceCountsAllChanges() throws MrzParseException {
+		// 5 read as S and 0 as O: changing the correct 2 into Z fits the check digit as well, with a single substitution
+		final MrzCorrector.Correction correction = MrzCorrector.correct(PASSPORT.replace("925076473", "92SO76473"));
+		assertTrue(correction.isValid());
+		assertEquals(PASSPORT.replace("925076473", "9ZSO76473"), correction.getMrz());
+		assertEquals(0.5, correction.getConfidence(), 0);
+	}
+
+	@Test
+	public void testCorrectsOptionalByComposite() throws MrzParseException {
+		final MrzCorrector.Correction correction = MrzCorrector.correct(TD1.replace("A123X5328434D23", "AIZ3X5328434D23"));
+		assertTrue(correction.isValid());
+		assertTrue(correction.getConfidence() > 0);
+		assertEquals(2, correction.getChanges().size());
+	}
+
+	@Test
+	public void testUnrepairable() throws MrzParseException {
+		final MrzCorrector.Correction correction = MrzCorrector.correct(PASSPORT.replace("9250764733", "9250764734"));
+		assertFalse(correction.isValid());
+		assertEquals(0.0, correction.getConfidence(), 0);
+		assertThrows(MrzParseException.class, () -> MrzCorrector.correct("garbage"));
+	}
+
+	private static char partner(final char c) {
+		final String pairs = "0O1I5S8B2Z";
+		final int i = pairs.indexOf(c);
+		return i < 0 ? 0 : pairs.charAt(i ^ 1);
+	}
+
+	private static String ranges(final MrzCorrector.Correction correction) {
+		final List<String> result = new ArrayList<>();
+		for (final MrzRange range : correction.getChanges()) {
+			result.add(range.toString());
+		}
+		return result.toString();
+	}
+
+}
@@ -0,0 +1,128 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests {@link MrzFileParser}.
+ */
+public class MrzFileParserTest {
+
+	private static final String TD1 = MrzSamples.TD1 + "\n";
+	private static final String PASSPORT = MrzSamples.PASSPORT.replace("\n", "\r\n") + "\r\n";
+	private static final String TD2 = MrzSamples.TD2 + "\n";
+
+	private static String describe(final ParseResult result) {
+		// the file parser keeps the CR LF line terminators of the file
+		return result.getOffset() + " " + result.getFormat() + " " + result.getFailure() + " " + result.getMrz().replace("\r", "")
+			+ " " + (result.isSuccess() ? result.getRecord().toString() : "");
+	}
+
+	private static List<String> describe(final List<ParseResult> results) {
+		final List<String> descriptions = new ArrayList<>();
+		for (final ParseResult result : results) {
+			descriptions.add(describe(result));
+		}
+		return descriptions;
+	}
+
+	/**
+	 * Parses the text with a {@link MrzStreamReader} and with the file parser at several chunk sizes.
+	 *
+	 * @return the records read by the stream reader, which the file parser matched.
+	 */
+	private static List<ParseResult> assertMatchesStreamReader(final String text) throws Exception {
+		final List<ParseResult> expected = new ArrayList<>();
+		final MrzStreamReader reader = new MrzStreamReader(new StringReader(text));
+		reader.forEachRemaining(expected::add);
+
+		final Path file = Files.createTempFile("mrz", ".txt");
+		try {
+			Files.write(file, text.getBytes(StandardCharsets.ISO_8859_1));
+			final ForkJoinPool pool = new ForkJoinPool(3);
+			try {
+				for (final int chunkSize : new int[]{1, 7, 31, 50, 100, 1000, MrzFileParser.DEFAULT_CHUNK_SIZE}) {
+					final MrzFileParser parser = new MrzFileParser(file, pool, chunkSize);
+					assertEquals(describe(expected), describe(parser.parse()), "chunk size " + chunkSize);
+
+					final List<ParseResult> unordered = Collections.synchronizedList(new ArrayList<>());
+					parser.parse(unordered::add, false);
+					unordered.sort(Comparator.comparingLong(ParseResult::getOffset));
+					assertEquals(describe(expected), describe(unordered), "chunk size " + chunkSize);
+				}
+			} finally {
+				pool.shutdown();
+			}
+		} finally {
+			Files.delete(file);
+		}
+		return expected;
+	}
+
+	@Test
+	public void testMatchesStreamReader() throws Exception {
+		final String text = TD1 + TD1 + TD1 + TD1 + "garbage\n" + PASSPORT + PASSPORT + "\n\n" + TD2 + TD1.substring(0, 62) + TD2 + TD1 + TD1
+			+ PASSPORT.substring(0, 46) + TD2.substring(0, 36);
+		assertEquals(14, assertMatchesStreamReader(text).size());
+	}
+
+	@Test
+	public void testDroppedLine() throws Exception {
+		// back-to-back passports, the first row of the first one and the second row of the fourth one got lost
+		final String secondRow = PASSPORT.substring(PASSPORT.indexOf('\n') + 1);
+		final String firstRow = PASSPORT.substring(0, PASSPORT.indexOf('\n') + 1);
+		final String text = secondRow + PASSPORT + PASSPORT + firstRow + PASSPORT + PASSPORT;
+		final List<ParseResult> results = assertMatchesStreamReader(text);
+		assertEquals(6, results.size());
+		assertFalse(results.get(0).isSuccess());
+		assertFalse(results.get(3).isSuccess());
+		for (final int i : new int[]{1, 2, 4, 5}) {
+			assertTrue(results.get(i).isSuccess(), "record " + i);
+		}
+	}
+
+	@Test
+	public void testEmptyFile() throws Exception {
+		final Path file = Files.createTempFile("mrz", ".txt");
+		try {
+			assertTrue(new MrzFileParser(file).parse().isEmpty());
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testInvalidChunkSize() {
+		assertThrows(IllegalArgumentException.class, () -> new MrzFileParser(Path.of("mrz.txt"), ForkJoinPool.commonPool(), 0));
+	}
+
+}
@@ -1,5 +1,6 @@
 package com.github.rarspace01.mrz
 
+import com.github.rarspace01.mrz.types.MrzFormat
 import org.junit.jupiter.api.Assertions.assertEquals
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.assertThrows
@@ -92,6 +93,29 @@ class MrzFinderUtilTest {
         }
     }
 
+    @Test
+    fun testFindAll() {
+        val td1 = "CIUTOD231458907A123X5328434D23\n3407127M9507122UTO<<<<<<<<<<<6\nSTEVENSON<<PETER<<<<<<<<<<<<<<"
+        val passport = "P<GBRUK<SPECIMEN<<ANGELA<ZOE<<<<<<<<<<<<<<<<\n9250764733GBR8809117F2007162<<<<<<<<<<<<<<08"
+        val td2 = "I<UTOSTEVENSON<<PETER<<<<<<<<<<<<<<<\nD231458907UTO3407127M9507122<<<<<<<2"
+        val text = "Page 1\r\nAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA\r\n" + td1.replace("\n", "\r\n") + "\r\n\u000CPage 2\n" + passport + "\n" + passport +
+            "\n" + INVALID_MRZ + "\nxx\n  " + VALID_GER_MRZ.replace("\n", "\n\n   ") + "  \n" + td2
+        val matches = MrzFinderUtil.findAll(text)
+        assertEquals(listOf(td1, passport, passport, VALID_GER_MRZ, td2), matches.map { it.getMrz(text) })
+        assertEquals(listOf(MrzFormat.MRTD_TD1, MrzFormat.PASSPORT, MrzFormat.PASSPORT, MrzFormat.PASSPORT, MrzFormat.MRTD_TD2), matches.map { it.format })
+        assertEquals(text.indexOf("CIUTO"), matches[0].start)
+        assertEquals(text.indexOf("<<<<<<<<<<<<<<\r\n\u000C") + 14, matches[0].end)
+        assertEquals(3, matches[0].rowCount)
+        assertEquals(text.lastIndexOf("P<GBR"), matches[2].start)
+        assertEquals(text.length, matches[4].end)
+        for (match in matches) {
+            MrzParser.parse(match.getMrz(text))
+        }
+        assertEquals(emptyList<MrzFinderUtil.Match>(), MrzFinderUtil.findAll(NO_MRZ))
+        assertEquals(emptyList<MrzFinderUtil.Match>(), MrzFinderUtil.findAll(NO_GER_MRZ))
+        assertEquals(emptyList<MrzFinderUtil.Match>(), MrzFinderUtil.findAll(""))
+    }
+
     companion object {
         private const val VALID_MRZ = "I<SVKNOVAK<<JAN<<<<<<<<<<<<<<<<<<<<<<<<<<<<<\n123456<AA5SVK8110251M1801020749313<<<<<<<<70"
         private const val VALID_MRZ_BLANK_START = "  I<SVKNOVAK<<JAN<<<<<<<<<<<<<<<<<<<<<<<<<<<<<\n  123456<AA5SVK8110251M1801020749313<<<<<<<<70"
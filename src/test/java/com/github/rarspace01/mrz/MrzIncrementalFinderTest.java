@@ -0,0 +1,101 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import com.github.rarspace01.mrz.types.MrzFormat;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.rarspace01.mrz.MrzSamples.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests {@link MrzIncrementalFinder}.
+ */
+public class MrzIncrementalFinderTest {
+
+	private static final String TEXT = "Page 1\r\nAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA\r\n" + TD1.replace("\n", "\r\n") + "\r\n\fPage 2\n" + PASSPORT + "\n"
+		+ PASSPORT + "\nI<SVKNOVAK<<JAN<<<<<<<<<<<<<<<<<<<<<<<<<<<<<\n123456\nxx\n  " + PASSPORT.replace("\n", "\n\n   ") + "  \n" + TD2
+		+ "\nP<GBRUK<SPECIMEN<<ANGELA<ZOE<<<<<<<<<<<<<<<<< <\n" + TD2.replace("\n", "x\n");
+
+	@Test
+	public void testMatchesFindAllForAnyChunkSize() {
+		final List<MrzFinderUtil.Match> expected = MrzFinderUtil.findAll(TEXT);
+		assertEquals(5, expected.size());
+		final char[] chars = TEXT.toCharArray();
+		final byte[] bytes = TEXT.getBytes(StandardCharsets.ISO_8859_1);
+		for (int chunk = 1; chunk <= chars.length; chunk += chunk < 50 ? 1 : 37) {
+			final List<MrzIncrementalFinder.Match> byChars = new ArrayList<>();
+			final List<MrzIncrementalFinder.Match> byBytes = new ArrayList<>();
+			final MrzIncrementalFinder charFinder = new MrzIncrementalFinder(byChars::add);
+			final MrzIncrementalFinder byteFinder = new MrzIncrementalFinder(byBytes::add);
+			for (int i = 0; i < chars.length; i += chunk) {
+				charFinder.accept(chars, i, Math.min(chunk, chars.length - i));
+				byteFinder.accept(ByteBuffer.wrap(bytes, i, Math.min(chunk, bytes.length - i)));
+			}
+			charFinder.finish();
+			byteFinder.finish();
+			assertMatches(expected, byChars, "chunk " + chunk);
+			assertMatches(expected, byBytes, "chunk " + chunk);
+		}
+	}
+
+	@Test
+	public void testEmitsWhenLastRowEnds() {
+		final List<MrzIncrementalFinder.Match> found = new ArrayList<>();
+		final MrzIncrementalFinder finder = new MrzIncrementalFinder(found::add);
+		final String[] td1 = TD1.split("\n");
+		finder.accept(("header\n" + td1[0] + "\n" + td1[1] + "\n").toCharArray());
+		assertTrue(found.isEmpty());
+		finder.accept((td1[2] + "\n").toCharArray());
+		assertEquals(1, found.size());
+		assertEquals(MrzFormat.MRTD_TD1, found.get(0).getFormat());
+		assertEquals(TD1, found.get(0).getMrz());
+		assertEquals(7, found.get(0).getStart());
+		// a passport has at most two rows
+		finder.accept((PASSPORT + "\n").toCharArray());
+		assertEquals(2, found.size());
+		assertEquals(PASSPORT, found.get(1).getMrz());
+		// the last row is not complete until a line break or the end of the text
+		finder.accept(TD2.toCharArray());
+		assertEquals(2, found.size());
+		finder.finish();
+		assertEquals(3, found.size());
+		assertEquals(TD2, found.get(2).getMrz());
+		// reusable
+		finder.accept((PASSPORT + "\n").toCharArray());
+		assertEquals(4, found.size());
+		assertEquals(0, found.get(3).getStart());
+	}
+
+	private static void assertMatches(final List<MrzFinderUtil.Match> expected, final List<MrzIncrementalFinder.Match> actual, final String message) {
+		assertEquals(expected.size(), actual.size(), message);
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).getFormat(), actual.get(i).getFormat(), message);
+			assertEquals(expected.get(i).getMrz(TEXT), actual.get(i).getMrz(), message);
+			assertEquals(expected.get(i).getStart(), actual.get(i).getStart(), message);
+			assertEquals(expected.get(i).getEnd(), actual.get(i).getEnd(), message);
+		}
+	}
+
+}
@@ -0,0 +1,135 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import com.github.rarspace01.mrz.types.MrzFormat;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static com.github.rarspace01.mrz.MrzSamples.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests {@link MrzLatticeDecoder}.
+ */
+public class MrzLatticeDecoderTest {
+
+	private static final int K = 3;
+
+	@Test
+	public void testCleanLattice() throws MrzParseException {
+		for (final String mrz : Arrays.asList(TD1, PASSPORT, TD2)) {
+			final Lattice lattice = new Lattice(mrz);
+			final MrzLatticeDecoder.Result result = new MrzLatticeDecoder(MrzFormat.get(mrz), 16).decode(lattice.chars, lattice.probabilities, K);
+			assertEquals(mrz, result.getMrz());
+			assertTrue(result.getProbability() > 0 && result.getProbability() < 1);
+		}
+	}
+
+	@Test
+	public void testCheckDigitsOverrideLikelihood() throws MrzParseException {
+		final MrzLatticeDecoder decoder = new MrzLatticeDecoder(MrzFormat.PASSPORT, 16);
+		final Lattice lattice = new Lattice(PASSPORT);
+		// document number 925076473: the OCR prefers O over 0 and 7 over 1 in the date of birth
+		lattice.set(1, 3, 'O', 0.6, '0', 0.4);
+		lattice.set(1, 18, '7', 0.7, '1', 0.3);
+		// the composite check digit
+		lattice.set(1, 43, '3', 0.9, '8', 0.1);
+		final MrzLatticeDecoder.Result result = decoder.decode(lattice.chars, lattice.probabilities, K);
+		assertEquals(PASSPORT, result.getMrz());
+		assertTrue(MrzParser.parse(result.getMrz()).isValidComposite());
+		// reusable
+		assertEquals(PASSPORT, decoder.decode(new Lattice(PASSPORT).chars, new Lattice(PASSPORT).probabilities, K).getMrz());
+	}
+
+	@Test
+	public void testNoValidPath() {
+		final Lattice lattice = new Lattice(TD2);
+		for (int p = 0; p < lattice.probabilities.length; p += K) {
+			lattice.probabilities[p + 1] = 0;
+			lattice.probabilities[p + 2] = 0;
+		}
+		assertEquals(TD2, new MrzLatticeDecoder(MrzFormat.MRTD_TD2, 16).decode(lattice.chars, lattice.probabilities, K).getMrz());
+		lattice.set(1, 9, '1', 0.5, '2', 0.5);
+		assertNull(new MrzLatticeDecoder(MrzFormat.MRTD_TD2, 16).decode(lattice.chars, lattice.probabilities, K));
+	}
+
+	@Test
+	public void testStaysInFormat() throws MrzParseException {
+		// a V would make a visa of the TD2 size
+		final Lattice td2 = new Lattice(TD2);
+		td2.set(0, 0, 'V', 0.6, 'I', 0.4);
+		final MrzLatticeDecoder.Result result = new MrzLatticeDecoder(MrzFormat.MRTD_TD2, 16).decode(td2.chars, td2.probabilities, K);
+		assertEquals(TD2, result.getMrz());
+		assertEquals(MrzFormat.MRTD_TD2, MrzFormat.get(result.getMrz()));
+		// H instead of R keeps the composite check digit but is no French ID anymore
+		assertTrue(MrzParser.parse(FRENCH_ID).isValidComposite());
+		final Lattice french = new Lattice(FRENCH_ID);
+		french.set(0, 3, 'H', 0.6, 'R', 0.4);
+		assertEquals(FRENCH_ID, new MrzLatticeDecoder(MrzFormat.FRENCH_ID, 16).decode(french.chars, french.probabilities, K).getMrz());
+	}
+
+	@Test
+	public void testInvalidParameters() {
+		final MrzLatticeDecoder decoder = new MrzLatticeDecoder(MrzFormat.MRTD_TD2, 4);
+		assertThrows(IllegalArgumentException.class, () -> new MrzLatticeDecoder(MrzFormat.MRTD_TD2, 0));
+		assertThrows(IllegalArgumentException.class, () -> decoder.decode(new char[10], new double[10], K));
+		assertThrows(IllegalArgumentException.class, () -> decoder.decode(new char[72 * K], new double[10], K));
+		assertThrows(IllegalArgumentException.class, () -> decoder.decode(new char[72 * K], new double[72 * K], 0));
+	}
+
+	/**
+	 * A lattice whose most probable candidate is the given MRZ, followed by a filler or a digit and an unlikely X.
+	 */
+	private static final class Lattice {
+
+		private final int columns;
+		private final char[] chars;
+		private final double[] probabilities;
+
+		Lattice(final String mrz) {
+			final String text = mrz.replace("\n", "");
+			columns = mrz.indexOf('\n');
+			chars = new char[text.length() * K];
+			probabilities = new double[text.length() * K];
+			for (int p = 0; p < text.length(); p++) {
+				final char c = text.charAt(p);
+				chars[p * K] = c;
+				chars[p * K + 1] = c == '<' ? '0' : '<';
+				chars[p * K + 2] = 'X';
+				probabilities[p * K] = 0.9;
+				probabilities[p * K + 1] = 0.08;
+				probabilities[p * K + 2] = 0.02;
+			}
+		}
+
+		void set(final int row, final int col, final char first, final double p1, final char second, final double p2) {
+			final int p = (row * columns + col) * K;
+			chars[p] = first;
+			chars[p + 1] = second;
+			chars[p + 2] = 'X';
+			probabilities[p] = p1;
+			probabilities[p + 1] = p2;
+			probabilities[p + 2] = 0;
+		}
+
+	}
+
+}
@@ -0,0 +1,195 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.rarspace01.mrz.MrzSamples.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests {@link MrzParseProcessor}.
+ */
+public class MrzParseProcessorTest {
+
+	/**
+	 * Collects the results, requesting given number of results at a time.
+	 */
+	private static final class Collector implements Flow.Subscriber<ParseResult> {
+
+		private final List<ParseResult> results = Collections.synchronizedList(new ArrayList<>());
+		private final CountDownLatch done = new CountDownLatch(1);
+		private final long request;
+		private Flow.Subscription subscription;
+		private Throwable error;
+		private int received;
+
+		Collector(final long request) {
+			this.request = request;
+		}
+
+		@Override
+		public void onSubscribe(final Flow.Subscription subscription) {
+			this.subscription = subscription;
+			subscription.request(request);
+		}
+
+		@Override
+		public void onNext(final ParseResult item) {
+			results.add(item);
+			if (++received % request == 0) {
+				subscription.request(request);
+			}
+		}
+
+		@Override
+		public void onError(final Throwable throwable) {
+			error = throwable;
+			done.countDown();
+		}
+
+		@Override
+		public void onComplete() {
+			done.countDown();
+		}
+
+		void await() throws InterruptedException {
+			assertTrue(done.await(10, TimeUnit.SECONDS));
+		}
+	}
+
+	private static List<String> mrzs(final int count) {
+		final List<String> mrzs = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			mrzs.add(i % 10 == 7 ? "garbage" + i : TD2);
+		}
+		return mrzs;
+	}
+
+	private static void publish(final List<String> mrzs, final MrzParseProcessor processor) {
+		try (SubmissionPublisher<CharSequence> publisher = new SubmissionPublisher<>()) {
+			publisher.subscribe(processor);
+			mrzs.forEach(publisher::submit);
+		}
+	}
+
+	@Test
+	public void testOrdered() throws Exception {
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			final List<String> mrzs = mrzs(1000);
+			final MrzParseProcessor processor = new MrzParseProcessor(executor, 64, 4, true);
+			final Collector collector = new Collector(7);
+			processor.subscribe(collector);
+			publish(mrzs, processor);
+			collector.await();
+			assertNull(collector.error);
+			assertEquals(mrzs.size(), collector.results.size());
+			for (int i = 0; i < mrzs.size(); i++) {
+				assertEquals(MrzParser.tryParse(mrzs.get(i)).toString(), collector.results.get(i).toString());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testUnordered() throws Exception {
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			final MrzParseProcessor processor = new MrzParseProcessor(executor, 16, 2, false);
+			final Collector collector = new Collector(Long.MAX_VALUE);
+			processor.subscribe(collector);
+			publish(mrzs(500), processor);
+			collector.await();
+			assertEquals(500, collector.results.size());
+			assertEquals(50, collector.results.stream().filter(result -> !result.isSuccess()).count());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testBackpressure() throws Exception {
+		final MrzParseProcessor processor = new MrzParseProcessor(Runnable::run, 8, 2, true);
+		final List<ParseResult> results = new ArrayList<>();
+		final Flow.Subscription[] subscription = new Flow.Subscription[1];
+		processor.subscribe(new Flow.Subscriber<ParseResult>() {
+			@Override
+			public void onSubscribe(final Flow.Subscription s) {
+				subscription[0] = s;
+				s.request(3);
+			}
+
+			@Override
+			public void onNext(final ParseResult item) {
+				results.add(item);
+			}
+
+			@Override
+			public void onError(final Throwable throwable) {
+			}
+
+			@Override
+			public void onComplete() {
+			}
+		});
+		final long[] requested = new long[1];
+		processor.onSubscribe(new Flow.Subscription() {
+			@Override
+			public void request(final long n) {
+				requested[0] += n;
+			}
+
+			@Override
+			public void cancel() {
+			}
+		});
+		assertEquals(8, requested[0]);
+		for (int i = 0; i < 8; i++) {
+			processor.onNext(TD2);
+		}
+		// only the demanded results are delivered, upstream is asked for as many as were delivered
+		assertEquals(3, results.size());
+		assertEquals(11, requested[0]);
+		subscription[0].request(10);
+		assertEquals(8, results.size());
+		assertEquals(16, requested[0]);
+	}
+
+	@Test
+	public void testInvalidRequest() throws Exception {
+		final MrzParseProcessor processor = new MrzParseProcessor();
+		final Collector collector = new Collector(0);
+		processor.subscribe(collector);
+		collector.await();
+		assertTrue(collector.error instanceof IllegalArgumentException);
+	}
+
+}
@@ -19,10 +19,18 @@
 package com.github.rarspace01.mrz
 
 import com.github.rarspace01.mrz.types.MrzDate
+import com.github.rarspace01.mrz.types.MrzField
+import com.github.rarspace01.mrz.types.MrzFormat
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
 import org.junit.jupiter.api.Assertions.assertNotNull
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Assertions.assertTrue
 import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import java.util.EnumSet
+import java.util.concurrent.Executors
 
 /**
  * Tests the parser.
@@ -156,6 +164,28 @@ class MrzParserTest {
         assertEquals("BB0911", record.dateOfBirth.toMrz())
     }
 
+    @Test
+    @Throws(MrzParseException::class)
+    fun testParseBufferWindow() {
+        val mrz = "P<GBRUK<SPECIMEN<<ANGELA<ZOE<<<<<<<<<<<<<<<<\n9250764733GBR8809117F2007162<<<<<<<<<<<<<<08"
+        val buffer = "garbage\n$mrz\nmore garbage"
+        val record = MrzParser.parse(buffer, 8, mrz.length)
+        assertEquals(MrzParser.parse(mrz).toString(), record.toString())
+        assertEquals("UK SPECIMEN", record.surname)
+        assertEquals(true, record.isValidComposite)
+    }
+
+    @Test
+    @Throws(MrzParseException::class)
+    fun testParseCharArrayWithCrLf() {
+        val mrz = "CIUTOD231458907A123X5328434D23\r\n3407127M9507122UTO<<<<<<<<<<<6\r\nSTEVENSON<<PETER<<<<<<<<<<<<<<\r\n"
+        val chars = ("xx" + mrz).toCharArray()
+        val record = MrzParser.parse(chars, 2, mrz.length)
+        assertEquals(MrzParser.parse(mrz.replace("\r", "")).toString(), record.toString())
+        assertEquals("STEVENSON", record.surname)
+        assertEquals(MrzDate(34, 7, 12), record.dateOfBirth)
+    }
+
     @Test
     fun testWithBrokenRZM() {
         // Given
@@ -165,4 +195,117 @@ class MrzParserTest {
         // Then
         assertThat(record).isNotNull
     }
+
+    @Test
+    fun testTryParse() {
+        val mrz = "P<GBRUK<SPECIMEN<<ANGELA<ZOE<<<<<<<<<<<<<<<<\n9250764733GBR8809117F2007162<<<<<<<<<<<<<<08"
+        val result = MrzParser.tryParse(mrz)
+        assertTrue(result.isSuccess)
+        assertNull(result.failure)
+        assertNull(result.message)
+        assertEquals(MrzFormat.PASSPORT, result.format)
+        assertEquals(MrzParser.parse(mrz).toString(), result.record.toString())
+        assertEquals(result.record, result.recordOrThrow)
+        assertEquals(result.record.toString(), MrzParser.tryParse(("xx" + mrz).toCharArray(), 2, mrz.length).record.toString())
+    }
+
+    @Test
+    fun testTryParseFailures() {
+        val rows = MrzParser.tryParse("I<UTOSTEVENSON<<PETER<<<<<<<<<<<<<<<\nD231458907UTO3407127M9507122<<<<<<2")
+        assertFalse(rows.isSuccess)
+        assertNull(rows.record)
+        assertEquals(MrzParseFailure.DIFFERENT_ROW_LENGTHS, rows.failure)
+        assertEquals("Different row lengths: 0: 36 and 1: 35", rows.message)
+        assertNull(rows.format)
+
+        val format = MrzParser.tryParse("I<UTOSTEVENSON<<PETER<<<<<<<<<<<<<<<\nD231458907UTO3407127M9507122<<<<<<<2\nXX" + "<".repeat(34))
+        assertEquals(MrzParseFailure.UNKNOWN_FORMAT, format.failure)
+        assertEquals(MrzParseFailure.UNKNOWN_FORMAT, MrzParser.tryParse("").failure)
+
+        val code = MrzParser.tryParse("IVUTOD231458907A123X5328434D23\n3407127M9507122UTO<<<<<<<<<<<6\nSTEVENSON<<PETER<<<<<<<<<<<<<<")
+        assertEquals(MrzParseFailure.DOCUMENT_CODE_NOT_ALLOWED, code.failure)
+        assertEquals(MrzRange(0, 2, 0).toString(), code.range.toString())
+        assertEquals(MrzFormat.MRTD_TD1, code.format)
+
+        val chars = MrzParser.tryParse("P<GBRUK<SPECIMEN<<ANGELA<ZOE<<<<<<<<<<<<<<<<\n9250764733GBR88o9117F2007162<<<<<<<<<<<<<<08")
+        assertEquals(MrzParseFailure.INVALID_CHARACTER, chars.failure)
+        assertEquals(MrzRange(13, 19, 1).toString(), chars.range.toString())
+        assertEquals("Invalid character in MRZ record: 88o911", chars.message)
+        val ex = assertThrows<MrzParseException> { chars.recordOrThrow }
+        assertEquals(MrzRange(13, 19, 1).toString(), ex.range.toString())
+        assertEquals(MrzFormat.PASSPORT, ex.format)
+    }
+
+    @Test
+    fun testDiagnostics() {
+        val invalidBirthDateMrz = "P<GBRUK<SPECIMEN<<ANGELA<ZOE<<<<<<<<<<<<<<<<\n9250764733GBR8809417F2007162<<<<<<<<<<<<<<08"
+        val result = MrzParser.tryParse(invalidBirthDateMrz, 0, invalidBirthDateMrz.length, CollectingMrzDiagnostics())
+        assertTrue(result.isSuccess)
+        val day = result.diagnostics.single { it.reason == MrzDiagnosticReason.DATE_OUT_OF_RANGE }
+        assertEquals(MrzRange(17, 19, 1).toString(), day.range.toString())
+        val checkDigit = result.diagnostics.single { it.reason == MrzDiagnosticReason.CHECK_DIGIT_MISMATCH && it.field == MrzField.DATE_OF_BIRTH }
+        assertEquals('7', checkDigit.actual)
+        assertEquals(MrzRange(19, 20, 1).toString(), checkDigit.range.toString())
+        val composite = result.diagnostics.single { it.reason == MrzDiagnosticReason.CHECK_DIGIT_MISMATCH && it.field == MrzField.COMPOSITE }
+        assertEquals(MrzRange(43, 44, 1).toString(), composite.range.toString())
+        // disabled by default
+        assertTrue(MrzParser.tryParse(invalidBirthDateMrz).diagnostics.isEmpty())
+        val parser = MrzParser(invalidBirthDateMrz)
+        assertEquals(MrzDiagnostics.NONE, parser.diagnostics)
+    }
+
+    @Test
+    fun testParseAll() {
+        val valid = "I<UTOSTEVENSON<<PETER<<<<<<<<<<<<<<<\nD231458907UTO3407127M9507122<<<<<<<2"
+        val invalid = "IVUTOD231458907A123X5328434D23\n3407127M9507122UTO<<<<<<<<<<<6\nSTEVENSON<<PETER<<<<<<<<<<<<<<"
+        val mrzs = (0 until 300).map { if (it % 7 == 3) invalid else if (it % 11 == 5) "garbage$it" else valid }
+        val expected = mrzs.map { MrzParser.tryParse(it).toString() }
+        assertEquals(expected, MrzParser.parseAll(mrzs).map { it.toString() })
+        val executor = Executors.newFixedThreadPool(2)
+        try {
+            assertEquals(expected, MrzParser.parseAll(mrzs, executor).map { it.toString() })
+            assertEquals(expected, MrzParser.parseAll(mrzs.stream().filter { true }.spliterator(), executor).map { it.toString() })
+        } finally {
+            executor.shutdown()
+        }
+        assertEquals(0, MrzParser.parseAll(emptyList()).size)
+    }
+
+    @Test
+    fun testParseFields() {
+        val fields = EnumSet.of(MrzField.DOCUMENT_NUMBER, MrzField.DATE_OF_BIRTH, MrzField.EXPIRATION_DATE)
+        val mrzs = listOf(
+            "CIUTOD231458907A123X5328434D23\n3407127M9507122UTO<<<<<<<<<<<6\nSTEVENSON<<PETER<<<<<<<<<<<<<<",
+            "P<GBRUK<SPECIMEN<<ANGELA<ZOE<<<<<<<<<<<<<<<<\n9250764733GBR8809117F2007162<<<<<<<<<<<<<<08",
+            "I<UTOSTEVENSON<<PETER<<<<<<<<<<<<<<<\nD231458907UTO3407127M9507122<<<<<<<2",
+            "V<UTOERIKSSON<<ANNA<MARIA<<<<<<<<<<<<<<<<<<<\nL898902C<3UTO6908061F9406236ZE184226B<<<<<<<",
+            "IDFRAPETE<<<<<<<<<<<<<<<<<<<<<952042\n0509952018746NICOLAS<<PAUL<8206152M3",
+            "P<GBRUK<SPECIMEN<<ANGELA<ZOE<<<<<<<<<<<<<<<<\n9250764733GBR8809417F2007163<<<<<<<<<<<<<<08"
+        )
+        for (mrz in mrzs) {
+            val full = MrzParser.parse(mrz)
+            val projected = MrzParser.parse(mrz, fields)
+            assertEquals(full.javaClass, projected.javaClass, mrz)
+            assertEquals(full.code, projected.code, mrz)
+            assertEquals(full.documentNumber, projected.documentNumber, mrz)
+            assertEquals(full.dateOfBirth, projected.dateOfBirth, mrz)
+            assertEquals(full.expirationDate, projected.expirationDate, mrz)
+            assertEquals(full.isValidDocumentNumber, projected.isValidDocumentNumber, mrz)
+            assertEquals(full.isValidDateOfBirth, projected.isValidDateOfBirth, mrz)
+            assertEquals(full.isValidExpirationDate, projected.isValidExpirationDate, mrz)
+            assertEquals(full.isValidComposite, projected.isValidComposite, mrz)
+            assertNull(projected.surname, mrz)
+            assertNull(projected.givenNames, mrz)
+            assertNull(projected.nationality, mrz)
+            assertEquals(full.toString(), MrzParser.parse(mrz, EnumSet.allOf(MrzField::class.java)).toString(), mrz)
+        }
+        val names = MrzParser.parse(mrzs[5], EnumSet.of(MrzField.SURNAME))
+        assertEquals("UK SPECIMEN", names.surname)
+        assertEquals("ANGELA ZOE", names.givenNames)
+        assertNull(names.dateOfBirth)
+        assertTrue(names.isValidDateOfBirth)
+        assertTrue(names.isValidComposite)
+        assertFalse(MrzParser.parse(mrzs[5], EnumSet.of(MrzField.COMPOSITE)).isValidComposite)
+        assertThrows<MrzParseException> { MrzParser.parse("IVUTOD231458907A123X5328434D23\n3407127M9507122UTO<<<<<<<<<<<6\nSTEVENSON<<PETER<<<<<<<<<<<<<<", fields) }
+    }
 }
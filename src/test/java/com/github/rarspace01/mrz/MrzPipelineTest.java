@@ -0,0 +1,132 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import com.github.rarspace01.mrz.types.MrzFormat;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.rarspace01.mrz.MrzSamples.PASSPORT;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests {@link MrzPipeline}.
+ */
+public class MrzPipelineTest {
+
+	private static final String OCR_PASSPORT = "UNITED KINGDOM OF GREAT BRITAIN\n  p<gbruk<specimen<<angela<zoe««««««««««««««««  \n\n"
+		+ "9250764733GBR8809117F2007162<<<<<<<<<<<<<<08\nend of page";
+	/**
+	 * {@link MrzSamples#TD2} with a wrong composite check digit.
+	 */
+	private static final String TD2 = "I<UTOSTEVENSON<<PETER<<<<<<<<<<<<<<<\nD231458907UTO3407127M9507122<<<<<<<7";
+
+	private static List<String> run(final MrzPipeline.WaitStrategy waitStrategy, final List<String> inputs) {
+		final List<String> handled = new ArrayList<>();
+		final MrzPipeline pipeline = new MrzPipeline(4, waitStrategy, event -> handled.add(event.getSequence() + " "
+			+ event.getMrz().toString().replace('\n', '/') + " " + (event.getResult() == null ? null : event.getResult().getFormat())
+			+ " " + Integer.toHexString(event.getValidation())));
+		for (final String input : inputs) {
+			pipeline.publish(input);
+		}
+		pipeline.close();
+		return handled;
+	}
+
+	@Test
+	public void testStages() {
+		final List<String> inputs = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			inputs.add(i % 3 == 0 ? OCR_PASSPORT : i % 3 == 1 ? TD2 : "no mrz here");
+		}
+		final String passport = " " + PASSPORT.replace('\n', '/') + " " + MrzFormat.PASSPORT + " " + Integer.toHexString(MrzValidator.validate(PASSPORT));
+		final String td2 = " " + TD2.replace('\n', '/') + " " + MrzFormat.MRTD_TD2 + " " + Integer.toHexString(MrzValidator.validate(TD2));
+		final String none = "  null " + Integer.toHexString(MrzValidator.INVALID);
+		for (final MrzPipeline.WaitStrategy waitStrategy : MrzPipeline.WaitStrategy.values()) {
+			final List<String> handled = run(waitStrategy, inputs);
+			assertEquals(inputs.size(), handled.size());
+			for (int i = 0; i < inputs.size(); i++) {
+				assertEquals(i + (i % 3 == 0 ? passport : i % 3 == 1 ? td2 : none), handled.get(i), waitStrategy.name());
+			}
+		}
+		assertTrue(MrzValidator.isValid(MrzValidator.validate(PASSPORT)));
+		assertFalse(MrzValidator.isValid(MrzValidator.validate(TD2)));
+	}
+
+	@Test
+	public void testRowsOfOneFormat() {
+		final List<String> inputs = new ArrayList<>();
+		// a line of text which could be a MRZ row under the record
+		inputs.add(OCR_PASSPORT.replace("end of page", "signature of the holder is required"));
+		inputs.add(TD2 + "\nissued by the Utopian Ministry");
+		// a line which looks like a first row but starts no known format, above the record
+		inputs.add("ISSUING AUTHORITY OF THE STATE OF UTOPIA\n" + PASSPORT);
+		final List<String> handled = run(MrzPipeline.WaitStrategy.YIELD, inputs);
+		assertEquals(3, handled.size());
+		assertEquals("0 " + PASSPORT.replace('\n', '/') + " " + MrzFormat.PASSPORT + " " + Integer.toHexString(MrzValidator.validate(PASSPORT)),
+			handled.get(0));
+		assertEquals("1 " + TD2.replace('\n', '/') + " " + MrzFormat.MRTD_TD2 + " " + Integer.toHexString(MrzValidator.validate(TD2)),
+			handled.get(1));
+		assertEquals("2 " + PASSPORT.replace('\n', '/') + " " + MrzFormat.PASSPORT + " " + Integer.toHexString(MrzValidator.validate(PASSPORT)),
+			handled.get(2));
+	}
+
+	@Test
+	public void testKeptResults() throws Exception {
+		final List<ParseResult> results = new ArrayList<>();
+		final MrzPipeline pipeline = new MrzPipeline(2, MrzPipeline.WaitStrategy.YIELD, event -> results.add(event.getResult()));
+		for (int i = 0; i < 11; i++) {
+			pipeline.publish(i % 3 == 0 ? OCR_PASSPORT : i % 3 == 1 ? TD2 : "no mrz here");
+		}
+		pipeline.close();
+		assertEquals(11, results.size());
+		// the slots have been reused by other frames since
+		for (int i = 0; i < results.size(); i++) {
+			if (i % 3 == 2) {
+				assertNull(results.get(i));
+				continue;
+			}
+			final String mrz = i % 3 == 0 ? PASSPORT : TD2;
+			assertEquals(mrz, results.get(i).getMrz(), "frame " + i);
+			assertEquals(MrzParser.parse(mrz).toString(), results.get(i).getRecord().toString(), "frame " + i);
+		}
+	}
+
+	@Test
+	public void testHandlerFailure() {
+		final MrzPipeline pipeline = new MrzPipeline(2, MrzPipeline.WaitStrategy.YIELD, event -> {
+			throw new IllegalArgumentException("boom");
+		});
+		pipeline.publish(PASSPORT);
+		pipeline.publish(PASSPORT);
+		pipeline.publish(PASSPORT);
+		final IllegalStateException ex = assertThrows(IllegalStateException.class, pipeline::close);
+		assertEquals("boom", ex.getCause().getMessage());
+		assertThrows(IllegalStateException.class, () -> pipeline.publish(PASSPORT));
+	}
+
+	@Test
+	public void testInvalidCapacity() {
+		assertThrows(IllegalArgumentException.class, () -> new MrzPipeline(3, MrzPipeline.WaitStrategy.PARK, event -> {
+		}));
+	}
+
+}
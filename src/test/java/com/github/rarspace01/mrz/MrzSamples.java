@@ -0,0 +1,125 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Specimen MRZs and assertions shared by the tests.
+ */
+final class MrzSamples {
+
+	/**
+	 * ICAO specimen of a TD1 identity card.
+	 */
+	static final String TD1 = "CIUTOD231458907A123X5328434D23\n3407127M9507122UTO<<<<<<<<<<<6\nSTEVENSON<<PETER<<<<<<<<<<<<<<";
+	/**
+	 * UK specimen passport.
+	 */
+	static final String PASSPORT = "P<GBRUK<SPECIMEN<<ANGELA<ZOE<<<<<<<<<<<<<<<<\n9250764733GBR8809117F2007162<<<<<<<<<<<<<<08";
+	/**
+	 * ICAO specimen of a TD2 identity card.
+	 */
+	static final String TD2 = "I<UTOSTEVENSON<<PETER<<<<<<<<<<<<<<<\nD231458907UTO3407127M9507122<<<<<<<2";
+	/**
+	 * ICAO specimen of a type A visa.
+	 */
+	static final String VISA_A = "V<UTOERIKSSON<<ANNA<MARIA<<<<<<<<<<<<<<<<<<<\nL898902C<3UTO6908061F9406236ZE184226B<<<<<<<";
+	/**
+	 * ICAO specimen of a type B visa.
+	 */
+	static final String VISA_B = "V<UTOERIKSSON<<ANNA<MARIA<<<<<<<<<<<\nL898902C<3UTO6908061F9406236ZE184226";
+	/**
+	 * French identity card.
+	 */
+	static final String FRENCH_ID = "IDFRAPETE<<<<<<<<<<<<<<<<<<<<<952042\n0509952018746NICOLAS<<PAUL<8206152M3";
+	/**
+	 * Travel document with the PTD document code.
+	 */
+	static final String TRAVEL_PASS = "PTD<<ALJWEER<<AHMAD<<<<<<<<<<<<<<<<<<<<<<<<<\nZ06RF5CX25SYR0101011M24092162101<<<<<<<<<<44";
+	/**
+	 * Czech specimen passport, with a personal number.
+	 */
+	static final String CZECH_PASSPORT = "P<CZESPECIMEN<<VZOR<<<<<<<<<<<<<<<<<<<<<<<<<\n99003853<1CZE1101018M1207046110101111<<<<<94";
+	/**
+	 * Slovak identity card of 34 columns.
+	 */
+	static final String SLOVAK_ID = "I<SVKNOVAK<<JAN<<<<<<<<<<<<<<<<<<<\n123456<AA5SVK8110251M1801020749313";
+	/**
+	 * One valid MRZ of each common format: {@link #TD1}, {@link #PASSPORT}, {@link #TD2}, {@link #VISA_A} and {@link #FRENCH_ID}.
+	 */
+	static final List<String> VALID = Collections.unmodifiableList(Arrays.asList(TD1, PASSPORT, TD2, VISA_A, FRENCH_ID));
+	/**
+	 * The passport of {@link #VALID} with an unparseable date of birth.
+	 */
+	static final String INVALID_DATE_OF_BIRTH = "P<GBRUK<SPECIMEN<<ANGELA<ZOE<<<<<<<<<<<<<<<<\n9250764733GBR88<<<<7F2007162<<<<<<<<<<<<<<08";
+	/**
+	 * The passport of {@link #VALID} with a wrong personal number and composite check digit.
+	 */
+	static final String INVALID_CHECK_DIGITS = "P<GBRUK<SPECIMEN<<ANGELA<ZOE<<<<<<<<<<<<<<<<\n9250764733GBR8809117F2007162<<<<<<<<<<<<<<58";
+	/**
+	 * {@link #VALID} followed by {@link #INVALID_DATE_OF_BIRTH} and {@link #INVALID_CHECK_DIGITS}.
+	 */
+	static final List<String> MRZS;
+
+	static {
+		final List<String> mrzs = new ArrayList<>(VALID);
+		mrzs.add(INVALID_DATE_OF_BIRTH);
+		mrzs.add(INVALID_CHECK_DIGITS);
+		MRZS = Collections.unmodifiableList(mrzs);
+	}
+
+	/**
+	 * Prevent instantiation.
+	 */
+	private MrzSamples() {
+	}
+
+	/**
+	 * Asserts that two views of the same MRZ return the same values.
+	 * @param expected the view to compare with, usually a {@link MrzRecord}
+	 * @param actual the view under test
+	 * @param mrz the MRZ, reported on failure
+	 */
+	static void assertMatches(final MrzRecordView expected, final MrzRecordView actual, final String mrz) {
+		assertEquals(expected.toString(), actual.toString(), mrz);
+		assertEquals(expected.getFormat(), actual.getFormat(), mrz);
+		assertEquals(expected.getCode(), actual.getCode(), mrz);
+		assertEquals(expected.getCode1(), actual.getCode1(), mrz);
+		assertEquals(expected.getCode2(), actual.getCode2(), mrz);
+		assertEquals(expected.getIssuingCountry(), actual.getIssuingCountry(), mrz);
+		assertEquals(expected.getDocumentNumber(), actual.getDocumentNumber(), mrz);
+		assertEquals(expected.getSurname(), actual.getSurname(), mrz);
+		assertEquals(expected.getGivenNames(), actual.getGivenNames(), mrz);
+		assertEquals(expected.getDateOfBirth(), actual.getDateOfBirth(), mrz);
+		assertEquals(expected.getSex(), actual.getSex(), mrz);
+		assertEquals(expected.getExpirationDate(), actual.getExpirationDate(), mrz);
+		assertEquals(expected.getNationality(), actual.getNationality(), mrz);
+		assertEquals(expected.isValidDocumentNumber(), actual.isValidDocumentNumber(), mrz);
+		assertEquals(expected.isValidDateOfBirth(), actual.isValidDateOfBirth(), mrz);
+		assertEquals(expected.isValidExpirationDate(), actual.isValidExpirationDate(), mrz);
+		assertEquals(expected.isValidComposite(), actual.isValidComposite(), mrz);
+	}
+
+}
@@ -0,0 +1,153 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import com.github.rarspace01.mrz.types.MrzFormat;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests {@link MrzStreamReader}.
+ */
+public class MrzStreamReaderTest {
+
+	private static final String TD1 = MrzSamples.TD1 + "\n";
+	private static final String PASSPORT = MrzSamples.PASSPORT.replace("\n", "\r\n") + "\r\n";
+	private static final String TD2 = MrzSamples.TD2 + "\n";
+
+	private static List<ParseResult> readAll(final MrzStreamReader reader) {
+		final List<ParseResult> results = new ArrayList<>();
+		while (reader.hasNext()) {
+			results.add(reader.next());
+		}
+		return results;
+	}
+
+	@Test
+	public void testRecords() throws Exception {
+		final String text = TD1 + "\n" + PASSPORT + TD2;
+		for (final int bufferSize : new int[]{1, 7, 64, MrzStreamReader.DEFAULT_BUFFER_SIZE}) {
+			final List<ParseResult> results = readAll(new MrzStreamReader(new StringReader(text), bufferSize));
+			assertEquals(3, results.size());
+			assertEquals(MrzFormat.MRTD_TD1, results.get(0).getFormat());
+			assertEquals(MrzParser.parse(TD1).toString(), results.get(0).getRecord().toString());
+			assertEquals(0, results.get(0).getOffset());
+			assertEquals(MrzFormat.PASSPORT, results.get(1).getFormat());
+			assertEquals(TD1.length() + 1, results.get(1).getOffset());
+			assertEquals(MrzFormat.MRTD_TD2, results.get(2).getFormat());
+			assertEquals(TD1.length() + 1 + PASSPORT.length(), results.get(2).getOffset());
+			assertTrue(results.get(2).isSuccess());
+		}
+	}
+
+	@Test
+	public void testResynchronize() {
+		final String garbage = "garbage\n";
+		final String truncated = "P<GBRUK<SPECIMEN<<ANGELA<ZOE<<<<<<<<<<<<<<<<\n";
+		// a TD1 record missing its last row, followed by a complete TD2
+		final String shortTd1 = TD1.substring(0, 62);
+		final String text = garbage + truncated + TD2 + shortTd1 + TD2;
+		final List<ParseResult> results = readAll(new MrzStreamReader(new StringReader(text), 5));
+		assertEquals(5, results.size());
+		assertEquals(MrzParseFailure.UNKNOWN_FORMAT, results.get(0).getFailure());
+		assertEquals(0, results.get(0).getOffset());
+		// the line of a different length starts the next record
+		assertEquals(MrzParseFailure.UNKNOWN_FORMAT, results.get(1).getFailure());
+		assertEquals(garbage.length(), results.get(1).getOffset());
+		assertEquals(MrzFormat.MRTD_TD2, results.get(2).getFormat());
+		assertEquals(garbage.length() + truncated.length(), results.get(2).getOffset());
+		assertEquals(MrzParseFailure.UNKNOWN_FORMAT, results.get(3).getFailure());
+		assertEquals(text.length() - TD2.length() - shortTd1.length(), results.get(3).getOffset());
+		assertEquals(MrzFormat.MRTD_TD2, results.get(4).getFormat());
+		assertEquals(text.length() - TD2.length(), results.get(4).getOffset());
+	}
+
+	@Test
+	public void testDroppedLine() throws Exception {
+		// back-to-back passports, the first row of the first one and the second row of the fourth one got lost
+		final String secondRow = PASSPORT.substring(PASSPORT.indexOf('\n') + 1);
+		final String firstRow = PASSPORT.substring(0, PASSPORT.indexOf('\n') + 1);
+		final String text = secondRow + PASSPORT + PASSPORT + firstRow + PASSPORT + PASSPORT;
+		final List<ParseResult> results = readAll(new MrzStreamReader(new StringReader(text), 7));
+		assertEquals(6, results.size());
+		// the stray second row is reported alone
+		assertFalse(results.get(0).isSuccess());
+		assertEquals(0, results.get(0).getOffset());
+		assertEquals("9250764733GBR8809117F2007162<<<<<<<<<<<<<<08", results.get(0).getMrz());
+		// a first row never continues a record
+		assertFalse(results.get(3).isSuccess());
+		assertEquals(secondRow.length() + 2 * PASSPORT.length(), results.get(3).getOffset());
+		assertEquals(secondRow.length() + 2 * PASSPORT.length() + firstRow.length(), results.get(4).getOffset());
+		for (final int i : new int[]{1, 2, 4, 5}) {
+			assertEquals(MrzFormat.PASSPORT, results.get(i).getFormat());
+			assertEquals(MrzParser.parse(PASSPORT).toString(), results.get(i).getRecord().toString(), "record " + i);
+		}
+	}
+
+	@Test
+	public void testTd1ThirdRowLikeFirstRow() throws Exception {
+		// the name of the third row reads like a first row: document code A, country DER
+		final String td1 = TD1.replace("STEVENSON<<PETER<<<<<<<<<<<<<<", "ANDERSON<<PETER<<<<<<<<<<<<<<<");
+		final List<ParseResult> results = readAll(new MrzStreamReader(new StringReader(td1 + td1)));
+		assertEquals(2, results.size());
+		assertEquals(MrzFormat.MRTD_TD1, results.get(0).getFormat());
+		assertEquals(MrzParser.parse(td1).toString(), results.get(1).getRecord().toString());
+	}
+
+	@Test
+	public void testDiagnostics() {
+		final CollectingMrzDiagnostics diagnostics = new CollectingMrzDiagnostics();
+		// a wrong composite check digit
+		final String td2 = TD2.replace("<<<<<<<2", "<<<<<<<7");
+		final List<ParseResult> results = readAll(new MrzStreamReader(new StringReader(td2 + PASSPORT + td2)).setDiagnostics(diagnostics));
+		assertEquals(3, results.size());
+		assertFalse(results.get(0).getDiagnostics().isEmpty());
+		assertTrue(results.get(1).getDiagnostics().isEmpty());
+		assertEquals(results.get(0).getDiagnostics().toString(), results.get(2).getDiagnostics().toString());
+		assertEquals(2 * results.get(0).getDiagnostics().size(), diagnostics.getDiagnostics().size());
+	}
+
+	@Test
+	public void testInputStreamByteOffsets() {
+		final String text = "Ünïcödé\n" + TD2 + TD2;
+		final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		final List<ParseResult> results = new MrzStreamReader(new ByteArrayInputStream(bytes)).stream().collect(Collectors.toList());
+		assertEquals(3, results.size());
+		assertFalse(results.get(0).isSuccess());
+		final int firstRecord = "Ünïcödé\n".getBytes(StandardCharsets.UTF_8).length;
+		assertEquals(firstRecord, results.get(1).getOffset());
+		assertEquals(firstRecord + TD2.length(), results.get(2).getOffset());
+		assertTrue(results.get(2).isSuccess());
+	}
+
+	@Test
+	public void testEmpty() {
+		final MrzStreamReader reader = new MrzStreamReader(new StringReader("\n\r\n\n"));
+		assertFalse(reader.hasNext());
+		assertThrows(java.util.NoSuchElementException.class, reader::next);
+	}
+}
@@ -0,0 +1,108 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import com.github.rarspace01.mrz.records.MRP;
+import com.github.rarspace01.mrz.types.MrzFormat;
+import org.junit.jupiter.api.Test;
+
+import static com.github.rarspace01.mrz.MrzSamples.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests {@link MrzValidator}.
+ */
+public class MrzValidatorTest {
+
+	private static final String[] SAMPLES = {
+		TD1 + "\n",
+		FRENCH_ID + "\n",
+		VISA_B + "\n",
+		TD2.replace("\n", "\r\n"),
+		TRAVEL_PASS,
+		VISA_A + "\n",
+		CZECH_PASSPORT,
+		SLOVAK_ID
+	};
+
+	private static void assertMirrors(final String mrz) throws MrzParseException {
+		final MrzRecord record = MrzParser.parse(mrz);
+		final int result = MrzValidator.validate(mrz);
+		assertEquals(record.getFormat(), MrzValidator.getFormat(result), mrz);
+		assertEquals(record.isValidDocumentNumber(), (result & MrzValidator.VALID_DOCUMENT_NUMBER) != 0, mrz);
+		assertEquals(record.isValidDateOfBirth(), (result & MrzValidator.VALID_DATE_OF_BIRTH) != 0, mrz);
+		assertEquals(record.isValidExpirationDate(), (result & MrzValidator.VALID_EXPIRATION_DATE) != 0, mrz);
+		assertEquals(record.isValidComposite(), (result & MrzValidator.VALID_COMPOSITE) != 0, mrz);
+		if (record instanceof MRP) {
+			assertEquals(((MRP) record).isValidPersonalNumber(), (result & MrzValidator.VALID_PERSONAL_NUMBER) != 0, mrz);
+		}
+	}
+
+	@Test
+	public void testMirrorsRecord() throws MrzParseException {
+		for (final String sample : SAMPLES) {
+			assertMirrors(sample);
+			assertTrue(MrzValidator.isValid(MrzValidator.validate(sample)), sample);
+			// corrupt every digit of the last row once
+			final int lastRow = sample.lastIndexOf('\n', sample.length() - 2) + 1;
+			for (int i = lastRow; i < sample.length(); i++) {
+				if (Character.isDigit(sample.charAt(i))) {
+					final char[] chars = sample.toCharArray();
+					chars[i] = chars[i] == '9' ? '0' : (char) (chars[i] + 1);
+					assertMirrors(new String(chars));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testInvalidDate() throws MrzParseException {
+		// month 13 with a matching check digit
+		final String mrz = "P<CZESPECIMEN<<VZOR<<<<<<<<<<<<<<<<<<<<<<<<<\n99003853<1CZE1113010M1207046110101111<<<<<90";
+		assertMirrors(mrz);
+		assertEquals(0, MrzValidator.validate(mrz) & MrzValidator.VALID_DATE_OF_BIRTH);
+	}
+
+	@Test
+	public void testInvalidCharacters() {
+		final int result = MrzValidator.validate("P<CZESPECIMEN<<VZOR<<<<<<<<<<<<<<<<<<<<<<<<<\n990038a3<1CZE1101018M1207046110101111<<<<<94");
+		assertEquals(MrzFormat.PASSPORT, MrzValidator.getFormat(result));
+		assertEquals(0, result & (MrzValidator.VALID_DOCUMENT_NUMBER | MrzValidator.VALID_COMPOSITE));
+		assertNotEquals(0, result & MrzValidator.VALID_DATE_OF_BIRTH);
+		assertFalse(MrzValidator.isValid(result));
+	}
+
+	@Test
+	public void testUnknownFormat() {
+		assertEquals(MrzValidator.INVALID, MrzValidator.validate(""));
+		assertEquals(MrzValidator.INVALID, MrzValidator.validate("I<UTOSTEVENSON<<PETER<<<<<<<<<<<<<<<\nD231458907UTO3407127M9507122<<<<<<2"));
+		assertEquals(MrzValidator.INVALID, MrzValidator.validate("\n" + TD2));
+		assertEquals(MrzValidator.INVALID, MrzValidator.validate("Ü<UTOSTEVENSON\nD231458907UTO3"));
+		assertNull(MrzValidator.getFormat(MrzValidator.INVALID));
+		assertFalse(MrzValidator.isValid(MrzValidator.INVALID));
+	}
+
+	@Test
+	public void testBufferWindow() {
+		final String mrz = CZECH_PASSPORT;
+		final String buffer = "garbage\n" + mrz + "\nmore garbage";
+		assertEquals(MrzValidator.validate(mrz), MrzValidator.validate(buffer, 8, mrz.length()));
+		assertTrue(MrzValidator.isValid(MrzValidator.validate(buffer, 8, mrz.length())));
+	}
+}
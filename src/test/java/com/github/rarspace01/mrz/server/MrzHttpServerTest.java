@@ -0,0 +1,129 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests {@link MrzHttpServer}.
+ */
+public class MrzHttpServerTest {
+
+	private static final String TD2 = "I<UTOSTEVENSON<<PETER<<<<<<<<<<<<<<<\nD231458907UTO3407127M9507122<<<<<<<2\n";
+	private static final String PASSPORT = "P<GBRUK<SPECIMEN<<ANGELA<ZOE<<<<<<<<<<<<<<<<\r\n9250764733GBR8809117F2007162<<<<<<<<<<<<<<08\r\n";
+
+	private static HttpResponse<String> post(final MrzHttpServer server, final String path, final String body) throws Exception {
+		final HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getAddress().getPort() + path))
+			.POST(HttpRequest.BodyPublishers.ofString(body)).build();
+		return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+	}
+
+	@Test
+	public void testParse() throws Exception {
+		try (MrzHttpServer server = new MrzHttpServer(new InetSocketAddress("localhost", 0))) {
+			final HttpResponse<String> response = post(server, "/parse", PASSPORT);
+			assertEquals(200, response.statusCode());
+			assertEquals("{\"offset\":0,\"success\":true,\"record\":{\"format\":\"PASSPORT\",\"code\":\"PASSPORT\",\"code1\":\"P\",\"code2\":\"<\","
+				+ "\"issuingCountry\":\"GBR\",\"documentNumber\":\"925076473\",\"surname\":\"UK SPECIMEN\",\"givenNames\":\"ANGELA ZOE\","
+				+ "\"dateOfBirth\":\"880911\",\"sex\":\"FEMALE\",\"expirationDate\":\"200716\",\"nationality\":\"GBR\",\"personalNumber\":\"\","
+				+ "\"valid\":{\"documentNumber\":true,\"dateOfBirth\":true,\"expirationDate\":true,\"composite\":true,\"personalNumber\":true}}}",
+				response.body());
+
+			final HttpResponse<String> failure = post(server, "/parse", "P<GBRUK<SPECIMEN<<ANGELA<ZOE<<<<<<<<<<<<<<<<\n9250764733GBR88o9117F2007162<<<<<<<<<<<<<<08");
+			assertEquals(200, failure.statusCode());
+			assertEquals("{\"offset\":0,\"success\":false,\"failure\":\"INVALID_CHARACTER\",\"message\":\"Invalid character in MRZ record: 88o911\","
+				+ "\"format\":\"PASSPORT\",\"range\":{\"row\":1,\"column\":13,\"columnTo\":19}}", failure.body());
+
+			assertEquals(413, post(server, "/parse", "<".repeat(2000)).statusCode());
+		}
+	}
+
+	@Test
+	public void testParseBatch() throws Exception {
+		try (MrzHttpServer server = new MrzHttpServer(new InetSocketAddress("localhost", 0))) {
+			final StringBuilder body = new StringBuilder();
+			for (int i = 0; i < 100; i++) {
+				body.append(i % 10 == 9 ? "garbage\n" : TD2);
+			}
+			final HttpResponse<String> response = post(server, "/parse/batch", body.toString());
+			assertEquals(200, response.statusCode());
+			assertEquals("application/x-ndjson", response.headers().firstValue("Content-Type").orElse(null));
+			final String[] lines = response.body().split("\n");
+			assertEquals(100, lines.length);
+			assertTrue(lines[0].startsWith("{\"offset\":0,\"success\":true,\"record\":{\"format\":\"MRTD_TD2\""), lines[0]);
+			assertTrue(lines[9].startsWith("{\"offset\":" + 9 * TD2.length() + ",\"success\":false,\"failure\":\"UNKNOWN_FORMAT\""), lines[9]);
+			assertTrue(lines[10].startsWith("{\"offset\":" + (9 * TD2.length() + 8) + ",\"success\":true"), lines[10]);
+		}
+	}
+
+	@Test
+	public void testParseBatchStreams() throws Exception {
+		try (MrzHttpServer server = new MrzHttpServer(new InetSocketAddress("localhost", 0));
+			 Socket socket = new Socket("localhost", server.getAddress().getPort())) {
+			socket.setSoTimeout(5000);
+			final OutputStream out = socket.getOutputStream();
+			final byte[] record = TD2.getBytes(StandardCharsets.US_ASCII);
+			// one chunk of the body, the client keeps the request open
+			out.write(("POST /parse/batch HTTP/1.1\r\nHost: localhost\r\nTransfer-Encoding: chunked\r\n\r\n"
+				+ Integer.toHexString(record.length) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+			out.write(record);
+			out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+			out.flush();
+			final BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+			String line = in.readLine();
+			assertTrue(line.startsWith("HTTP/1.1 200"), line);
+			while (!line.startsWith("{")) {
+				line = in.readLine();
+			}
+			assertTrue(line.startsWith("{\"offset\":0,\"success\":true,\"record\":{\"format\":\"MRTD_TD2\""), line);
+			out.write("0\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+			out.flush();
+		}
+	}
+
+	@Test
+	public void testNotFound() throws Exception {
+		try (MrzHttpServer server = new MrzHttpServer(new InetSocketAddress("localhost", 0))) {
+			assertEquals(404, post(server, "/parse/batch/anything", TD2).statusCode());
+			assertEquals(404, post(server, "/parse/anything", TD2).statusCode());
+		}
+	}
+
+	@Test
+	public void testMethodNotAllowed() throws Exception {
+		try (MrzHttpServer server = new MrzHttpServer(new InetSocketAddress("localhost", 0))) {
+			final HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getAddress().getPort() + "/parse")).GET().build();
+			assertEquals(405, HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.discarding()).statusCode());
+		}
+	}
+
+}
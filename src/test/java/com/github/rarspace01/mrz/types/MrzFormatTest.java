@@ -0,0 +1,77 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz.types;
+
+import com.github.rarspace01.mrz.MrzParseException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests {@link MrzFormat} detection.
+ */
+public class MrzFormatTest {
+
+	@Test
+	public void testDetection() throws MrzParseException {
+		assertEquals(MrzFormat.MRTD_TD1, MrzFormat.get("CIUTOD231458907A123X5328434D23\n3407127M9507122UTO<<<<<<<<<<<6\nSTEVENSON<<PETER<<<<<<<<<<<<<<\n"));
+		assertEquals(MrzFormat.FRENCH_ID, MrzFormat.get("IDFRAPETE<<<<<<<<<<<<<<<<<<<<<952042\n0509952018746NICOLAS<<PAUL<8206152M3\n"));
+		assertEquals(MrzFormat.MRV_VISA_B, MrzFormat.get("V<UTOERIKSSON<<ANNA<MARIA<<<<<<<<<<<\nL898902C<3UTO6908061F9406236ZE184226\n"));
+		assertEquals(MrzFormat.MRTD_TD2, MrzFormat.get("I<UTOSTEVENSON<<PETER<<<<<<<<<<<<<<<\nD231458907UTO3407127M9507122<<<<<<<2"));
+		assertEquals(MrzFormat.TRAVEL_PASS, MrzFormat.get("PTD<<ALJWEER<<AHMAD<<<<<<<<<<<<<<<<<<<<<<<<<\nZ06RF5CX25SYR0101011M24092162101<<<<<<<<<<44"));
+		assertEquals(MrzFormat.MRV_VISA_A, MrzFormat.get("V<UTOERIKSSON<<ANNA<MARIA<<<<<<<<<<<<<<<<<<<\nL898902C<3UTO6908061F9406236ZE184226B<<<<<<<\n"));
+		assertEquals(MrzFormat.PASSPORT, MrzFormat.get("P<CZESPECIMEN<<VZOR<<<<<<<<<<<<<<<<<<<<<<<<<\n99003853<1CZE1101018M1207046110101111<<<<<94"));
+		assertEquals(MrzFormat.SLOVAK_ID_234, MrzFormat.get("I<SVKNOVAK<<JAN<<<<<<<<<<<<<<<<<<<\n123456<AA5SVK8110251M1801020749313"));
+	}
+
+	@Test
+	public void testTravelPassNeedsFullDocumentNumber() throws MrzParseException {
+		assertEquals(MrzFormat.PASSPORT, MrzFormat.get("PTD<<ALJWEER<<AHMAD<<<<<<<<<<<<<<<<<<<<<<<<<\nZ06RF5<X25SYR0101011M24092162101<<<<<<<<<<44"));
+	}
+
+	@Test
+	public void testIsFormatOf() {
+		final String[] rows = {"IDFRAPETE<<<<<<<<<<<<<<<<<<<<<952042", "0509952018746NICOLAS<<PAUL<8206152M3"};
+		assertTrue(MrzFormat.FRENCH_ID.isFormatOf(rows));
+		assertTrue(MrzFormat.MRTD_TD2.isFormatOf(rows));
+		assertFalse(MrzFormat.MRV_VISA_B.isFormatOf(rows));
+		assertFalse(MrzFormat.PASSPORT.isFormatOf(rows));
+	}
+
+	@Test
+	public void testUnknownFormat() {
+		assertThrows(MrzParseException.class, () -> MrzFormat.get("I<UTOSTEVENSON<<PETER<<<<<<<<<<<<<<<\nD231458907UTO3407127M9507122<<<<<<<2\nXX"));
+		assertThrows(MrzParseException.class, () -> MrzFormat.get("Ü<UTOSTEVENSON\nD231458907UTO3"));
+		assertThrows(MrzParseException.class, () -> MrzFormat.get(""));
+	}
+
+	@Test
+	public void testDocumentCodeLookup() {
+		assertEquals(MrzDocumentCode.PASSPORT, MrzDocumentCode.lookup('P', '<'));
+		assertEquals(MrzDocumentCode.PASSPORT, MrzDocumentCode.lookup('I', 'P'));
+		assertEquals(MrzDocumentCode.TYPE_I, MrzDocumentCode.lookup('I', 'D'));
+		assertEquals(MrzDocumentCode.CREW_MEMBER, MrzDocumentCode.lookup('A', 'C'));
+		assertEquals(MrzDocumentCode.TYPE_A, MrzDocumentCode.lookup('A', '<'));
+		assertEquals(MrzDocumentCode.MIGRANT, MrzDocumentCode.lookup('P', 'T'));
+		assertEquals(MrzDocumentCode.MIGRANT, MrzDocumentCode.lookup('M', 'E'));
+		assertNull(MrzDocumentCode.lookup('M', '<'));
+		assertNull(MrzDocumentCode.lookup('I', 'V'));
+		assertNull(MrzDocumentCode.lookup('Ü', '<'));
+	}
+}
@@ -0,0 +1,79 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz.types;
+
+import com.github.rarspace01.mrz.MrzRange;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests {@link MrzLayout}.
+ */
+public class MrzLayoutTest {
+
+	@Test
+	public void testPassportLayout() {
+		final MrzLayout layout = MrzFormat.PASSPORT.getLayout();
+		final int index = layout.indexOf(MrzField.DOCUMENT_NUMBER);
+		assertEquals(MrzField.DOCUMENT_NUMBER, layout.getField(index));
+		assertEquals(1, layout.getRow(index));
+		assertEquals(0, layout.getColumn(index));
+		assertEquals(9, layout.getColumnTo(index));
+		assertEquals(9, layout.getCheckDigitColumn(index));
+		assertTrue(layout.isCompositeMember(index));
+		assertFalse(layout.hasCheckDigit(layout.indexOf(MrzField.NAMES)));
+		assertEquals(-1, layout.indexOf(MrzField.OPTIONAL));
+		assertNull(layout.getRange(MrzField.OPTIONAL));
+		assertTrue(layout.hasComposite());
+		assertEquals(43, layout.getCompositeColumn());
+		assertEquals(1, layout.getCompositeRow());
+		assertEquals("[0-10,1, 13-20,1, 21-43,1]", layout.getCompositeRanges().toString());
+	}
+
+	@Test
+	public void testCompositeRangesAreMerged() {
+		assertEquals("[5-30,0, 0-7,1, 8-15,1, 18-29,1]", MrzFormat.MRTD_TD1.getLayout().getCompositeRanges().toString());
+		assertEquals("[0-36,0, 0-35,1]", MrzFormat.FRENCH_ID.getLayout().getCompositeRanges().toString());
+		assertEquals("[0-10,1, 13-20,1, 21-35,1]", MrzFormat.MRTD_TD2.getLayout().getCompositeRanges().toString());
+	}
+
+	@Test
+	public void testNoComposite() {
+		for (final MrzFormat format : Arrays.asList(MrzFormat.MRV_VISA_A, MrzFormat.MRV_VISA_B, MrzFormat.SLOVAK_ID_234)) {
+			assertFalse(format.getLayout().hasComposite());
+			assertTrue(format.getLayout().getCompositeRanges().isEmpty());
+		}
+	}
+
+	@Test
+	public void testFieldsFitFormat() {
+		for (final MrzFormat format : MrzFormat.values()) {
+			final MrzLayout layout = format.getLayout();
+			for (int i = 0; i < layout.size(); i++) {
+				final MrzRange range = layout.getRange(i);
+				assertTrue(range.getRow() < format.getRows(), format + " " + layout.getField(i));
+				assertTrue(range.getColumnTo() <= format.getColumns(), format + " " + layout.getField(i));
+				assertTrue(layout.getCheckDigitColumn(i) < format.getColumns(), format + " " + layout.getField(i));
+			}
+		}
+	}
+}
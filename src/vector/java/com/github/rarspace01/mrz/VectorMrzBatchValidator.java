@@ -0,0 +1,113 @@
+/**
+ * Java parser for the MRZ records, as specified by the ICAO organization.
+ * Copyright (C) 2011 Innovatrics s.r.o.
+ * <p>
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * <p>
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * <p>
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package com.github.rarspace01.mrz;
+
+import com.github.rarspace01.mrz.types.MrzFormat;
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Lane-parallel {@link MrzBatchValidator}: every lane validates one record. The characters at the same index of a block of records are
+ * gathered into a vector, converted to check digit values and accumulated into one vector of sums per check digit. The remaining records
+ * which do not fill a block are validated by the scalar implementation.
+ * <p>
+ * Needs the {@code jdk.incubator.vector} module, e.g. {@code --add-modules jdk.incubator.vector}; created by
+ * {@link MrzBatchValidator#create(MrzFormat)}.
+ */
+final class VectorMrzBatchValidator extends MrzBatchValidator {
+
+	/**
+	 * At least 8 lanes, the byte species of the gather has no shape below 64 bits.
+	 */
+	private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED.vectorBitSize() >= 256 ? IntVector.SPECIES_PREFERRED
+		: IntVector.SPECIES_256;
+	/**
+	 * Bytes with the same number of lanes as {@link #INTS}.
+	 */
+	private static final VectorSpecies<Byte> BYTES = VectorSpecies.of(byte.class, VectorShape.forBitSize(INTS.vectorBitSize() / 4));
+
+	/**
+	 * Offsets of the records of a block, relative to the first record.
+	 */
+	private final int[] recordOffsets;
+
+	/**
+	 * Creates the validator.
+	 *
+	 * @param format the format of the records, not null.
+	 */
+	VectorMrzBatchValidator(final MrzFormat format) {
+		super(format);
+		recordOffsets = new int[INTS.length()];
+		for (int lane = 0; lane < recordOffsets.length; lane++) {
+			recordOffsets[lane] = lane * recordLength;
+		}
+	}
+
+	@Override
+	protected void validate(final byte[] matrix, final int from, final int to, final int[] masks) {
+		final int lanes = INTS.length();
+		final IntVector[] sums = new IntVector[checkBits.length];
+		final int blockEnd = from + (to - from) / lanes * lanes;
+		for (int r = from; r < blockEnd; r += lanes) {
+			final int base = r * recordLength;
+			final IntVector zero = IntVector.zero(INTS);
+			for (int k = 0; k < sums.length; k++) {
+				sums[k] = zero;
+			}
+			IntVector failed = zero;
+			for (int p = 0; p < recordLength; p++) {
+				if (contributionStart[p] == contributionStart[p + 1]) {
+					continue;
+				}
+				final IntVector c = character(matrix, base + p);
+				final VectorMask<Integer> digit = c.compare(VectorOperators.GE, '0').and(c.compare(VectorOperators.LE, '9'));
+				final VectorMask<Integer> letter = c.compare(VectorOperators.GE, 'A').and(c.compare(VectorOperators.LE, 'Z'));
+				final VectorMask<Integer> filler = c.compare(VectorOperators.EQ, MrzParser.FILLER);
+				final VectorMask<Integer> invalid = digit.or(letter).or(filler).not();
+				final IntVector value = c.sub('0').blend(c.sub('A' - 10), letter).blend(0, filler).blend(0, invalid);
+				for (int i = contributionStart[p]; i < contributionStart[p + 1]; i++) {
+					final int k = contributionChecks[i];
+					sums[k] = sums[k].add(value.mul(contributionWeights[i]));
+				}
+				failed = failed.lanewise(VectorOperators.OR, positionBits[p], invalid);
+			}
+			for (int k = 0; k < sums.length; k++) {
+				final IntVector expected = character(matrix, base + checkPositions[k]);
+				final IntVector digit = expected.blend('0', expected.compare(VectorOperators.EQ, MrzParser.FILLER));
+				final IntVector computed = sums[k].sub(sums[k].div(10).mul(10)).add('0');
+				failed = failed.lanewise(VectorOperators.OR, checkBits[k], computed.compare(VectorOperators.NE, digit));
+			}
+			failed.intoArray(masks, r);
+		}
+		super.validate(matrix, blockEnd, to, masks);
+	}
+
+	/**
+	 * Gathers the characters at given index of the records of a block.
+	 */
+	private IntVector character(final byte[] matrix, final int index) {
+		return (IntVector) ByteVector.fromArray(BYTES, matrix, index, recordOffsets, 0).convertShape(VectorOperators.B2I, INTS, 0);
+	}
+
+}